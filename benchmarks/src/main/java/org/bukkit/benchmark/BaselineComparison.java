@@ -0,0 +1,139 @@
+package org.bukkit.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Compares two JMH result files written with <code>-rf json</code> and
+ * reports how each benchmark changed relative to the baseline.
+ * <p>
+ * Usage: <code>BaselineComparison &lt;baseline.json&gt; &lt;current.json&gt;
+ * [threshold-percent]</code>
+ * <p>
+ * The process exits with status 1 if any benchmark regressed by more than
+ * the threshold, which defaults to 10 percent.
+ */
+public final class BaselineComparison {
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private BaselineComparison() {}
+
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Result> baseline = load(new File(args[0]));
+        Map<String, Result> current = load(new File(args[1]));
+
+        int regressions = compare(baseline, current, threshold, System.out);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * Prints a comparison table and counts the regressions.
+     *
+     * @param baseline the baseline results
+     * @param current the current results
+     * @param threshold the percentage a result may get worse before it is
+     *     considered a regression
+     * @param out the stream to print the table to
+     * @return the number of regressed benchmarks
+     */
+    static int compare(Map<String, Result> baseline, Map<String, Result> current, double threshold, PrintStream out) {
+        int regressions = 0;
+        out.println(String.format("%-70s %14s %14s %-8s %9s  %s", "Benchmark", "Baseline", "Current", "Unit", "Change", "Status"));
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result then = baseline.get(entry.getKey());
+            if (then == null) {
+                out.println(String.format("%-70s %14s %14.3f %-8s %9s  %s", entry.getKey(), "-", now.score, now.unit, "-", "NEW"));
+                continue;
+            }
+
+            double change = then.score == 0 ? 0 : (now.score - then.score) / then.score * 100;
+            // Throughput gets better as it grows, every other mode as it shrinks
+            double worse = now.higherIsBetter ? -change : change;
+            String status;
+            if (worse > threshold) {
+                status = "REGRESSION";
+                regressions++;
+            } else if (worse < -threshold) {
+                status = "IMPROVED";
+            } else {
+                status = "ok";
+            }
+            out.println(String.format("%-70s %14.3f %14.3f %-8s %+8.1f%%  %s", entry.getKey(), then.score, now.score, now.unit, change, status));
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                out.println(String.format("%-70s %14.3f %14s %-8s %9s  %s", name, baseline.get(name).score, "-", baseline.get(name).unit, "-", "MISSING"));
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Result> load(File file) throws IOException, ParseException {
+        Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            return parse((JSONArray) new JSONParser().parse(reader));
+        } finally {
+            reader.close();
+        }
+    }
+
+    static Map<String, Result> parse(JSONArray results) {
+        Map<String, Result> parsed = new TreeMap<String, Result>();
+        for (Object element : results) {
+            JSONObject result = (JSONObject) element;
+            StringBuilder name = new StringBuilder((String) result.get("benchmark"));
+
+            Map<?, ?> params = (Map<?, ?>) result.get("params");
+            if (params != null) {
+                Map<String, Object> sorted = new TreeMap<String, Object>();
+                for (Map.Entry<?, ?> entry : params.entrySet()) {
+                    sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+                }
+                for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                    name.append(':').append(entry.getKey()).append('=').append(entry.getValue());
+                }
+            }
+
+            // The same benchmark may run in several modes
+            String mode = (String) result.get("mode");
+            name.append(" (").append(mode).append(')');
+
+            JSONObject metric = (JSONObject) result.get("primaryMetric");
+            double score = ((Number) metric.get("score")).doubleValue();
+            String unit = (String) metric.get("scoreUnit");
+            boolean higherIsBetter = "thrpt".equals(mode);
+            parsed.put(name.toString(), new Result(score, unit, higherIsBetter));
+        }
+        return parsed;
+    }
+
+    static final class Result {
+        final double score;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Result(double score, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.bukkit.benchmark;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.plugin.PluginBase;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginLoader;
+
+import com.avaje.ebean.EbeanServer;
+
+/**
+ * An always enabled plugin that owns benchmark fixtures.
+ */
+public class BenchmarkPlugin extends PluginBase {
+    private final PluginDescriptionFile description;
+
+    public BenchmarkPlugin(String pluginName) {
+        this.description = new PluginDescriptionFile(pluginName, "1.0", "org.bukkit.benchmark." + pluginName);
+    }
+
+    public File getDataFolder() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public PluginDescriptionFile getDescription() {
+        return description;
+    }
+
+    public FileConfiguration getConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public InputStream getResource(String filename) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void saveConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void saveDefaultConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void saveResource(String resourcePath, boolean replace) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void reloadConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public Logger getLogger() {
+        return BenchmarkServer.getInstance().getLogger();
+    }
+
+    public PluginLoader getPluginLoader() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public Server getServer() {
+        return BenchmarkServer.getInstance();
+    }
+
+    public boolean isEnabled() {
+        return true;
+    }
+
+    public void onDisable() {
+    }
+
+    public void onLoad() {
+    }
+
+    public void onEnable() {
+    }
+
+    public boolean isNaggable() {
+        return false;
+    }
+
+    public void setNaggable(boolean canNag) {
+    }
+
+    public EbeanServer getDatabase() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public ChunkGenerator getDefaultWorldGenerator(String worldName, String id) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        return false;
+    }
+
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        return null;
+    }
+}
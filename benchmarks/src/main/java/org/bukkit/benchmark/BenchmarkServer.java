@@ -0,0 +1,65 @@
+package org.bukkit.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.Warning.WarningState;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.SimplePluginManager;
+
+/**
+ * The {@link Server} used by all benchmarks. Only the methods the
+ * benchmarked code paths call are implemented.
+ */
+public final class BenchmarkServer implements InvocationHandler {
+    private static final Server instance;
+
+    static {
+        BenchmarkServer handler = new BenchmarkServer();
+        instance = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[] { Server.class }, handler);
+        handler.logger.setLevel(Level.WARNING);
+        Bukkit.setServer(instance);
+        handler.pluginManager = new SimplePluginManager(instance, new SimpleCommandMap(instance));
+    }
+
+    private final Logger logger = Logger.getLogger(BenchmarkServer.class.getName());
+    private PluginManager pluginManager;
+
+    private BenchmarkServer() {}
+
+    public static Server getInstance() {
+        return instance;
+    }
+
+    public static PluginManager getPluginManager() {
+        return instance.getPluginManager();
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("getPluginManager")) {
+            return pluginManager;
+        } else if (name.equals("getLogger")) {
+            return logger;
+        } else if (name.equals("isPrimaryThread")) {
+            return true;
+        } else if (name.equals("getWarningState")) {
+            return WarningState.DEFAULT;
+        } else if (name.equals("getName") || name.equals("getVersion") || name.equals("getBukkitVersion")) {
+            return BenchmarkServer.class.getSimpleName();
+        } else if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        } else if (name.equals("equals")) {
+            return proxy == args[0];
+        } else if (name.equals("toString")) {
+            return BenchmarkServer.class.getSimpleName();
+        }
+        throw new UnsupportedOperationException(String.valueOf(method));
+    }
+}
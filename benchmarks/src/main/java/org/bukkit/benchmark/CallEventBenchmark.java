@@ -0,0 +1,102 @@
+package org.bukkit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.PluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PluginManager#callEvent(Event)} with many listeners spread
+ * over plugins and priorities, some of which ignore cancelled events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallEventBenchmark {
+    private static final EventPriority[] PRIORITIES = EventPriority.values();
+
+    @Param({ "10", "100", "500" })
+    public int listeners;
+
+    private PluginManager pluginManager;
+    private BenchmarkEvent event;
+
+    @Setup
+    public void setUp() {
+        pluginManager = BenchmarkServer.getPluginManager();
+        Listener listener = new Listener() {};
+        EventExecutor executor = new EventExecutor() {
+            public void execute(Listener listener, Event event) throws EventException {
+                BenchmarkEvent benchmarkEvent = (BenchmarkEvent) event;
+                benchmarkEvent.calls++;
+                if ((benchmarkEvent.calls & 63) == 0) {
+                    benchmarkEvent.setCancelled(!benchmarkEvent.isCancelled());
+                }
+            }
+        };
+
+        BenchmarkPlugin[] plugins = new BenchmarkPlugin[20];
+        for (int i = 0; i < plugins.length; i++) {
+            plugins[i] = new BenchmarkPlugin("EventPlugin" + i);
+        }
+        for (int i = 0; i < listeners; i++) {
+            pluginManager.registerEvent(BenchmarkEvent.class, listener, PRIORITIES[i % PRIORITIES.length], executor, plugins[i % plugins.length], i % 3 == 0);
+        }
+        event = new BenchmarkEvent();
+    }
+
+    @TearDown
+    public void tearDown() {
+        HandlerList.unregisterAll();
+    }
+
+    @Benchmark
+    public int callEvent() {
+        pluginManager.callEvent(event);
+        return event.calls;
+    }
+
+    public static class BenchmarkEvent extends Event implements Cancellable {
+        private static final HandlerList handlers = new HandlerList();
+        private boolean cancelled;
+        int calls;
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void setCancelled(boolean cancel) {
+            this.cancelled = cancel;
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return handlers;
+        }
+
+        public static HandlerList getHandlerList() {
+            return handlers;
+        }
+    }
+}
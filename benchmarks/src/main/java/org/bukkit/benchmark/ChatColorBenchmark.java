@@ -0,0 +1,50 @@
+package org.bukkit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ChatColor#stripColor(String)} on typical chat lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatColorBenchmark {
+    private String colored;
+    private String plain;
+
+    @Setup
+    public void setUp() {
+        colored = ChatColor.GRAY + "[" + ChatColor.GOLD + "Admin" + ChatColor.GRAY + "] " + ChatColor.RESET + "Notch" + ChatColor.WHITE + ": " + ChatColor.BOLD + "hello " + ChatColor.RESET + "everyone, welcome to the server!";
+        plain = ChatColor.stripColor(colored);
+    }
+
+    @Benchmark
+    public String stripColored() {
+        return ChatColor.stripColor(colored);
+    }
+
+    @Benchmark
+    public String stripPlain() {
+        return ChatColor.stripColor(plain);
+    }
+
+    @Benchmark
+    public String translateAlternateColorCodes() {
+        return ChatColor.translateAlternateColorCodes('&', "&7[&6Admin&7] &rNotch&f: &lhello &reveryone");
+    }
+}
@@ -0,0 +1,49 @@
+package org.bukkit.benchmark;
+
+import static org.bukkit.util.Java15Compat.Arrays_copyOfRange;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.bukkit.command.CommandLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures splitting a command block style command line into its label and
+ * arguments with a regular expression, as dispatch used to, and with
+ * {@link CommandLine}. Run with <code>-prof gc</code> to compare the
+ * allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandLineBenchmark {
+    private static final Pattern PATTERN_ON_SPACE = Pattern.compile(" ", Pattern.LITERAL);
+
+    public String line = "tp @p[r=5,score_stage_min=3] 120 64 -35";
+
+    @Benchmark
+    public String[] regex() {
+        String[] args = PATTERN_ON_SPACE.split(line);
+        args[0] = args[0].toLowerCase();
+        return Arrays_copyOfRange(args, 1, args.length);
+    }
+
+    @Benchmark
+    public String[] tokenizer() {
+        CommandLine commandLine = new CommandLine(line);
+        commandLine.getLabel().toLowerCase();
+        return commandLine.getArgs();
+    }
+}
@@ -0,0 +1,153 @@
+package org.bukkit.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.command.defaults.VanillaCommand;
+import org.bukkit.util.StringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures tab completing a bare command name on a command map with
+ * several hundred commands and aliases, through the sorted label index and
+ * through a scan of every label. Also measures looking up a command and
+ * registering the commands of every plugin, which copies the known
+ * commands once per plugin.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandMapBenchmark {
+    static final int PLUGINS = 50;
+    static final int COMMANDS_PER_PLUGIN = 10;
+
+    private SimpleCommandMap indexed;
+    private ScanningCommandMap scanning;
+    private CommandSender sender;
+    private String[] prefixes;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        indexed = new SimpleCommandMap(BenchmarkServer.getInstance());
+        scanning = new ScanningCommandMap();
+        for (int plugin = 0; plugin < PLUGINS; plugin++) {
+            for (int command = 0; command < COMMANDS_PER_PLUGIN; command++) {
+                String name = "p" + plugin + "cmd" + command;
+                indexed.register("plugin" + plugin, new BenchmarkCommand(name, "p" + plugin + "c" + command, "p" + plugin + "alias" + command));
+                scanning.register("plugin" + plugin, new BenchmarkCommand(name, "p" + plugin + "c" + command, "p" + plugin + "alias" + command));
+            }
+        }
+
+        sender = (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(), new Class<?>[] { CommandSender.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("hasPermission")) {
+                    return true;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+        prefixes = new String[16];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = "p" + (i * 3) + "cm";
+        }
+    }
+
+    private String next() {
+        index = (index + 1) & 15;
+        return prefixes[index];
+    }
+
+    @Benchmark
+    public List<String> tabCompleteIndexed() {
+        return indexed.tabComplete(sender, next());
+    }
+
+    @Benchmark
+    public List<String> tabCompleteScanning() {
+        return scanning.tabComplete(sender, next());
+    }
+
+    @Benchmark
+    public Command getCommand() {
+        return indexed.getCommand(next());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SimpleCommandMap registerAll() {
+        SimpleCommandMap map = new SimpleCommandMap(BenchmarkServer.getInstance());
+        for (int plugin = 0; plugin < PLUGINS; plugin++) {
+            List<Command> commands = new ArrayList<Command>();
+            for (int command = 0; command < COMMANDS_PER_PLUGIN; command++) {
+                String name = "p" + plugin + "cmd" + command;
+                commands.add(new BenchmarkCommand(name, "p" + plugin + "c" + command, "p" + plugin + "alias" + command));
+            }
+            map.registerAll("plugin" + plugin, commands);
+        }
+        return map;
+    }
+
+    static final class BenchmarkCommand extends Command {
+        BenchmarkCommand(String name, String... aliases) {
+            super(name, "", "/" + name, Arrays.asList(aliases));
+            setPermission("benchmark." + name);
+        }
+
+        @Override
+        public boolean execute(CommandSender sender, String commandLabel, String[] args) {
+            return true;
+        }
+    }
+
+    /**
+     * Completes bare command names by checking the permission of every
+     * label, then its prefix.
+     */
+    static final class ScanningCommandMap extends SimpleCommandMap {
+        ScanningCommandMap() {
+            super(BenchmarkServer.getInstance());
+        }
+
+        @Override
+        public List<String> tabComplete(CommandSender sender, String cmdLine) {
+            List<String> completions = new ArrayList<String>();
+            for (VanillaCommand command : fallbackCommands) {
+                String name = command.getName();
+                if (command.testPermissionSilent(sender) && !knownCommands.containsKey(name) && StringUtil.startsWithIgnoreCase(name, cmdLine)) {
+                    completions.add(name);
+                }
+            }
+            for (Map.Entry<String, Command> entry : knownCommands.entrySet()) {
+                if (entry.getValue().testPermissionSilent(sender) && StringUtil.startsWithIgnoreCase(entry.getKey(), cmdLine)) {
+                    completions.add(entry.getKey());
+                }
+            }
+            Collections.sort(completions, String.CASE_INSENSITIVE_ORDER);
+            return completions;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.bukkit.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.plugin.SimplePluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures dispatching a trivial command with command timings disabled and
+ * enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandTimingsBenchmark {
+    @Param({ "false", "true" })
+    public boolean timings;
+
+    private SimpleCommandMap commandMap;
+    private CommandSender sender;
+
+    @Setup
+    public void setUp() {
+        ((SimplePluginManager) BenchmarkServer.getPluginManager()).useTimings(timings);
+        commandMap = new SimpleCommandMap(BenchmarkServer.getInstance());
+        commandMap.register("benchmark", new CommandMapBenchmark.BenchmarkCommand("ping"));
+
+        sender = (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(), new Class<?>[] { CommandSender.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("hasPermission")) {
+                    return true;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((SimplePluginManager) BenchmarkServer.getPluginManager()).useTimings(false);
+    }
+
+    @Benchmark
+    public boolean dispatch() {
+        return commandMap.dispatch(sender, "ping pong");
+    }
+}
@@ -0,0 +1,64 @@
+package org.bukkit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.ConfigPath;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.view.ConfigValue;
+import org.bukkit.configuration.view.ConfigurationView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a nested value of a configuration with defaults by String
+ * path, by {@link ConfigPath}, and through a {@link ConfigurationView}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigurationViewBenchmark {
+    public interface Settings {
+        @ConfigValue("limits.spawn.radius")
+        int radius();
+    }
+
+    private static final ConfigPath RADIUS = ConfigPath.compile("limits.spawn.radius");
+
+    private MemoryConfiguration config;
+    private Settings settings;
+
+    @Setup
+    public void setUp() throws Exception {
+        MemoryConfiguration defaults = new MemoryConfiguration();
+        defaults.set("limits.spawn.radius", 16);
+        config = new MemoryConfiguration(defaults);
+        config.set("limits.spawn.radius", 32);
+        settings = ConfigurationView.of(Settings.class).load(config);
+    }
+
+    @Benchmark
+    public int stringPath() {
+        return config.getInt("limits.spawn.radius");
+    }
+
+    @Benchmark
+    public int compiledPath() {
+        return config.getInt(RADIUS);
+    }
+
+    @Benchmark
+    public int view() {
+        return settings.radius();
+    }
+}
@@ -0,0 +1,134 @@
+package org.bukkit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.ConfigPath;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.MemorySection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link MemorySection#get(String)} style lookups on a deep
+ * configuration tree, with and without defaults, with String paths, with
+ * {@link ConfigPath}s and with String paths through the path cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemorySectionBenchmark {
+    private static final int FANOUT = 8;
+
+    @Param({ "2", "4", "6" })
+    public int depth;
+
+    private MemoryConfiguration config;
+    private MemoryConfiguration cachedConfig;
+    private String[] paths;
+    private ConfigPath[] compiledPaths;
+    private String missingPath;
+    private String defaultPath;
+    private ConfigPath compiledDefaultPath;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        MemoryConfiguration defaults = new MemoryConfiguration();
+        config = new MemoryConfiguration(defaults);
+        populate(config, depth);
+
+        paths = new String[64];
+        for (int i = 0; i < paths.length; i++) {
+            StringBuilder path = new StringBuilder();
+            int seed = i * 31 + 7;
+            for (int level = 0; level < depth; level++) {
+                if (level > 0) {
+                    path.append('.');
+                }
+                path.append("node").append((seed >> level) % FANOUT);
+            }
+            paths[i] = path.toString();
+        }
+        missingPath = paths[0] + ".missing";
+        defaultPath = paths[0].replace("node", "default");
+        defaults.set(defaultPath, "fallback");
+
+        compiledPaths = new ConfigPath[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            compiledPaths[i] = ConfigPath.compile(paths[i]);
+        }
+        compiledDefaultPath = ConfigPath.compile(defaultPath);
+
+        cachedConfig = new MemoryConfiguration(defaults);
+        cachedConfig.options().pathCacheSize(256);
+        populate(cachedConfig, depth);
+    }
+
+    private static void populate(ConfigurationSection section, int remaining) {
+        for (int i = 0; i < FANOUT; i++) {
+            if (remaining == 1) {
+                section.set("node" + i, "value" + i);
+            } else {
+                populate(section.createSection("node" + i), remaining - 1);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object get() {
+        index = (index + 1) & (paths.length - 1);
+        return config.get(paths[index]);
+    }
+
+    @Benchmark
+    public String getString() {
+        index = (index + 1) & (paths.length - 1);
+        return config.getString(paths[index]);
+    }
+
+    @Benchmark
+    public Object getMissing() {
+        return config.get(missingPath);
+    }
+
+    @Benchmark
+    public Object getDefault() {
+        return config.get(defaultPath);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        index = (index + 1) & (paths.length - 1);
+        return config.contains(paths[index]);
+    }
+
+    @Benchmark
+    public String getStringCompiled() {
+        index = (index + 1) & (paths.length - 1);
+        return config.getString(compiledPaths[index]);
+    }
+
+    @Benchmark
+    public String getStringCached() {
+        index = (index + 1) & (paths.length - 1);
+        return cachedConfig.getString(paths[index]);
+    }
+
+    @Benchmark
+    public Object getDefaultCompiled() {
+        return config.get(compiledDefaultPath);
+    }
+}
@@ -0,0 +1,79 @@
+package org.bukkit.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.bukkit.plugin.messaging.StandardMessenger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link StandardMessenger#dispatchIncomingMessage(Player, String,
+ * byte[])} with many registered channels and listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessengerBenchmark {
+    private static final int PLUGINS = 50;
+
+    private StandardMessenger messenger;
+    private Player player;
+    private byte[] message;
+    private int received;
+
+    @Setup
+    public void setUp() {
+        messenger = new StandardMessenger();
+        PluginMessageListener listener = new PluginMessageListener() {
+            public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+                received += message.length;
+            }
+        };
+        for (int i = 0; i < PLUGINS; i++) {
+            BenchmarkPlugin plugin = new BenchmarkPlugin("MessengerPlugin" + i);
+            messenger.registerIncomingPluginChannel(plugin, "Channel" + i, listener);
+            messenger.registerIncomingPluginChannel(plugin, "Shared", listener);
+        }
+
+        player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] { Player.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                throw new UnsupportedOperationException(String.valueOf(method));
+            }
+        });
+        message = new byte[64];
+    }
+
+    @Benchmark
+    public int dispatchSingleListener() {
+        messenger.dispatchIncomingMessage(player, "Channel25", message);
+        return received;
+    }
+
+    @Benchmark
+    public int dispatchSharedChannel() {
+        messenger.dispatchIncomingMessage(player, "Shared", message);
+        return received;
+    }
+
+    @Benchmark
+    public int dispatchUnknownChannel() {
+        messenger.dispatchIncomingMessage(player, "Unknown", message);
+        return received;
+    }
+}
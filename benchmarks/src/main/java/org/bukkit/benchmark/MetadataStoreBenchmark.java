@@ -0,0 +1,135 @@
+package org.bukkit.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.metadata.IntMetadataValue;
+import org.bukkit.metadata.MetadataStore;
+import org.bukkit.metadata.MetadataStoreBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares metadata lookups through a store keyed by {@link
+ * MetadataStoreBase#identify(Object) subject identity} against a store that
+ * only implements the string building {@code disambiguate} method, and
+ * compares numeric reads of boxed and primitive values. It also measures
+ * invalidating the few values of one plugin in a store mostly
+ * filled by another.
+ * <p>
+ * Run with <code>-prof gc</code> to see the allocation rate of each path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataStoreBenchmark {
+    private static final int SUBJECTS = 1024;
+
+    private IdentifiedStore identified;
+    private DisambiguatedStore disambiguated;
+    private BenchmarkPlugin rarePlugin;
+    private Subject[] subjects;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkPlugin plugin = new BenchmarkPlugin("MetadataPlugin");
+        rarePlugin = new BenchmarkPlugin("RarePlugin");
+        identified = new IdentifiedStore();
+        disambiguated = new DisambiguatedStore();
+        subjects = new Subject[SUBJECTS];
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects[i] = new Subject(new UUID(i, i * 31L));
+            if (i % 2 == 0) {
+                identified.setMetadata(subjects[i], "combat.tagged", new FixedMetadataValue(plugin, i));
+                disambiguated.setMetadata(subjects[i], "combat.tagged", new FixedMetadataValue(plugin, i));
+            }
+            if (i % 64 == 0) {
+                identified.setMetadata(subjects[i], "rare", new FixedMetadataValue(rarePlugin, i));
+            }
+            identified.setMetadata(subjects[i], "npc", new FixedMetadataValue(plugin, true));
+            identified.setMetadata(subjects[i], "kills.boxed", new FixedMetadataValue(plugin, i * 1000));
+            identified.setMetadata(subjects[i], "kills.primitive", new IntMetadataValue(plugin, i * 1000));
+            disambiguated.setMetadata(subjects[i], "npc", new FixedMetadataValue(plugin, true));
+        }
+    }
+
+    private Subject next() {
+        index = (index + 1) & (SUBJECTS - 1);
+        return subjects[index];
+    }
+
+    @Benchmark
+    public boolean hasMetadataIdentified() {
+        return identified.hasMetadata(next(), "combat.tagged");
+    }
+
+    @Benchmark
+    public boolean hasMetadataDisambiguated() {
+        return disambiguated.hasMetadata(next(), "combat.tagged");
+    }
+
+    @Benchmark
+    public Object getMetadataIdentified() {
+        return identified.getMetadata(next(), "npc");
+    }
+
+    @Benchmark
+    public Object getMetadataDisambiguated() {
+        return disambiguated.getMetadata(next(), "npc");
+    }
+
+    @Benchmark
+    public int asIntBoxed() {
+        return identified.getMetadata(next(), "kills.boxed").get(0).asInt();
+    }
+
+    @Benchmark
+    public int asIntPrimitive() {
+        return identified.getMetadata(next(), "kills.primitive").get(0).asInt();
+    }
+
+    @Benchmark
+    public void invalidateAllRare() {
+        identified.invalidateAll(rarePlugin);
+    }
+
+    static final class Subject {
+        final UUID uniqueId;
+
+        Subject(UUID uniqueId) {
+            this.uniqueId = uniqueId;
+        }
+    }
+
+    static final class IdentifiedStore extends MetadataStoreBase<Subject> implements MetadataStore<Subject> {
+        @Override
+        protected Object identify(Subject subject) {
+            return subject.uniqueId;
+        }
+
+        @Override
+        protected String disambiguate(Subject subject, String metadataKey) {
+            return subject.uniqueId.toString() + ":" + metadataKey;
+        }
+    }
+
+    static final class DisambiguatedStore extends MetadataStoreBase<Subject> implements MetadataStore<Subject> {
+        @Override
+        protected String disambiguate(Subject subject, String metadataKey) {
+            return subject.uniqueId.toString() + ":" + metadataKey;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.bukkit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.util.noise.SimplexNoiseGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link SimplexNoiseGenerator} sampling over a moving grid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoiseBenchmark {
+    private SimplexNoiseGenerator generator;
+    private double x;
+    private double z;
+
+    @Setup
+    public void setUp() {
+        generator = new SimplexNoiseGenerator(12345L);
+    }
+
+    private void step() {
+        x += 0.37;
+        if (x > 4096) {
+            x = 0;
+            z += 0.53;
+        }
+    }
+
+    @Benchmark
+    public double noise2d() {
+        step();
+        return generator.noise(x, z);
+    }
+
+    @Benchmark
+    public double noise3d() {
+        step();
+        return generator.noise(x, 64.25, z);
+    }
+
+    @Benchmark
+    public double noise4d() {
+        step();
+        return generator.noise(x, 64.25, z, 0.5);
+    }
+
+    @Benchmark
+    public double octaves3d() {
+        step();
+        return generator.noise(x, 64.25, z, 4, 0.5, 2.0);
+    }
+}
@@ -0,0 +1,197 @@
+package org.bukkit.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.permissions.PermissibleBase;
+import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionAttachment;
+import org.bukkit.permissions.PermissionDefault;
+import org.bukkit.permissions.ServerOperator;
+import org.bukkit.plugin.PluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PermissibleBase#hasPermission(String)} against a large
+ * registered permission tree, where the permissible holds several plugin
+ * wildcard nodes that expand into hundreds of children. Also measures the
+ * cost of changing a single node against a full recalculation, and of
+ * setting 500 nodes one call at a time against a single batched call.
+ * Wildcard lookups are measured against a permissible holding unregistered
+ * <code>.*</code> nodes.
+ * <p>
+ * Run with <code>-prof gc</code> to check that lookups, including mixed case
+ * ones, do not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermissibleBenchmark {
+    static final int PLUGINS = 40;
+    static final int NODES_PER_PLUGIN = 50;
+    static final int GRANTED_PLUGINS = 10;
+
+    private PermissibleBase permissible;
+    private PermissibleBase wildcardPermissible;
+    private PermissionAttachment attachment;
+    private boolean toggle;
+    private String[] setNames;
+    private String[] setNamesMixedCase;
+    private String[] unsetNames;
+    private Permission[] setPermissions;
+    private String[] wildcardNames;
+    private String unregisteredName;
+    private String[] singleNames;
+    private Map<String, Boolean> singlePermissions;
+    private BenchmarkPlugin plugin;
+    private int index;
+
+    /**
+     * Registers PLUGINS wildcard permissions, each with NODES_PER_PLUGIN
+     * children, if they are not registered already.
+     *
+     * @param pluginManager the plugin manager to register with
+     */
+    static void registerPermissionTree(PluginManager pluginManager) {
+        if (pluginManager.getPermission("plugin0.*") != null) {
+            return;
+        }
+
+        for (int plugin = 0; plugin < PLUGINS; plugin++) {
+            Map<String, Boolean> children = new LinkedHashMap<String, Boolean>();
+            for (int node = 0; node < NODES_PER_PLUGIN; node++) {
+                String name = "plugin" + plugin + ".command" + node;
+                PermissionDefault def = node % 10 == 0 ? PermissionDefault.TRUE : PermissionDefault.OP;
+                pluginManager.addPermission(new Permission(name, def));
+                children.put(name, node % 7 != 0);
+            }
+            pluginManager.addPermission(new Permission("plugin" + plugin + ".*", PermissionDefault.OP, children));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        PluginManager pluginManager = BenchmarkServer.getPluginManager();
+        registerPermissionTree(pluginManager);
+
+        ServerOperator operator = new ServerOperator() {
+            public boolean isOp() {
+                return false;
+            }
+
+            public void setOp(boolean value) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        plugin = new BenchmarkPlugin("PermissionsPlugin");
+        permissible = new PermissibleBase(operator);
+        attachment = permissible.addAttachment(plugin);
+        wildcardPermissible = new PermissibleBase(operator);
+        PermissionAttachment wildcardAttachment = wildcardPermissible.addAttachment(plugin);
+        for (int i = 0; i < GRANTED_PLUGINS; i++) {
+            attachment.setPermission("plugin" + i + ".*", true);
+            wildcardAttachment.setPermission("wildcard" + i + ".*", true);
+            wildcardAttachment.setPermission("wildcard" + i + ".admin.*", false);
+        }
+
+        setNames = new String[64];
+        setNamesMixedCase = new String[setNames.length];
+        unsetNames = new String[setNames.length];
+        wildcardNames = new String[setNames.length];
+        setPermissions = new Permission[setNames.length];
+        for (int i = 0; i < setNames.length; i++) {
+            setNames[i] = "plugin" + (i % GRANTED_PLUGINS) + ".command" + (i % NODES_PER_PLUGIN);
+            setNamesMixedCase[i] = "Plugin" + (i % GRANTED_PLUGINS) + ".Command" + (i % NODES_PER_PLUGIN);
+            unsetNames[i] = "plugin" + (GRANTED_PLUGINS + i % (PLUGINS - GRANTED_PLUGINS)) + ".command" + (i % NODES_PER_PLUGIN);
+            setPermissions[i] = pluginManager.getPermission(setNames[i]);
+            wildcardNames[i] = "wildcard" + (i % GRANTED_PLUGINS) + (i % 2 == 0 ? ".admin" : ".user") + ".command" + (i % NODES_PER_PLUGIN);
+        }
+        unregisteredName = "unregistered.permission.node";
+
+        singleNames = new String[500];
+        singlePermissions = new LinkedHashMap<String, Boolean>();
+        for (int i = 0; i < singleNames.length; i++) {
+            singleNames[i] = "single.node" + i;
+            singlePermissions.put(singleNames[i], true);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & 63;
+        return index;
+    }
+
+    @Benchmark
+    public boolean hasSetPermission() {
+        return permissible.hasPermission(setNames[next()]);
+    }
+
+    @Benchmark
+    public boolean hasSetPermissionMixedCase() {
+        return permissible.hasPermission(setNamesMixedCase[next()]);
+    }
+
+    @Benchmark
+    public boolean hasUnsetPermission() {
+        return permissible.hasPermission(unsetNames[next()]);
+    }
+
+    @Benchmark
+    public boolean hasUnregisteredPermission() {
+        return permissible.hasPermission(unregisteredName);
+    }
+
+    @Benchmark
+    public boolean hasPermissionObject() {
+        return permissible.hasPermission(setPermissions[next()]);
+    }
+
+    @Benchmark
+    public boolean hasWildcardPermission() {
+        return wildcardPermissible.hasPermission(wildcardNames[next()]);
+    }
+
+    @Benchmark
+    public void recalculatePermissions() {
+        permissible.recalculatePermissions();
+    }
+
+    @Benchmark
+    public void setSinglePermission() {
+        toggle = !toggle;
+        attachment.setPermission("plugin0.command3", toggle);
+    }
+
+    @Benchmark
+    public boolean setPermissionsOneByOne() {
+        PermissionAttachment single = permissible.addAttachment(plugin);
+        for (String name : singleNames) {
+            single.setPermission(name, true);
+        }
+        boolean result = permissible.hasPermission(singleNames[0]);
+        single.remove();
+        return result;
+    }
+
+    @Benchmark
+    public boolean setPermissionsBatched() {
+        PermissionAttachment single = permissible.addAttachment(plugin);
+        single.setPermissions(singlePermissions);
+        boolean result = permissible.hasPermission(singleNames[0]);
+        single.remove();
+        return result;
+    }
+}
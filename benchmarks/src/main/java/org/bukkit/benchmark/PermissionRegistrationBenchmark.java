@@ -0,0 +1,73 @@
+package org.bukkit.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.permissions.Permissible;
+import org.bukkit.permissions.PermissibleBase;
+import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionDefault;
+import org.bukkit.plugin.PluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures registering a plugin's worth of permissions with default values
+ * while players are online, one by one against {@link
+ * PluginManager#addPermissions(java.util.Collection)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermissionRegistrationBenchmark {
+    static final int PERMISSIBLES = 50;
+    static final int PERMISSIONS = 200;
+
+    private PluginManager pluginManager;
+    private List<Permissible> permissibles;
+    private List<Permission> permissions;
+
+    @Setup
+    public void setUp() {
+        pluginManager = BenchmarkServer.getPluginManager();
+        // Keep the permissibles subscribed to the default permissions
+        permissibles = new ArrayList<Permissible>();
+        for (int i = 0; i < PERMISSIBLES; i++) {
+            permissibles.add(new PermissibleBase(null));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearPermissions() {
+        pluginManager.clearPlugins();
+        permissions = new ArrayList<Permission>(PERMISSIONS);
+        for (int i = 0; i < PERMISSIONS; i++) {
+            permissions.add(new Permission("registration.node" + i, i % 4 == 0 ? PermissionDefault.TRUE : PermissionDefault.OP));
+        }
+    }
+
+    @Benchmark
+    public void addPermissionEach() {
+        for (Permission perm : permissions) {
+            pluginManager.addPermission(perm);
+        }
+    }
+
+    @Benchmark
+    public void addPermissions() {
+        pluginManager.addPermissions(permissions);
+    }
+}
@@ -0,0 +1,91 @@
+package org.bukkit.benchmark;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.file.YamlConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Measures loading a configuration with many sections by constructing the
+ * whole document as maps and copying them into sections, as loading used
+ * to, and from the parser events, from a string and from a reader. Run with
+ * <code>-prof gc</code> to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class YamlLoadBenchmark {
+    @Param({"500"})
+    public int sections;
+
+    private final Yaml yaml = new Yaml(new YamlConstructor());
+    private String contents;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("# Generated configuration\n\n");
+        for (int i = 0; i < sections; i++) {
+            builder.append("section").append(i).append(":\n");
+            builder.append("  name: Section ").append(i).append('\n');
+            builder.append("  enabled: true\n");
+            builder.append("  weight: ").append(i * 0.5).append('\n');
+            builder.append("  limits:\n");
+            builder.append("    min: ").append(i).append('\n');
+            builder.append("    max: ").append(i * 10).append('\n');
+            builder.append("  worlds:\n");
+            builder.append("  - world\n");
+            builder.append("  - world_nether\n");
+        }
+        contents = builder.toString();
+    }
+
+    @Benchmark
+    public MemoryConfiguration mapsThenSections() {
+        MemoryConfiguration config = new MemoryConfiguration();
+        convert((Map<?, ?>) yaml.load(contents), config);
+        return config;
+    }
+
+    @Benchmark
+    public YamlConfiguration eventsFromString() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(contents);
+        return config;
+    }
+
+    @Benchmark
+    public YamlConfiguration eventsFromReader() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.load(new StringReader(contents));
+        return config;
+    }
+
+    private static void convert(Map<?, ?> input, ConfigurationSection section) {
+        for (Map.Entry<?, ?> entry : input.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                convert((Map<?, ?>) entry.getValue(), section.createSection(entry.getKey().toString()));
+            } else {
+                section.set(entry.getKey().toString(), entry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.bukkit.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes allocated by the current thread, on runtimes
+ * that expose it.
+ */
+final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean bean;
+
+    static {
+        com.sun.management.ThreadMXBean found = null;
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                found = (com.sun.management.ThreadMXBean) threads;
+                if (found.isThreadAllocatedMemorySupported()) {
+                    found.setThreadAllocatedMemoryEnabled(true);
+                } else {
+                    found = null;
+                }
+            }
+        } catch (Throwable t) {
+            found = null;
+        }
+        bean = found;
+    }
+
+    private AllocationMeter() {}
+
+    static boolean isSupported() {
+        return bean != null;
+    }
+
+    /**
+     * Gets the total bytes allocated by the current thread.
+     *
+     * @return the allocated bytes, or 0 if not supported
+     */
+    static long allocatedBytes() {
+        if (bean == null) {
+            return 0;
+        }
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,149 @@
+package org.bukkit.simulator;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Describes the synthetic load a {@link LoadSimulation} generates.
+ * <p>
+ * All rates are per player. The same profile and seed always produce the
+ * same sequence of events.
+ */
+public class LoadProfile {
+    private int players = 20;
+    private double movesPerSecond = 10;
+    private double chatsPerMinute = 2;
+    private double commandsPerMinute = 0;
+    private String command = "help";
+    private long seed = 0;
+
+    /**
+     * Gets how many players are online during the simulation.
+     *
+     * @return the player count
+     */
+    public int players() {
+        return players;
+    }
+
+    /**
+     * Sets how many players are online during the simulation.
+     *
+     * @param players the player count
+     * @return This object, for chaining
+     * @throws IllegalArgumentException if players is negative
+     */
+    public LoadProfile players(int players) {
+        Validate.isTrue(players >= 0, "Player count cannot be negative");
+        this.players = players;
+        return this;
+    }
+
+    /**
+     * Gets how often each player moves. Rates of 20 or more move every
+     * player on every tick.
+     *
+     * @return the moves per player per second
+     */
+    public double movesPerSecond() {
+        return movesPerSecond;
+    }
+
+    /**
+     * Sets how often each player moves.
+     *
+     * @param movesPerSecond the moves per player per second
+     * @return This object, for chaining
+     * @throws IllegalArgumentException if the rate is negative
+     */
+    public LoadProfile movesPerSecond(double movesPerSecond) {
+        Validate.isTrue(movesPerSecond >= 0, "Rate cannot be negative");
+        this.movesPerSecond = movesPerSecond;
+        return this;
+    }
+
+    /**
+     * Gets how often each player sends a chat message.
+     *
+     * @return the chat messages per player per minute
+     */
+    public double chatsPerMinute() {
+        return chatsPerMinute;
+    }
+
+    /**
+     * Sets how often each player sends a chat message.
+     *
+     * @param chatsPerMinute the chat messages per player per minute
+     * @return This object, for chaining
+     * @throws IllegalArgumentException if the rate is negative
+     */
+    public LoadProfile chatsPerMinute(double chatsPerMinute) {
+        Validate.isTrue(chatsPerMinute >= 0, "Rate cannot be negative");
+        this.chatsPerMinute = chatsPerMinute;
+        return this;
+    }
+
+    /**
+     * Gets how often each player runs the {@link #command() command}.
+     *
+     * @return the commands per player per minute
+     */
+    public double commandsPerMinute() {
+        return commandsPerMinute;
+    }
+
+    /**
+     * Sets how often each player runs the {@link #command() command}.
+     *
+     * @param commandsPerMinute the commands per player per minute
+     * @return This object, for chaining
+     * @throws IllegalArgumentException if the rate is negative
+     */
+    public LoadProfile commandsPerMinute(double commandsPerMinute) {
+        Validate.isTrue(commandsPerMinute >= 0, "Rate cannot be negative");
+        this.commandsPerMinute = commandsPerMinute;
+        return this;
+    }
+
+    /**
+     * Gets the command line, without a leading slash, that players run.
+     *
+     * @return the command line
+     */
+    public String command() {
+        return command;
+    }
+
+    /**
+     * Sets the command line, without a leading slash, that players run.
+     *
+     * @param command the command line
+     * @return This object, for chaining
+     * @throws IllegalArgumentException if command is null
+     */
+    public LoadProfile command(String command) {
+        Validate.notNull(command, "Command cannot be null");
+        this.command = command;
+        return this;
+    }
+
+    /**
+     * Gets the seed for the random event generator.
+     *
+     * @return the seed
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed for the random event generator.
+     *
+     * @param seed the seed
+     * @return This object, for chaining
+     */
+    public LoadProfile seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+}
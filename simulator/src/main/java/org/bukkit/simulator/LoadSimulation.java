@@ -0,0 +1,133 @@
+package org.bukkit.simulator;
+
+import java.util.Random;
+import java.util.logging.Level;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandException;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+/**
+ * Generates synthetic player activity on a {@link SimulatedServer} and
+ * reports how the enabled plugins handled it.
+ * <p>
+ * Example:<blockquote><pre>
+ *SimulatedServer server = new SimulatedServer();
+ *server.loadPlugins(new File("plugins"));
+ *server.enablePlugins();
+ *
+ *LoadProfile profile = new LoadProfile().players(500).chatsPerMinute(4).seed(42);
+ *SimulationReport report = new LoadSimulation(server, profile).run(1200);
+ *System.out.println(report);
+ *</pre></blockquote>
+ */
+public class LoadSimulation {
+    private static final String[] WORDS = { "hello", "anyone", "selling", "diamonds", "where", "is", "spawn", "lag", "gg", "trade", "me", "thanks" };
+
+    private final SimulatedServer server;
+    private final LoadProfile profile;
+    private final Random random;
+    private int playersJoined = 0;
+
+    public LoadSimulation(SimulatedServer server, LoadProfile profile) {
+        Validate.notNull(server, "Server cannot be null");
+        Validate.notNull(profile, "Profile cannot be null");
+
+        this.server = server;
+        this.profile = profile;
+        this.random = new Random(profile.seed());
+    }
+
+    /**
+     * Runs the simulation for the given number of ticks.
+     * <p>
+     * Missing players join before measuring starts, so join handlers are not
+     * part of the report.
+     *
+     * @param ticks the number of ticks to run
+     * @return the measurements taken while running
+     */
+    public SimulationReport run(int ticks) {
+        Validate.isTrue(ticks >= 0, "Ticks cannot be negative");
+
+        populate();
+        server.resetStats();
+
+        long totalNanos = 0;
+        long maxNanos = 0;
+        long tasksRun = 0;
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            generate();
+            tasksRun += server.tick();
+            long nanos = System.nanoTime() - start;
+
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        return new SimulationReport(ticks, totalNanos, maxNanos, tasksRun, server.getScheduler().getPendingTasks().size(), server.getStats(), server.getEventCounts());
+    }
+
+    private void populate() {
+        World world = server.getWorlds().isEmpty() ? server.addWorld("world") : server.getWorlds().get(0);
+        Location spawn = world.getSpawnLocation();
+
+        while (server.getOnlinePlayers().length < profile.players()) {
+            String name = "Player" + playersJoined++;
+            if (server.getPlayerExact(name) != null) {
+                continue;
+            }
+            server.addPlayer(name, spawn.clone().add(random.nextInt(64) - 32, 0, random.nextInt(64) - 32));
+        }
+    }
+
+    private void generate() {
+        double moveChance = profile.movesPerSecond() / 20;
+        double chatChance = profile.chatsPerMinute() / 1200;
+        double commandChance = profile.commandsPerMinute() / 1200;
+
+        for (Player player : server.getOnlinePlayers()) {
+            if (random.nextDouble() < moveChance) {
+                move(player);
+            }
+            if (random.nextDouble() < chatChance) {
+                player.chat(randomMessage());
+            }
+            if (random.nextDouble() < commandChance) {
+                try {
+                    player.performCommand(profile.command());
+                } catch (CommandException ex) {
+                    server.getLogger().log(Level.SEVERE, "Command '" + profile.command() + "' failed for " + player.getName(), ex);
+                }
+            }
+        }
+    }
+
+    private void move(Player player) {
+        Location from = player.getLocation();
+        Location to = from.clone().add(random.nextDouble() * 0.6 - 0.3, 0, random.nextDouble() * 0.6 - 0.3);
+        to.setYaw(from.getYaw() + random.nextFloat() * 20 - 10);
+
+        PlayerMoveEvent event = new PlayerMoveEvent(player, from, to);
+        server.getPluginManager().callEvent(event);
+        if (!event.isCancelled()) {
+            player.teleport(event.getTo());
+        }
+    }
+
+    private String randomMessage() {
+        int words = 1 + random.nextInt(6);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                message.append(' ');
+            }
+            message.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return message.toString();
+    }
+}
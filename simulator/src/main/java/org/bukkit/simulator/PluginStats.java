@@ -0,0 +1,170 @@
+package org.bukkit.simulator;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Accumulates the work a single plugin performed during a simulation.
+ * <p>
+ * Allocated byte counts are only collected when the Java runtime supports
+ * per-thread allocation tracking, and are otherwise always 0.
+ */
+public final class PluginStats implements Cloneable {
+    private final String pluginName;
+    private long listenerCalls;
+    private long listenerNanos;
+    private long listenerMaxNanos;
+    private long listenerAllocatedBytes;
+    private long listenerExceptions;
+    private long taskRuns;
+    private long asyncTaskRuns;
+    private long taskNanos;
+    private long taskMaxNanos;
+    private long taskAllocatedBytes;
+    private long taskExceptions;
+
+    PluginStats(Plugin plugin) {
+        this.pluginName = plugin.getName();
+    }
+
+    void recordListener(long nanos, long allocatedBytes, boolean failed) {
+        listenerCalls++;
+        listenerNanos += nanos;
+        listenerMaxNanos = Math.max(listenerMaxNanos, nanos);
+        listenerAllocatedBytes += allocatedBytes;
+        if (failed) {
+            listenerExceptions++;
+        }
+    }
+
+    void recordTask(boolean async, long nanos, long allocatedBytes, boolean failed) {
+        taskRuns++;
+        if (async) {
+            asyncTaskRuns++;
+        }
+        taskNanos += nanos;
+        taskMaxNanos = Math.max(taskMaxNanos, nanos);
+        taskAllocatedBytes += allocatedBytes;
+        if (failed) {
+            taskExceptions++;
+        }
+    }
+
+    /**
+     * Gets the name of the plugin these statistics belong to.
+     *
+     * @return the plugin name
+     */
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    /**
+     * Gets how many times an event listener of the plugin was called.
+     *
+     * @return the listener invocation count
+     */
+    public long getListenerCalls() {
+        return listenerCalls;
+    }
+
+    /**
+     * Gets the total time spent in the plugin's event listeners.
+     *
+     * @return the listener time in nanoseconds
+     */
+    public long getListenerNanos() {
+        return listenerNanos;
+    }
+
+    /**
+     * Gets the longest single call to one of the plugin's event listeners.
+     *
+     * @return the maximum listener time in nanoseconds
+     */
+    public long getListenerMaxNanos() {
+        return listenerMaxNanos;
+    }
+
+    /**
+     * Gets the bytes allocated by the plugin's event listeners.
+     *
+     * @return the allocated bytes
+     */
+    public long getListenerAllocatedBytes() {
+        return listenerAllocatedBytes;
+    }
+
+    /**
+     * Gets how many listener calls threw an exception.
+     *
+     * @return the listener exception count
+     */
+    public long getListenerExceptions() {
+        return listenerExceptions;
+    }
+
+    /**
+     * Gets how many scheduled tasks of the plugin were run, including
+     * asynchronous tasks.
+     *
+     * @return the task run count
+     */
+    public long getTaskRuns() {
+        return taskRuns;
+    }
+
+    /**
+     * Gets how many of the {@link #getTaskRuns() task runs} were for
+     * asynchronous tasks.
+     *
+     * @return the asynchronous task run count
+     */
+    public long getAsyncTaskRuns() {
+        return asyncTaskRuns;
+    }
+
+    /**
+     * Gets the total time spent running the plugin's scheduled tasks.
+     *
+     * @return the task time in nanoseconds
+     */
+    public long getTaskNanos() {
+        return taskNanos;
+    }
+
+    /**
+     * Gets the longest single run of one of the plugin's scheduled tasks.
+     *
+     * @return the maximum task time in nanoseconds
+     */
+    public long getTaskMaxNanos() {
+        return taskMaxNanos;
+    }
+
+    /**
+     * Gets the bytes allocated by the plugin's scheduled tasks.
+     *
+     * @return the allocated bytes
+     */
+    public long getTaskAllocatedBytes() {
+        return taskAllocatedBytes;
+    }
+
+    /**
+     * Gets how many task runs threw an exception.
+     *
+     * @return the task exception count
+     */
+    public long getTaskExceptions() {
+        return taskExceptions;
+    }
+
+    @Override
+    public PluginStats clone() {
+        try {
+            return (PluginStats) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.bukkit.simulator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Backs a proxy of an API interface with the public methods of a subclass.
+ * <p>
+ * Any interface method that the subclass declares with the same name and
+ * parameter types is forwarded to it. All other methods throw an {@link
+ * UnsupportedOperationException}.
+ *
+ * @param <T> the API interface being simulated
+ */
+abstract class SimulatedObject<T> implements InvocationHandler {
+    private static final Method UNSUPPORTED;
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Method, Method>> lookups = new ConcurrentHashMap<Class<?>, ConcurrentMap<Method, Method>>();
+
+    static {
+        try {
+            UNSUPPORTED = Object.class.getMethod("toString");
+        } catch (NoSuchMethodException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private final T proxy;
+    private final ConcurrentMap<Method, Method> lookup;
+
+    protected SimulatedObject(Class<T> type) {
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this));
+
+        ConcurrentMap<Method, Method> lookup = lookups.get(getClass());
+        if (lookup == null) {
+            lookups.putIfAbsent(getClass(), new ConcurrentHashMap<Method, Method>());
+            lookup = lookups.get(getClass());
+        }
+        this.lookup = lookup;
+    }
+
+    /**
+     * Gets the API view of this object.
+     *
+     * @return the proxy instance
+     */
+    public final T getHandle() {
+        return proxy;
+    }
+
+    public final Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            } else if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return toString();
+        }
+
+        Method target = lookup.get(method);
+        if (target == null) {
+            try {
+                target = getClass().getMethod(method.getName(), method.getParameterTypes());
+                if (target.getDeclaringClass() == Object.class || !method.getReturnType().isAssignableFrom(target.getReturnType())) {
+                    target = UNSUPPORTED;
+                }
+            } catch (NoSuchMethodException ex) {
+                target = UNSUPPORTED;
+            }
+            lookup.put(method, target);
+        }
+        if (target == UNSUPPORTED) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not simulate " + method);
+        }
+
+        try {
+            return target.invoke(this, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.bukkit.simulator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
+import org.bukkit.metadata.MetadataValue;
+import org.bukkit.permissions.PermissibleBase;
+import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionAttachment;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * An online player without a client. Messages sent to the player are only
+ * counted.
+ */
+public class SimulatedPlayer extends SimulatedObject<Player> {
+    private final SimulatedServer server;
+    private final int entityId;
+    private final String name;
+    private final UUID uniqueId;
+    private final PermissibleBase perm;
+    private String displayName;
+    private String playerListName;
+    private Location location;
+    private boolean op = false;
+    private boolean online = true;
+    private boolean sneaking = false;
+    private boolean sprinting = false;
+    private long messagesReceived = 0;
+
+    SimulatedPlayer(SimulatedServer server, int entityId, String name, Location location) {
+        super(Player.class);
+        this.server = server;
+        this.entityId = entityId;
+        this.name = name;
+        this.uniqueId = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes());
+        this.displayName = name;
+        this.playerListName = name;
+        this.location = location.clone();
+        this.perm = new PermissibleBase(getHandle());
+    }
+
+    /**
+     * Gets how many chat lines this player has been sent.
+     *
+     * @return the number of messages received
+     */
+    public long getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    public Server getServer() {
+        return server.getHandle();
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String name) {
+        this.displayName = name == null ? this.name : name;
+    }
+
+    public String getPlayerListName() {
+        return playerListName;
+    }
+
+    public void setPlayerListName(String name) {
+        this.playerListName = name == null ? this.name : name;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    public Player getPlayer() {
+        return online ? getHandle() : null;
+    }
+
+    public boolean isDead() {
+        return false;
+    }
+
+    public boolean isValid() {
+        return online;
+    }
+
+    public boolean isSneaking() {
+        return sneaking;
+    }
+
+    public void setSneaking(boolean sneak) {
+        this.sneaking = sneak;
+    }
+
+    public boolean isSprinting() {
+        return sprinting;
+    }
+
+    public void setSprinting(boolean sprinting) {
+        this.sprinting = sprinting;
+    }
+
+    public org.bukkit.World getWorld() {
+        return location.getWorld();
+    }
+
+    public Location getLocation() {
+        return location.clone();
+    }
+
+    public Location getLocation(Location loc) {
+        if (loc != null) {
+            loc.setWorld(location.getWorld());
+            loc.setX(location.getX());
+            loc.setY(location.getY());
+            loc.setZ(location.getZ());
+            loc.setYaw(location.getYaw());
+            loc.setPitch(location.getPitch());
+        }
+        return loc;
+    }
+
+    public Location getEyeLocation() {
+        return getLocation().add(0, 1.62, 0);
+    }
+
+    public boolean teleport(Location location) {
+        return teleport(location, TeleportCause.PLUGIN);
+    }
+
+    public boolean teleport(Location location, TeleportCause cause) {
+        this.location = location.clone();
+        return true;
+    }
+
+    public boolean teleport(Entity destination) {
+        return teleport(destination.getLocation());
+    }
+
+    public boolean teleport(Entity destination, TeleportCause cause) {
+        return teleport(destination.getLocation(), cause);
+    }
+
+    public void sendMessage(String message) {
+        messagesReceived++;
+    }
+
+    public void sendMessage(String[] messages) {
+        messagesReceived += messages.length;
+    }
+
+    public void sendRawMessage(String message) {
+        messagesReceived++;
+    }
+
+    public void chat(String msg) {
+        server.chat(this, msg);
+    }
+
+    public boolean performCommand(String command) {
+        return server.dispatchCommand(getHandle(), command);
+    }
+
+    public boolean isOp() {
+        return op;
+    }
+
+    public void setOp(boolean value) {
+        this.op = value;
+        perm.recalculatePermissions();
+    }
+
+    public boolean isPermissionSet(String name) {
+        return perm.isPermissionSet(name);
+    }
+
+    public boolean isPermissionSet(Permission perm) {
+        return this.perm.isPermissionSet(perm);
+    }
+
+    public boolean hasPermission(String name) {
+        return perm.hasPermission(name);
+    }
+
+    public boolean hasPermission(Permission perm) {
+        return this.perm.hasPermission(perm);
+    }
+
+    public PermissionAttachment addAttachment(Plugin plugin, String name, boolean value) {
+        return perm.addAttachment(plugin, name, value);
+    }
+
+    public PermissionAttachment addAttachment(Plugin plugin) {
+        return perm.addAttachment(plugin);
+    }
+
+    public PermissionAttachment addAttachment(Plugin plugin, String name, boolean value, int ticks) {
+        return perm.addAttachment(plugin, name, value, ticks);
+    }
+
+    public PermissionAttachment addAttachment(Plugin plugin, int ticks) {
+        return perm.addAttachment(plugin, ticks);
+    }
+
+    public void removeAttachment(PermissionAttachment attachment) {
+        perm.removeAttachment(attachment);
+    }
+
+    public void recalculatePermissions() {
+        perm.recalculatePermissions();
+    }
+
+    public Set<PermissionAttachmentInfo> getEffectivePermissions() {
+        return perm.getEffectivePermissions();
+    }
+
+    public void setMetadata(String metadataKey, MetadataValue newMetadataValue) {
+        server.getPlayerMetadata().setMetadata(getHandle(), metadataKey, newMetadataValue);
+    }
+
+    public List<MetadataValue> getMetadata(String metadataKey) {
+        return server.getPlayerMetadata().getMetadata(getHandle(), metadataKey);
+    }
+
+    public boolean hasMetadata(String metadataKey) {
+        return server.getPlayerMetadata().hasMetadata(getHandle(), metadataKey);
+    }
+
+    public void removeMetadata(String metadataKey, Plugin owningPlugin) {
+        server.getPlayerMetadata().removeMetadata(getHandle(), metadataKey, owningPlugin);
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedPlayer{name=" + name + "}";
+    }
+}
@@ -0,0 +1,189 @@
+package org.bukkit.simulator;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.permissions.Permissible;
+import org.bukkit.permissions.Permission;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.InvalidPluginException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginLoader;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.SimplePluginManager;
+import org.bukkit.plugin.UnknownDependencyException;
+
+/**
+ * Plugin manager that measures each listener it calls and attributes the
+ * time and allocations to the listener's plugin. Everything other than
+ * calling events is handled by a {@link SimplePluginManager}.
+ */
+public class SimulatedPluginManager implements PluginManager {
+    private final SimulatedServer server;
+    private final SimplePluginManager handle;
+
+    SimulatedPluginManager(SimulatedServer server, SimpleCommandMap commandMap) {
+        this.server = server;
+        this.handle = new SimplePluginManager(server.getHandle(), commandMap);
+    }
+
+    public void callEvent(Event event) {
+        server.recordEvent(event);
+        if (event.isAsynchronous()) {
+            fireEvent(event);
+        } else {
+            synchronized (this) {
+                fireEvent(event);
+            }
+        }
+    }
+
+    private void fireEvent(Event event) {
+        RegisteredListener[] listeners = event.getHandlers().getRegisteredListeners();
+
+        for (RegisteredListener registration : listeners) {
+            Plugin plugin = registration.getPlugin();
+            if (!plugin.isEnabled()) {
+                continue;
+            }
+
+            boolean failed = false;
+            long allocated = AllocationMeter.allocatedBytes();
+            long start = System.nanoTime();
+            try {
+                registration.callEvent(event);
+            } catch (Throwable ex) {
+                failed = true;
+                server.getLogger().log(Level.SEVERE, "Could not pass event " + event.getEventName() + " to " + plugin.getDescription().getFullName(), ex);
+            }
+            long nanos = System.nanoTime() - start;
+            allocated = AllocationMeter.allocatedBytes() - allocated;
+
+            server.getStats(plugin).recordListener(nanos, allocated, failed);
+        }
+    }
+
+    public void registerInterface(Class<? extends PluginLoader> loader) throws IllegalArgumentException {
+        handle.registerInterface(loader);
+    }
+
+    public Plugin getPlugin(String name) {
+        return handle.getPlugin(name);
+    }
+
+    public Plugin[] getPlugins() {
+        return handle.getPlugins();
+    }
+
+    public boolean isPluginEnabled(String name) {
+        return handle.isPluginEnabled(name);
+    }
+
+    public boolean isPluginEnabled(Plugin plugin) {
+        return handle.isPluginEnabled(plugin);
+    }
+
+    public Plugin loadPlugin(File file) throws InvalidPluginException, InvalidDescriptionException, UnknownDependencyException {
+        return handle.loadPlugin(file);
+    }
+
+    public Plugin[] loadPlugins(File directory) {
+        return handle.loadPlugins(directory);
+    }
+
+    public void disablePlugins() {
+        handle.disablePlugins();
+    }
+
+    public void clearPlugins() {
+        handle.clearPlugins();
+    }
+
+    public void registerEvents(Listener listener, Plugin plugin) {
+        handle.registerEvents(listener, plugin);
+    }
+
+    public void registerEvent(Class<? extends Event> event, Listener listener, EventPriority priority, EventExecutor executor, Plugin plugin) {
+        handle.registerEvent(event, listener, priority, executor, plugin);
+    }
+
+    public void registerEvent(Class<? extends Event> event, Listener listener, EventPriority priority, EventExecutor executor, Plugin plugin, boolean ignoreCancelled) {
+        handle.registerEvent(event, listener, priority, executor, plugin, ignoreCancelled);
+    }
+
+    public void enablePlugin(Plugin plugin) {
+        handle.enablePlugin(plugin);
+    }
+
+    public void disablePlugin(Plugin plugin) {
+        handle.disablePlugin(plugin);
+    }
+
+    public Permission getPermission(String name) {
+        return handle.getPermission(name);
+    }
+
+    public void addPermission(Permission perm) {
+        handle.addPermission(perm);
+    }
+
+    public void addPermissions(Collection<Permission> perms) {
+        handle.addPermissions(perms);
+    }
+
+    public void removePermission(Permission perm) {
+        handle.removePermission(perm);
+    }
+
+    public void removePermission(String name) {
+        handle.removePermission(name);
+    }
+
+    public Set<Permission> getDefaultPermissions(boolean op) {
+        return handle.getDefaultPermissions(op);
+    }
+
+    public void recalculatePermissionDefaults(Permission perm) {
+        handle.recalculatePermissionDefaults(perm);
+    }
+
+    public void subscribeToPermission(String permission, Permissible permissible) {
+        handle.subscribeToPermission(permission, permissible);
+    }
+
+    public void unsubscribeFromPermission(String permission, Permissible permissible) {
+        handle.unsubscribeFromPermission(permission, permissible);
+    }
+
+    public Set<Permissible> getPermissionSubscriptions(String permission) {
+        return handle.getPermissionSubscriptions(permission);
+    }
+
+    public void subscribeToDefaultPerms(boolean op, Permissible permissible) {
+        handle.subscribeToDefaultPerms(op, permissible);
+    }
+
+    public void unsubscribeFromDefaultPerms(boolean op, Permissible permissible) {
+        handle.unsubscribeFromDefaultPerms(op, permissible);
+    }
+
+    public Set<Permissible> getDefaultPermSubscriptions(boolean op) {
+        return handle.getDefaultPermSubscriptions(op);
+    }
+
+    public Set<Permission> getPermissions() {
+        return handle.getPermissions();
+    }
+
+    public boolean useTimings() {
+        return handle.useTimings();
+    }
+}
@@ -0,0 +1,254 @@
+package org.bukkit.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.scheduler.BukkitWorker;
+
+/**
+ * A scheduler that only advances when {@link #tick()} is called.
+ * <p>
+ * Asynchronous tasks are run on the ticking thread, in the same order as
+ * synchronous tasks, so that a simulation is reproducible. As a result, no
+ * {@link BukkitWorker workers} are ever active.
+ */
+public class SimulatedScheduler implements BukkitScheduler {
+    private static final Comparator<SimulatedTask> ORDER = new Comparator<SimulatedTask>() {
+        public int compare(SimulatedTask o1, SimulatedTask o2) {
+            if (o1.nextRun != o2.nextRun) {
+                return o1.nextRun < o2.nextRun ? -1 : 1;
+            }
+            return o1.id - o2.id;
+        }
+    };
+
+    private final SimulatedServer server;
+    private final PriorityQueue<SimulatedTask> queue = new PriorityQueue<SimulatedTask>(16, ORDER);
+    private final Map<Integer, SimulatedTask> tasks = new LinkedHashMap<Integer, SimulatedTask>();
+    private int nextId = 1;
+    private long currentTick = 0;
+    private SimulatedTask current;
+
+    SimulatedScheduler(SimulatedServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Gets the number of ticks that have been run.
+     *
+     * @return the current tick
+     */
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Advances the scheduler by one tick, running every task that is due.
+     *
+     * @return the number of tasks that were run
+     */
+    public synchronized int tick() {
+        currentTick++;
+        int ran = 0;
+        while (!queue.isEmpty() && queue.peek().nextRun <= currentTick) {
+            SimulatedTask task = queue.poll();
+            if (task.cancelled) {
+                continue;
+            }
+
+            run(task);
+            ran++;
+
+            if (task.period > 0 && !task.cancelled) {
+                task.nextRun = currentTick + task.period;
+                queue.add(task);
+            } else {
+                tasks.remove(task.id);
+            }
+        }
+        return ran;
+    }
+
+    private void run(SimulatedTask task) {
+        current = task;
+        boolean failed = false;
+        long allocated = AllocationMeter.allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            task.runnable.run();
+        } catch (Throwable ex) {
+            failed = true;
+            server.getLogger().log(Level.WARNING, String.format(
+                    "Task #%s for %s generated an exception",
+                    task.id,
+                    task.owner.getDescription().getFullName()),
+                    ex);
+        } finally {
+            current = null;
+        }
+        long nanos = System.nanoTime() - start;
+        allocated = AllocationMeter.allocatedBytes() - allocated;
+
+        server.getStats(task.owner).recordTask(!task.sync, nanos, allocated, failed);
+    }
+
+    private synchronized SimulatedTask schedule(Plugin plugin, Runnable task, boolean sync, long delay, long period) {
+        Validate.notNull(plugin, "Plugin cannot be null");
+        Validate.notNull(task, "Task cannot be null");
+
+        SimulatedTask scheduled = new SimulatedTask(nextId++, plugin, task, sync, currentTick + Math.max(1L, delay), period);
+        tasks.put(scheduled.id, scheduled);
+        queue.add(scheduled);
+        return scheduled;
+    }
+
+    public int scheduleSyncDelayedTask(Plugin plugin, Runnable task, long delay) {
+        return runTaskLater(plugin, task, delay).getTaskId();
+    }
+
+    public int scheduleSyncDelayedTask(Plugin plugin, Runnable task) {
+        return runTask(plugin, task).getTaskId();
+    }
+
+    public int scheduleSyncRepeatingTask(Plugin plugin, Runnable task, long delay, long period) {
+        return runTaskTimer(plugin, task, delay, period).getTaskId();
+    }
+
+    @Deprecated
+    public int scheduleAsyncDelayedTask(Plugin plugin, Runnable task, long delay) {
+        return runTaskLaterAsynchronously(plugin, task, delay).getTaskId();
+    }
+
+    @Deprecated
+    public int scheduleAsyncDelayedTask(Plugin plugin, Runnable task) {
+        return runTaskAsynchronously(plugin, task).getTaskId();
+    }
+
+    @Deprecated
+    public int scheduleAsyncRepeatingTask(Plugin plugin, Runnable task, long delay, long period) {
+        return runTaskTimerAsynchronously(plugin, task, delay, period).getTaskId();
+    }
+
+    public <T> Future<T> callSyncMethod(Plugin plugin, Callable<T> task) {
+        Validate.notNull(task, "Task cannot be null");
+        FutureTask<T> future = new FutureTask<T>(task);
+        runTask(plugin, future);
+        return future;
+    }
+
+    public synchronized void cancelTask(int taskId) {
+        SimulatedTask task = tasks.remove(taskId);
+        if (task != null) {
+            task.cancelled = true;
+        }
+    }
+
+    public synchronized void cancelTasks(Plugin plugin) {
+        Iterator<SimulatedTask> it = tasks.values().iterator();
+        while (it.hasNext()) {
+            SimulatedTask task = it.next();
+            if (task.owner.equals(plugin)) {
+                task.cancelled = true;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void cancelAllTasks() {
+        for (SimulatedTask task : tasks.values()) {
+            task.cancelled = true;
+        }
+        tasks.clear();
+        queue.clear();
+    }
+
+    public synchronized boolean isCurrentlyRunning(int taskId) {
+        return current != null && current.id == taskId;
+    }
+
+    public synchronized boolean isQueued(int taskId) {
+        SimulatedTask task = tasks.get(taskId);
+        return task != null && task != current;
+    }
+
+    public List<BukkitWorker> getActiveWorkers() {
+        return Collections.emptyList();
+    }
+
+    public synchronized List<BukkitTask> getPendingTasks() {
+        return new ArrayList<BukkitTask>(tasks.values());
+    }
+
+    public BukkitTask runTask(Plugin plugin, Runnable task) throws IllegalArgumentException {
+        return schedule(plugin, task, true, 0, 0);
+    }
+
+    public BukkitTask runTaskAsynchronously(Plugin plugin, Runnable task) throws IllegalArgumentException {
+        return schedule(plugin, task, false, 0, 0);
+    }
+
+    public BukkitTask runTaskLater(Plugin plugin, Runnable task, long delay) throws IllegalArgumentException {
+        return schedule(plugin, task, true, delay, 0);
+    }
+
+    public BukkitTask runTaskLaterAsynchronously(Plugin plugin, Runnable task, long delay) throws IllegalArgumentException {
+        return schedule(plugin, task, false, delay, 0);
+    }
+
+    public BukkitTask runTaskTimer(Plugin plugin, Runnable task, long delay, long period) throws IllegalArgumentException {
+        return schedule(plugin, task, true, delay, Math.max(1L, period));
+    }
+
+    public BukkitTask runTaskTimerAsynchronously(Plugin plugin, Runnable task, long delay, long period) throws IllegalArgumentException {
+        return schedule(plugin, task, false, delay, Math.max(1L, period));
+    }
+
+    private final class SimulatedTask implements BukkitTask {
+        private final int id;
+        private final Plugin owner;
+        private final Runnable runnable;
+        private final boolean sync;
+        private final long period;
+        private long nextRun;
+        private volatile boolean cancelled = false;
+
+        private SimulatedTask(int id, Plugin owner, Runnable runnable, boolean sync, long nextRun, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.runnable = runnable;
+            this.sync = sync;
+            this.nextRun = nextRun;
+            this.period = period;
+        }
+
+        public int getTaskId() {
+            return id;
+        }
+
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        public boolean isSync() {
+            return sync;
+        }
+
+        public void cancel() {
+            cancelTask(id);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package org.bukkit.simulator;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.Warning.WarningState;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandException;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.metadata.MetadataStore;
+import org.bukkit.metadata.MetadataStoreBase;
+import org.bukkit.permissions.Permissible;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginLoader;
+import org.bukkit.plugin.ServicesManager;
+import org.bukkit.plugin.SimpleServicesManager;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.plugin.messaging.Messenger;
+import org.bukkit.plugin.messaging.StandardMessenger;
+
+/**
+ * A deterministic server that runs entirely on the thread that calls {@link
+ * #tick()}.
+ * <p>
+ * Only the parts of {@link Server} that plugins commonly rely on are
+ * simulated; everything else throws an {@link
+ * UnsupportedOperationException}. Every listener and scheduled task is
+ * measured and attributed to its plugin, see {@link #getStats(Plugin)}.
+ * <p>
+ * The most recently created simulated server is the one returned by {@link
+ * Bukkit#getServer()}.
+ */
+public class SimulatedServer extends SimulatedObject<Server> {
+    private static volatile SimulatedServer active;
+
+    private final Logger logger = Logger.getLogger("Simulator");
+    private final Thread primaryThread = Thread.currentThread();
+    private final SimpleCommandMap commandMap;
+    private final SimulatedPluginManager pluginManager;
+    private final SimulatedScheduler scheduler;
+    private final ServicesManager servicesManager = new SimpleServicesManager();
+    private final Messenger messenger = new StandardMessenger();
+    private final JavaPluginLoader pluginLoader;
+    private final PlayerMetadataStore playerMetadata = new PlayerMetadataStore();
+    private final Map<String, SimulatedWorld> worlds = new LinkedHashMap<String, SimulatedWorld>();
+    private final Map<String, SimulatedPlayer> players = new LinkedHashMap<String, SimulatedPlayer>();
+    private final Map<Plugin, PluginStats> stats = new LinkedHashMap<Plugin, PluginStats>();
+    private final Map<Class<? extends Event>, Long> eventCounts = new LinkedHashMap<Class<? extends Event>, Long>();
+    private int nextEntityId = 1;
+
+    public SimulatedServer() {
+        super(Server.class);
+        install(this);
+
+        commandMap = new SimpleCommandMap(getHandle());
+        pluginManager = new SimulatedPluginManager(this, commandMap);
+        scheduler = new SimulatedScheduler(this);
+        pluginLoader = new JavaPluginLoader(getHandle());
+        pluginManager.registerInterface(JavaPluginLoader.class);
+    }
+
+    private static synchronized void install(SimulatedServer server) {
+        active = server;
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[] { Server.class }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    try {
+                        return method.invoke(active.getHandle(), args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            }));
+        } else if (!Proxy.isProxyClass(Bukkit.getServer().getClass())) {
+            throw new IllegalStateException("Bukkit already has a non-simulated server");
+        }
+    }
+
+    /**
+     * Creates an empty world and adds it to the server.
+     *
+     * @param name the name of the world
+     * @return the new world
+     * @throws IllegalArgumentException if a world with the name exists
+     */
+    public World addWorld(String name) {
+        Validate.notNull(name, "Name cannot be null");
+        Validate.isTrue(!worlds.containsKey(name.toLowerCase()), "World " + name + " already exists");
+
+        SimulatedWorld world = new SimulatedWorld(this, name);
+        worlds.put(name.toLowerCase(), world);
+        return world.getHandle();
+    }
+
+    /**
+     * Connects a new player at the spawn of the first world, calling a
+     * {@link PlayerJoinEvent}.
+     *
+     * @param name the name of the player
+     * @return the new player
+     * @throws IllegalStateException if the server has no worlds
+     */
+    public Player addPlayer(String name) {
+        if (worlds.isEmpty()) {
+            throw new IllegalStateException("Server has no worlds");
+        }
+        return addPlayer(name, getWorlds().get(0).getSpawnLocation());
+    }
+
+    /**
+     * Connects a new player at the given location, calling a {@link
+     * PlayerJoinEvent}.
+     *
+     * @param name the name of the player
+     * @param location the location to place the player at
+     * @return the new player
+     * @throws IllegalArgumentException if a player with the name is online
+     */
+    public Player addPlayer(String name, Location location) {
+        Validate.notNull(name, "Name cannot be null");
+        Validate.notNull(location, "Location cannot be null");
+        Validate.isTrue(!players.containsKey(name.toLowerCase()), "Player " + name + " is already online");
+
+        SimulatedPlayer player = new SimulatedPlayer(this, nextEntityId++, name, location);
+        players.put(name.toLowerCase(), player);
+
+        PlayerJoinEvent event = new PlayerJoinEvent(player.getHandle(), name + " joined the game");
+        pluginManager.callEvent(event);
+        if (event.getJoinMessage() != null) {
+            broadcastMessage(event.getJoinMessage());
+        }
+        return player.getHandle();
+    }
+
+    /**
+     * Disconnects a player, calling a {@link PlayerQuitEvent}.
+     *
+     * @param player the player to disconnect
+     */
+    public void removePlayer(Player player) {
+        SimulatedPlayer simulated = players.remove(player.getName().toLowerCase());
+        if (simulated == null) {
+            return;
+        }
+
+        PlayerQuitEvent event = new PlayerQuitEvent(player, player.getName() + " left the game");
+        pluginManager.callEvent(event);
+        simulated.setOnline(false);
+        if (event.getQuitMessage() != null) {
+            broadcastMessage(event.getQuitMessage());
+        }
+    }
+
+    /**
+     * Gets the simulation backing an online player.
+     *
+     * @param player the player
+     * @return the simulated player, or null if the player is not online on
+     *     this server
+     */
+    public SimulatedPlayer getSimulatedPlayer(Player player) {
+        SimulatedPlayer simulated = players.get(player.getName().toLowerCase());
+        return simulated != null && simulated.getHandle() == player ? simulated : null;
+    }
+
+    void chat(SimulatedPlayer player, String message) {
+        if (message.startsWith("/")) {
+            dispatchCommand(player.getHandle(), message.substring(1));
+            return;
+        }
+
+        Set<Player> recipients = new LinkedHashSet<Player>(Arrays.asList(getOnlinePlayers()));
+        AsyncPlayerChatEvent event = new AsyncPlayerChatEvent(!isPrimaryThread(), player.getHandle(), message, recipients);
+        pluginManager.callEvent(event);
+        if (event.isCancelled()) {
+            return;
+        }
+
+        String formatted = String.format(event.getFormat(), event.getPlayer().getDisplayName(), event.getMessage());
+        for (Player recipient : event.getRecipients()) {
+            recipient.sendMessage(formatted);
+        }
+    }
+
+    /**
+     * Loads every plugin jar in the given directory.
+     *
+     * @param directory the directory to load from
+     * @return the loaded plugins
+     */
+    public Plugin[] loadPlugins(File directory) {
+        return pluginManager.loadPlugins(directory);
+    }
+
+    /**
+     * Enables every loaded plugin.
+     */
+    public void enablePlugins() {
+        for (Plugin plugin : pluginManager.getPlugins()) {
+            pluginManager.enablePlugin(plugin);
+        }
+    }
+
+    /**
+     * Runs a single server tick.
+     *
+     * @return the number of scheduled tasks that were run
+     */
+    public int tick() {
+        return scheduler.tick();
+    }
+
+    /**
+     * Gets the statistics collected for a plugin since the last {@link
+     * #resetStats() reset}.
+     *
+     * @param plugin the plugin
+     * @return the live statistics for the plugin
+     */
+    public synchronized PluginStats getStats(Plugin plugin) {
+        PluginStats pluginStats = stats.get(plugin);
+        if (pluginStats == null) {
+            pluginStats = new PluginStats(plugin);
+            stats.put(plugin, pluginStats);
+        }
+        return pluginStats;
+    }
+
+    /**
+     * Gets a copy of the statistics of every plugin that did any measured
+     * work since the last {@link #resetStats() reset}.
+     *
+     * @return the statistics, in the order plugins were first seen
+     */
+    public synchronized List<PluginStats> getStats() {
+        List<PluginStats> copy = new ArrayList<PluginStats>(stats.size());
+        for (PluginStats pluginStats : stats.values()) {
+            copy.add(pluginStats.clone());
+        }
+        return copy;
+    }
+
+    /**
+     * Gets how many events of each type were called since the last {@link
+     * #resetStats() reset}.
+     *
+     * @return a copy of the event counts
+     */
+    public synchronized Map<Class<? extends Event>, Long> getEventCounts() {
+        return new LinkedHashMap<Class<? extends Event>, Long>(eventCounts);
+    }
+
+    /**
+     * Clears all collected statistics.
+     */
+    public synchronized void resetStats() {
+        stats.clear();
+        eventCounts.clear();
+    }
+
+    synchronized void recordEvent(Event event) {
+        Long count = eventCounts.get(event.getClass());
+        eventCounts.put(event.getClass(), count == null ? 1L : count + 1L);
+    }
+
+    MetadataStore<Player> getPlayerMetadata() {
+        return playerMetadata;
+    }
+
+    /**
+     * Gets the loader used for plugins on this server.
+     *
+     * @return the plugin loader
+     */
+    public PluginLoader getPluginLoader() {
+        return pluginLoader;
+    }
+
+    /**
+     * Gets the command map of this server.
+     *
+     * @return the command map
+     */
+    public SimpleCommandMap getCommandMap() {
+        return commandMap;
+    }
+
+    public String getName() {
+        return "SimulatedServer";
+    }
+
+    public String getVersion() {
+        return "Simulator";
+    }
+
+    public String getBukkitVersion() {
+        String version = Server.class.getPackage().getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public boolean isPrimaryThread() {
+        return Thread.currentThread() == primaryThread;
+    }
+
+    public SimulatedPluginManager getPluginManager() {
+        return pluginManager;
+    }
+
+    public SimulatedScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public ServicesManager getServicesManager() {
+        return servicesManager;
+    }
+
+    public Messenger getMessenger() {
+        return messenger;
+    }
+
+    public WarningState getWarningState() {
+        return WarningState.DEFAULT;
+    }
+
+    public String getUpdateFolder() {
+        return "";
+    }
+
+    public int getMaxPlayers() {
+        return Integer.MAX_VALUE;
+    }
+
+    public Player[] getOnlinePlayers() {
+        Player[] online = new Player[players.size()];
+        int i = 0;
+        for (SimulatedPlayer player : players.values()) {
+            online[i++] = player.getHandle();
+        }
+        return online;
+    }
+
+    public Player getPlayerExact(String name) {
+        SimulatedPlayer player = players.get(name.toLowerCase());
+        return player == null ? null : player.getHandle();
+    }
+
+    public Player getPlayer(String name) {
+        Player found = getPlayerExact(name);
+        if (found != null) {
+            return found;
+        }
+
+        String lowerName = name.toLowerCase();
+        int delta = Integer.MAX_VALUE;
+        for (SimulatedPlayer player : players.values()) {
+            if (player.getName().toLowerCase().startsWith(lowerName)) {
+                int curDelta = player.getName().length() - lowerName.length();
+                if (curDelta < delta) {
+                    found = player.getHandle();
+                    delta = curDelta;
+                }
+            }
+        }
+        return found;
+    }
+
+    public List<World> getWorlds() {
+        List<World> list = new ArrayList<World>(worlds.size());
+        for (SimulatedWorld world : worlds.values()) {
+            list.add(world.getHandle());
+        }
+        return list;
+    }
+
+    public World getWorld(String name) {
+        SimulatedWorld world = worlds.get(name.toLowerCase());
+        return world == null ? null : world.getHandle();
+    }
+
+    public World getWorld(UUID uid) {
+        for (SimulatedWorld world : worlds.values()) {
+            if (world.getUID().equals(uid)) {
+                return world.getHandle();
+            }
+        }
+        return null;
+    }
+
+    public PluginCommand getPluginCommand(String name) {
+        Command command = commandMap.getCommand(name);
+        return command instanceof PluginCommand ? (PluginCommand) command : null;
+    }
+
+    public boolean dispatchCommand(CommandSender sender, String commandLine) throws CommandException {
+        return commandMap.dispatch(sender, commandLine);
+    }
+
+    public int broadcastMessage(String message) {
+        return broadcast(message, Server.BROADCAST_CHANNEL_USERS);
+    }
+
+    public int broadcast(String message, String permission) {
+        int count = 0;
+        for (Permissible permissible : pluginManager.getPermissionSubscriptions(permission)) {
+            if (permissible instanceof CommandSender && permissible.hasPermission(permission)) {
+                ((CommandSender) permissible).sendMessage(message);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedServer{players=" + players.size() + ",worlds=" + worlds.size() + "}";
+    }
+
+    private static final class PlayerMetadataStore extends MetadataStoreBase<Player> implements MetadataStore<Player> {
+        @Override
+        protected Object identify(Player player) {
+            return player.getUniqueId();
+        }
+
+        @Override
+        protected String disambiguate(Player player, String metadataKey) {
+            return player.getUniqueId() + ":" + metadataKey;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.bukkit.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.World.Environment;
+import org.bukkit.entity.Player;
+
+/**
+ * A flat, empty world that only tracks its players and spawn point.
+ */
+public class SimulatedWorld extends SimulatedObject<World> {
+    private final SimulatedServer server;
+    private final String name;
+    private final UUID uid;
+    private int spawnX = 0;
+    private int spawnY = 64;
+    private int spawnZ = 0;
+
+    SimulatedWorld(SimulatedServer server, String name) {
+        super(World.class);
+        this.server = server;
+        this.name = name;
+        this.uid = UUID.nameUUIDFromBytes(("World:" + name).getBytes());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getUID() {
+        return uid;
+    }
+
+    public Environment getEnvironment() {
+        return Environment.NORMAL;
+    }
+
+    public long getSeed() {
+        return 0;
+    }
+
+    public int getMaxHeight() {
+        return 256;
+    }
+
+    public int getSeaLevel() {
+        return 64;
+    }
+
+    public long getFullTime() {
+        return server.getScheduler().getCurrentTick();
+    }
+
+    public long getTime() {
+        return getFullTime() % 24000;
+    }
+
+    public Location getSpawnLocation() {
+        return new Location(getHandle(), spawnX + 0.5, spawnY, spawnZ + 0.5);
+    }
+
+    public boolean setSpawnLocation(int x, int y, int z) {
+        spawnX = x;
+        spawnY = y;
+        spawnZ = z;
+        return true;
+    }
+
+    public List<Player> getPlayers() {
+        List<Player> players = new ArrayList<Player>();
+        for (Player player : server.getOnlinePlayers()) {
+            if (player.getWorld() == getHandle()) {
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedWorld{name=" + name + "}";
+    }
+}
@@ -0,0 +1,137 @@
+package org.bukkit.simulator;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.event.Event;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The measurements taken during a {@link LoadSimulation} run.
+ */
+public final class SimulationReport {
+    private final int ticks;
+    private final long totalTickNanos;
+    private final long maxTickNanos;
+    private final long tasksRun;
+    private final int pendingTasks;
+    private final List<PluginStats> pluginStats;
+    private final Map<Class<? extends Event>, Long> eventCounts;
+
+    SimulationReport(int ticks, long totalTickNanos, long maxTickNanos, long tasksRun, int pendingTasks, List<PluginStats> pluginStats, Map<Class<? extends Event>, Long> eventCounts) {
+        this.ticks = ticks;
+        this.totalTickNanos = totalTickNanos;
+        this.maxTickNanos = maxTickNanos;
+        this.tasksRun = tasksRun;
+        this.pendingTasks = pendingTasks;
+        this.pluginStats = ImmutableList.copyOf(pluginStats);
+        this.eventCounts = ImmutableMap.copyOf(eventCounts);
+    }
+
+    /**
+     * Gets the number of ticks that were simulated.
+     *
+     * @return the tick count
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the total time spent generating and handling all ticks.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalTickNanos() {
+        return totalTickNanos;
+    }
+
+    /**
+     * Gets the average time of a single tick.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getAverageTickNanos() {
+        return ticks == 0 ? 0 : totalTickNanos / ticks;
+    }
+
+    /**
+     * Gets the time of the slowest tick.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Gets how many scheduled tasks were run.
+     *
+     * @return the task count
+     */
+    public long getTasksRun() {
+        return tasksRun;
+    }
+
+    /**
+     * Gets how many tasks were still scheduled when the simulation ended.
+     *
+     * @return the pending task count
+     */
+    public int getPendingTasks() {
+        return pendingTasks;
+    }
+
+    /**
+     * Gets the statistics of every plugin that did measured work.
+     *
+     * @return an immutable list of statistics
+     */
+    public List<PluginStats> getPluginStats() {
+        return pluginStats;
+    }
+
+    /**
+     * Gets how many events of each type were called.
+     *
+     * @return an immutable map of event types to counts
+     */
+    public Map<Class<? extends Event>, Long> getEventCounts() {
+        return eventCounts;
+    }
+
+    /**
+     * Gets if allocated byte counts were collected.
+     *
+     * @return true if allocations were measured
+     */
+    public boolean isAllocationTracked() {
+        return AllocationMeter.isSupported();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Ticks: %d, avg %.3f ms, max %.3f ms, tasks run %d, tasks pending %d%n",
+                ticks, getAverageTickNanos() / 1e6, maxTickNanos / 1e6, tasksRun, pendingTasks));
+
+        builder.append("Events:").append(String.format("%n"));
+        for (Map.Entry<Class<? extends Event>, Long> entry : eventCounts.entrySet()) {
+            builder.append(String.format("    %s: %d%n", entry.getKey().getSimpleName(), entry.getValue()));
+        }
+
+        builder.append("Plugins:").append(String.format("%n"));
+        for (PluginStats stats : pluginStats) {
+            builder.append(String.format("    %s: listeners %d calls, %.3f ms total, %.3f ms max, %d bytes, %d errors; tasks %d runs (%d async), %.3f ms total, %.3f ms max, %d bytes, %d errors%n",
+                    stats.getPluginName(),
+                    stats.getListenerCalls(), stats.getListenerNanos() / 1e6, stats.getListenerMaxNanos() / 1e6, stats.getListenerAllocatedBytes(), stats.getListenerExceptions(),
+                    stats.getTaskRuns(), stats.getAsyncTaskRuns(), stats.getTaskNanos() / 1e6, stats.getTaskMaxNanos() / 1e6, stats.getTaskAllocatedBytes(), stats.getTaskExceptions()));
+        }
+        if (!isAllocationTracked()) {
+            builder.append("Allocation tracking is not supported by this runtime").append(String.format("%n"));
+        }
+        return builder.toString();
+    }
+}
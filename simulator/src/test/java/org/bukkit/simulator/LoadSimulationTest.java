@@ -0,0 +1,64 @@
+package org.bukkit.simulator;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.junit.Test;
+
+public class LoadSimulationTest {
+
+    @Test
+    public void sameSeedGeneratesSameEvents() {
+        assertThat(countEvents(7), is(countEvents(7)));
+    }
+
+    @Test
+    public void listenersAreMeasuredPerPlugin() {
+        SimulatedServer server = new SimulatedServer();
+        TestPlugin mover = new TestPlugin(server, "Mover");
+        TestPlugin chatter = new TestPlugin(server, "Chatter");
+        server.getPluginManager().registerEvents(new Listener() {
+            @EventHandler
+            public void onMove(PlayerMoveEvent event) {}
+        }, mover);
+        server.getPluginManager().registerEvents(new Listener() {
+            @EventHandler
+            public void onChat(AsyncPlayerChatEvent event) {
+                event.setCancelled(true);
+            }
+        }, chatter);
+
+        SimulationReport report = new LoadSimulation(server, new LoadProfile().players(50).movesPerSecond(20).chatsPerMinute(60)).run(40);
+
+        assertThat(report.getTicks(), is(40));
+        assertThat(report.getEventCounts().get(PlayerMoveEvent.class), is(50L * 40L));
+        assertThat(report.getPluginStats(), hasSize(2));
+        for (PluginStats stats : report.getPluginStats()) {
+            if (stats.getPluginName().equals("Mover")) {
+                assertThat(stats.getListenerCalls(), is(50L * 40L));
+            } else {
+                assertThat(stats.getListenerCalls(), is(report.getEventCounts().get(AsyncPlayerChatEvent.class)));
+            }
+        }
+        for (Player player : server.getOnlinePlayers()) {
+            assertThat(server.getSimulatedPlayer(player).getMessagesReceived(), is(0L));
+        }
+    }
+
+    @Test
+    public void bukkitUsesLatestServer() {
+        SimulatedServer server = new SimulatedServer();
+        assertThat(Bukkit.getPluginManager(), is(sameInstance((Object) server.getPluginManager())));
+    }
+
+    private Object countEvents(long seed) {
+        SimulatedServer server = new SimulatedServer();
+        return new LoadSimulation(server, new LoadProfile().players(25).seed(seed)).run(100).getEventCounts();
+    }
+}
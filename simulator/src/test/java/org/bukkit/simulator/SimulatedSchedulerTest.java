@@ -0,0 +1,100 @@
+package org.bukkit.simulator;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimulatedSchedulerTest {
+    private SimulatedServer server;
+    private SimulatedScheduler scheduler;
+    private TestPlugin plugin;
+
+    @Before
+    public void setUp() {
+        server = new SimulatedServer();
+        scheduler = server.getScheduler();
+        plugin = new TestPlugin(server, "SchedulerPlugin");
+    }
+
+    @Test
+    public void tasksRunInDeterministicOrder() {
+        final List<String> order = new ArrayList<String>();
+        scheduler.runTaskLater(plugin, record(order, "later"), 2);
+        scheduler.runTaskAsynchronously(plugin, record(order, "async"));
+        scheduler.runTask(plugin, record(order, "sync"));
+
+        assertThat(server.tick(), is(2));
+        assertThat(order, contains("async", "sync"));
+        assertThat(server.tick(), is(1));
+        assertThat(order, contains("async", "sync", "later"));
+        assertThat(scheduler.getPendingTasks(), is(empty()));
+    }
+
+    @Test
+    public void repeatingTaskRunsUntilCancelled() {
+        final List<String> order = new ArrayList<String>();
+        BukkitTask task = scheduler.runTaskTimer(plugin, record(order, "timer"), 0, 2);
+
+        for (int i = 0; i < 5; i++) {
+            server.tick();
+        }
+        assertThat(order, hasSize(3));
+        assertThat(scheduler.isQueued(task.getTaskId()), is(true));
+
+        task.cancel();
+        server.tick();
+        server.tick();
+        assertThat(order, hasSize(3));
+        assertThat(scheduler.isQueued(task.getTaskId()), is(false));
+    }
+
+    @Test
+    public void callSyncMethodCompletesOnTick() throws Exception {
+        Future<String> future = scheduler.callSyncMethod(plugin, new Callable<String>() {
+            public String call() {
+                return "done";
+            }
+        });
+
+        assertThat(future.isDone(), is(false));
+        server.tick();
+        assertThat(future.get(), is("done"));
+    }
+
+    @Test
+    public void taskRunsAreAttributedToPlugin() {
+        scheduler.runTask(plugin, record(new ArrayList<String>(), "sync"));
+        scheduler.runTaskAsynchronously(plugin, new Runnable() {
+            public void run() {
+                throw new RuntimeException("Expected");
+            }
+        });
+        server.tick();
+
+        PluginStats stats = server.getStats(plugin);
+        assertThat(stats.getTaskRuns(), is(2L));
+        assertThat(stats.getAsyncTaskRuns(), is(1L));
+        assertThat(stats.getTaskExceptions(), is(1L));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void nullTaskTest() {
+        scheduler.runTask(plugin, null);
+    }
+
+    private static Runnable record(final List<String> order, final String name) {
+        return new Runnable() {
+            public void run() {
+                order.add(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package org.bukkit.simulator;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.plugin.PluginBase;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginLoader;
+
+import com.avaje.ebean.EbeanServer;
+
+public class TestPlugin extends PluginBase {
+    private final SimulatedServer server;
+    private final PluginDescriptionFile description;
+
+    public TestPlugin(SimulatedServer server, String pluginName) {
+        this.server = server;
+        this.description = new PluginDescriptionFile(pluginName, "1.0", "test.test");
+    }
+
+    public File getDataFolder() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public PluginDescriptionFile getDescription() {
+        return description;
+    }
+
+    public FileConfiguration getConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public InputStream getResource(String filename) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void saveConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void saveDefaultConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void saveResource(String resourcePath, boolean replace) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void reloadConfig() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public Logger getLogger() {
+        return server.getLogger();
+    }
+
+    public PluginLoader getPluginLoader() {
+        return server.getPluginLoader();
+    }
+
+    public Server getServer() {
+        return server.getHandle();
+    }
+
+    public boolean isEnabled() {
+        return true;
+    }
+
+    public void onDisable() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void onLoad() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public void onEnable() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public boolean isNaggable() {
+        return true;
+    }
+
+    public void setNaggable(boolean canNag) {
+    }
+
+    public EbeanServer getDatabase() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public ChunkGenerator getDefaultWorldGenerator(String worldName, String id) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+}
@@ -0,0 +1,33 @@
+package org.bukkit.command;
+
+import java.util.List;
+
+/**
+ * Represents a class which can suggest tab completions for commands from a
+ * thread other than the main server thread.
+ * <p>
+ * Use this instead of {@link TabCompleter} when finding the completions is
+ * slow, for example when it queries a database. The main thread waits a
+ * short time for the completions; if they are not ready in time, none are
+ * offered, and they are cached for the next time the same argument is
+ * completed.
+ * <p>
+ * Implementations must be thread-safe, and may only use the parts of the
+ * API that are safe to use asynchronously.
+ */
+public interface AsyncTabCompleter {
+
+    /**
+     * Requests a list of possible completions for a command argument. This
+     * is not called on the main server thread.
+     *
+     * @param sender Source of the command
+     * @param command Command which was executed
+     * @param alias The alias used
+     * @param args The arguments passed to the command, including final
+     *     partial argument to be completed and command label
+     * @return A List of possible completions for the final argument, or null
+     *     for none
+     */
+    public List<String> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args);
+}
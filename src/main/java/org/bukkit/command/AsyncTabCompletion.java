@@ -0,0 +1,215 @@
+package org.bukkit.command;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link AsyncTabCompleter}s for a {@link SimpleCommandMap} on its own
+ * threads, waits a limited time for them, and caches their results per
+ * sender, command and argument line.
+ * <p>
+ * A completion which is not ready in time keeps running and fills the
+ * cache for the next attempt; only a completion still running when its
+ * cache time is over is cancelled. Completions which cannot be queued are
+ * not started at all. The cache only refers to senders weakly, and expired
+ * entries are swept at least once per cache time.
+ */
+final class AsyncTabCompletion {
+    private static final int THREADS = 2;
+    private static final int QUEUE_SIZE = 64;
+
+    private final ConcurrentMap<Key, Entry> cache = new ConcurrentHashMap<Key, Entry>();
+    private final ThreadPoolExecutor executor;
+    private volatile long timeout = TimeUnit.MILLISECONDS.toNanos(50);
+    private volatile long cacheTime = TimeUnit.SECONDS.toNanos(2);
+    private volatile long nextSweep = System.nanoTime();
+
+    AsyncTabCompletion() {
+        // Rejects completions once the queue is full, see execute
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Tab Completion Thread - " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    void setTimeout(long timeout, TimeUnit unit) {
+        this.timeout = unit.toNanos(timeout);
+    }
+
+    void setCacheTime(long cacheTime, TimeUnit unit) {
+        this.cacheTime = unit.toNanos(cacheTime);
+    }
+
+    /**
+     * Gets the completions of an asynchronous completer, starting it if
+     * they are not cached.
+     *
+     * @return the completions, which are empty if they are not ready in
+     *     time or too many completions are waiting to run
+     */
+    List<String> complete(final AsyncTabCompleter completer, final CommandSender sender, final Command command, final String alias, final String[] args) throws CommandException {
+        long now = System.nanoTime();
+        Key key = new Key(sender, command, alias.toLowerCase(), args);
+        Entry entry = cache.get(key);
+
+        if (entry == null || entry.isExpired(now)) {
+            FutureTask<List<String>> task = new FutureTask<List<String>>(new Callable<List<String>>() {
+                public List<String> call() {
+                    List<String> completions = completer.onTabCompleteAsync(sender, command, alias, args);
+                    // Shared by everyone hitting the cache
+                    return completions == null ? Collections.<String>emptyList() : Collections.unmodifiableList(completions);
+                }
+            });
+            Entry created = new Entry(task, now + cacheTime);
+            boolean started = entry == null ? cache.putIfAbsent(key, created) == null : cache.replace(key, entry, created);
+            if (started && entry != null) {
+                // Outlived its cache time
+                entry.future.cancel(true);
+            }
+            entry = started ? created : cache.get(key);
+            if (started) {
+                sweep(now);
+                if (!execute(task)) {
+                    cache.remove(key, created);
+                    return Collections.emptyList();
+                }
+            } else if (entry == null) {
+                // Removed again by another thread, do not wait for it
+                return Collections.emptyList();
+            }
+        }
+
+        try {
+            return entry.future.get(timeout, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // Keeps running, so the next attempt may find it done
+            return Collections.emptyList();
+        } catch (CancellationException ex) {
+            // Outlived its cache time while waited for
+            return Collections.emptyList();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (ExecutionException ex) {
+            cache.remove(key, entry);
+            throw new CommandException("Unhandled exception during asynchronous tab completion for command '/" + alias + "'", ex.getCause());
+        }
+    }
+
+    /**
+     * Queues a completion, making room by dropping cancelled completions
+     * from the queue if it is full.
+     *
+     * @return false if the queue is full of waiting completions
+     */
+    private boolean execute(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            executor.purge();
+        }
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    private void sweep(long now) {
+        if (now - nextSweep < 0) {
+            return;
+        }
+        nextSweep = now + cacheTime;
+
+        Iterator<Map.Entry<Key, Entry>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> next = it.next();
+            if (next.getValue().isExpired(now) || next.getKey().isCollected()) {
+                next.getValue().future.cancel(true);
+                it.remove();
+            }
+        }
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    private static final class Key {
+        private final WeakReference<CommandSender> sender;
+        private final Command command;
+        private final String alias;
+        private final String[] args;
+        private final int hash;
+
+        Key(CommandSender sender, Command command, String alias, String[] args) {
+            this.sender = new WeakReference<CommandSender>(sender);
+            this.command = command;
+            this.alias = alias;
+            this.args = args;
+            this.hash = ((System.identityHashCode(sender) * 31 + System.identityHashCode(command)) * 31 + alias.hashCode()) * 31 + Arrays.hashCode(args);
+        }
+
+        boolean isCollected() {
+            return sender.get() == null;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            CommandSender sender = this.sender.get();
+            return sender != null && sender == other.sender.get() && command == other.command && alias.equals(other.alias) && Arrays.equals(args, other.args);
+        }
+    }
+
+    private static final class Entry {
+        private final Future<List<String>> future;
+        private final long expires;
+
+        Entry(Future<List<String>> future, long expires) {
+            this.future = future;
+            this.expires = expires;
+        }
+
+        boolean isExpired(long now) {
+            return now - expires >= 0;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.bukkit.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A command line split into its label and arguments.
+ * <p>
+ * The line is split on every space, as sent by the client: the label is
+ * everything before the first space, and two spaces next to each other
+ * give an empty argument. The line is split once, without regular
+ * expressions, when this is created.
+ * <p>
+ * If created with quoted arguments, an argument starting with a double
+ * quote continues until the next double quote which is followed by a space
+ * or the end of the line, and may contain spaces. Inside the quotes,
+ * <code>\"</code> is a double quote and <code>\\</code> is a backslash. A
+ * quote which is not closed continues to the end of the line. Quotes
+ * inside an argument that does not start with one are kept as they are.
+ */
+public final class CommandLine {
+    private static final String[] NO_ARGS = new String[0];
+
+    private final String line;
+    private final String label;
+    // Every argument, and the same without the empty arguments at the end
+    private final String[] partialArgs;
+    private final String[] args;
+
+    /**
+     * Splits a command line on spaces.
+     *
+     * @param line Command line without the leading slash
+     */
+    public CommandLine(String line) {
+        this(line, false);
+    }
+
+    /**
+     * Splits a command line on spaces, optionally keeping quoted arguments
+     * together.
+     *
+     * @param line Command line without the leading slash
+     * @param quoted true if quoted arguments may contain spaces
+     */
+    public CommandLine(String line, boolean quoted) {
+        Validate.notNull(line, "Command line cannot be null");
+
+        this.line = line;
+        int space = line.indexOf(' ');
+        if (space == -1) {
+            label = line;
+            partialArgs = NO_ARGS;
+            args = NO_ARGS;
+            return;
+        }
+
+        label = line.substring(0, space);
+        int argCount;
+        String[] split;
+        if (quoted) {
+            List<String> tokens = new ArrayList<String>();
+            argCount = splitQuoted(line, space + 1, tokens);
+            split = tokens.toArray(new String[tokens.size()]);
+        } else {
+            int count = 1;
+            for (int i = space + 1; i < line.length(); i++) {
+                if (line.charAt(i) == ' ') {
+                    count++;
+                }
+            }
+
+            split = new String[count];
+            int significant = 0;
+            int start = space + 1;
+            for (int i = 0; i < count; i++) {
+                int end = i == count - 1 ? line.length() : line.indexOf(' ', start);
+                split[i] = line.substring(start, end);
+                if (end > start) {
+                    significant = i + 1;
+                }
+                start = end + 1;
+            }
+            argCount = significant;
+        }
+
+        partialArgs = split;
+        if (argCount == split.length) {
+            args = split;
+        } else {
+            args = new String[argCount];
+            System.arraycopy(split, 0, args, 0, argCount);
+        }
+    }
+
+    /**
+     * Gets the label of a command line without splitting its arguments, to
+     * find the command before choosing how to split them.
+     *
+     * @param line Command line without the leading slash
+     * @return Text before the first space
+     */
+    public static String labelOf(String line) {
+        Validate.notNull(line, "Command line cannot be null");
+
+        int space = line.indexOf(' ');
+        return space == -1 ? line : line.substring(0, space);
+    }
+
+    private static int splitQuoted(String line, int start, List<String> tokens) {
+        int length = line.length();
+        int significant = 0;
+        int i = start;
+        while (true) {
+            if (i < length && line.charAt(i) == '"') {
+                StringBuilder builder = new StringBuilder();
+                i++;
+                while (i < length) {
+                    char c = line.charAt(i++);
+                    if (c == '\\' && i < length && (line.charAt(i) == '"' || line.charAt(i) == '\\')) {
+                        builder.append(line.charAt(i++));
+                    } else if (c == '"' && (i == length || line.charAt(i) == ' ')) {
+                        break;
+                    } else {
+                        builder.append(c);
+                    }
+                }
+                tokens.add(builder.toString());
+                significant = tokens.size();
+            } else {
+                int end = line.indexOf(' ', i);
+                if (end == -1) {
+                    end = length;
+                }
+                tokens.add(line.substring(i, end));
+                if (end > i) {
+                    significant = tokens.size();
+                }
+                i = end;
+            }
+
+            if (i >= length) {
+                return significant;
+            }
+            // Skip the space ending the argument
+            i++;
+        }
+    }
+
+    /**
+     * Gets the whole command line.
+     *
+     * @return Command line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the label of the command, as it was typed.
+     *
+     * @return Text before the first space
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Checks if the label is followed by a space, so the command line has
+     * arguments, even if they are empty.
+     *
+     * @return true if the line contains a space
+     */
+    public boolean hasArgs() {
+        return partialArgs.length > 0;
+    }
+
+    /**
+     * Gets the arguments to execute the command with. Empty arguments at the
+     * end of the line are left out, as they are by {@link
+     * String#split(String)}.
+     *
+     * @return A new array of the arguments
+     */
+    public String[] getArgs() {
+        return args.clone();
+    }
+
+    /**
+     * Gets the arguments to execute the command with, without copying them.
+     * The array is shared by this command line, so callers must not modify
+     * it.
+     *
+     * @return The arguments of this command line
+     */
+    String[] getSharedArgs() {
+        return args;
+    }
+
+    /**
+     * Gets the arguments to tab-complete the command with. These include the
+     * empty arguments at the end of the line, so the last argument is always
+     * the one being completed.
+     *
+     * @return A new array of the arguments
+     */
+    public String[] getPartialArgs() {
+        return partialArgs.clone();
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
@@ -0,0 +1,143 @@
+package org.bukkit.command;
+
+/**
+ * Timing information for executing and tab-completing a command, or all
+ * commands of a plugin, as recorded by a {@link SimpleCommandMap} while
+ * timings are enabled.
+ * <p>
+ * The timings of a command keep changing while it is used; the timings of
+ * a plugin are a copy made when they were requested.
+ */
+public final class CommandTimings {
+    private final Timing execution = new Timing();
+    private final Timing asyncExecution = new Timing();
+    private final Timing tabCompletion = new Timing();
+
+    CommandTimings() {
+    }
+
+    /**
+     * Gets the timings of executing the command on the main thread.
+     *
+     * @return Execution timings
+     */
+    public Timing getExecution() {
+        return execution;
+    }
+
+    /**
+     * Gets the timings of executing the command off the main thread, as an
+     * {@link PluginCommand#isAsync() asynchronous} command. This time is
+     * not spent on the main thread.
+     *
+     * @return Asynchronous execution timings
+     */
+    public Timing getAsyncExecution() {
+        return asyncExecution;
+    }
+
+    /**
+     * Gets the timings of tab-completing the arguments of the command.
+     *
+     * @return Tab completion timings
+     */
+    public Timing getTabCompletion() {
+        return tabCompletion;
+    }
+
+    /**
+     * Resets the execution, asynchronous execution and tab completion
+     * timings.
+     */
+    public void reset() {
+        execution.reset();
+        asyncExecution.reset();
+        tabCompletion.reset();
+    }
+
+    void add(CommandTimings timings) {
+        execution.add(timings.execution);
+        asyncExecution.add(timings.asyncExecution);
+        tabCompletion.add(timings.tabCompletion);
+    }
+
+    /**
+     * The number of calls, the time they took and the number of them that
+     * failed with an exception. Times are in nanoseconds.
+     */
+    public static final class Timing {
+        private int count;
+        private long totalTime;
+        private long maxTime;
+        private int exceptionCount;
+
+        Timing() {
+        }
+
+        synchronized void record(long time, boolean failed) {
+            count++;
+            totalTime += time;
+            if (time > maxTime) {
+                maxTime = time;
+            }
+            if (failed) {
+                exceptionCount++;
+            }
+        }
+
+        synchronized void add(Timing timing) {
+            synchronized (timing) {
+                count += timing.count;
+                totalTime += timing.totalTime;
+                maxTime = Math.max(maxTime, timing.maxTime);
+                exceptionCount += timing.exceptionCount;
+            }
+        }
+
+        /**
+         * Resets all counts and times to zero.
+         */
+        public synchronized void reset() {
+            count = 0;
+            totalTime = 0;
+            maxTime = 0;
+            exceptionCount = 0;
+        }
+
+        /**
+         * Gets the number of calls.
+         *
+         * @return Number of calls
+         */
+        public synchronized int getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the total time of all calls.
+         *
+         * @return Total time in nanoseconds
+         */
+        public synchronized long getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         * Gets the time of the slowest call.
+         *
+         * @return Longest time in nanoseconds
+         */
+        public synchronized long getMaxTime() {
+            return maxTime;
+        }
+
+        /**
+         * Gets the number of calls that threw an exception.
+         *
+         * @return Number of failed calls
+         */
+        public synchronized int getExceptionCount() {
+            return exceptionCount;
+        }
+    }
+}
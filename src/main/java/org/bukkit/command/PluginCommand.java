@@ -12,6 +12,9 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
     private final Plugin owningPlugin;
     private CommandExecutor executor;
     private TabCompleter completer;
+    private AsyncTabCompleter asyncCompleter;
+    private boolean async = false;
+    private boolean quotedArgs = false;
 
     protected PluginCommand(String name, Plugin owner) {
         super(name);
@@ -94,6 +97,82 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
         return completer;
     }
 
+    /**
+     * Sets the {@link AsyncTabCompleter} to run off the main thread when
+     * tab-completing the arguments of this command. If set, it is used
+     * instead of the {@link TabCompleter} when completing through a {@link
+     * SimpleCommandMap}.
+     * <p>
+     * If no AsyncTabCompleter is specified, and the command's executor
+     * implements AsyncTabCompleter, then the executor will be used.
+     *
+     * @param completer New asynchronous tab completer
+     */
+    public void setAsyncTabCompleter(AsyncTabCompleter completer) {
+        this.asyncCompleter = completer;
+    }
+
+    /**
+     * Gets the {@link AsyncTabCompleter} used for this command, which is
+     * either the one set or the command's executor.
+     *
+     * @return AsyncTabCompleter of this command, or null if there is none
+     */
+    public AsyncTabCompleter getAsyncTabCompleter() {
+        if (asyncCompleter == null && executor instanceof AsyncTabCompleter) {
+            return (AsyncTabCompleter) executor;
+        }
+        return asyncCompleter;
+    }
+
+    /**
+     * Sets if this command is safe to execute off the main server thread.
+     * <p>
+     * An asynchronous command dispatched from the main thread through a
+     * {@link SimpleCommandMap} is executed by the scheduler's asynchronous
+     * workers, so the main thread does not wait for it. Its executor must
+     * be thread-safe, and may only use the parts of the API that are safe
+     * to use asynchronously.
+     *
+     * @param async true if this command may be executed asynchronously
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Gets if this command is safe to execute off the main server thread.
+     *
+     * @return true if this command may be executed asynchronously
+     * @see #setAsync(boolean)
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Sets if double-quoted arguments of this command may contain spaces.
+     * <p>
+     * When set, <code>/give "Steve Jobs" apple</code> is executed with the
+     * arguments <code>Steve Jobs</code> and <code>apple</code>. See {@link
+     * CommandLine} for how quotes are parsed.
+     *
+     * @param quotedArgs true to parse quoted arguments
+     */
+    public void setQuotedArgs(boolean quotedArgs) {
+        this.quotedArgs = quotedArgs;
+    }
+
+    /**
+     * Gets if double-quoted arguments of this command may contain spaces.
+     *
+     * @return true if quoted arguments are parsed
+     * @see #setQuotedArgs(boolean)
+     */
+    public boolean hasQuotedArgs() {
+        return quotedArgs;
+    }
+
     /**
      * Gets the owner of this PluginCommand
      *
@@ -19,12 +19,14 @@ public class PluginCommandYamlParser {
         }
 
         for (Entry<String, Map<String, Object>> entry : map.entrySet()) {
-            Command newCmd = new PluginCommand(entry.getKey(), plugin);
+            PluginCommand newCmd = new PluginCommand(entry.getKey(), plugin);
             Object description = entry.getValue().get("description");
             Object usage = entry.getValue().get("usage");
             Object aliases = entry.getValue().get("aliases");
             Object permission = entry.getValue().get("permission");
             Object permissionMessage = entry.getValue().get("permission-message");
+            Object async = entry.getValue().get("async");
+            Object quotedArgs = entry.getValue().get("quoted-args");
 
             if (description != null) {
                 newCmd.setDescription(description.toString());
@@ -56,6 +58,14 @@ public class PluginCommandYamlParser {
                 newCmd.setPermissionMessage(permissionMessage.toString());
             }
 
+            if (async != null) {
+                newCmd.setAsync(Boolean.valueOf(async.toString()));
+            }
+
+            if (quotedArgs != null) {
+                newCmd.setQuotedArgs(Boolean.valueOf(quotedArgs.toString()));
+            }
+
             pluginCmds.add(newCmd);
         }
         return pluginCmds;
@@ -1,8 +1,7 @@
 package org.bukkit.command;
 
-import static org.bukkit.util.Java15Compat.Arrays_copyOfRange;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -11,19 +10,32 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 import org.apache.commons.lang.Validate;
 import org.bukkit.Server;
 import org.bukkit.command.defaults.*;
 import org.bukkit.entity.Player;
-import org.bukkit.util.StringUtil;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.util.CopyOnWriteMap;
 
 public class SimpleCommandMap implements CommandMap {
-    private static final Pattern PATTERN_ON_SPACE = Pattern.compile(" ", Pattern.LITERAL);
-    protected final Map<String, Command> knownCommands = new HashMap<String, Command>();
+    // Copied on every change, so commands can be looked up from any thread
+    private final CopyOnWriteMap<String, Command> registry = new CopyOnWriteMap<String, Command>();
+    protected final Map<String, Command> knownCommands = registry;
     protected final Set<String> aliases = new HashSet<String>();
+    // Labels registered in the current batch, published with a single copy
+    private Map<String, Command> pendingCommands = null;
+    private int batchDepth = 0;
     private final Server server;
+    // Rebuilt on the first tab completion after the commands change
+    private volatile LabelIndex labelIndex = null;
+    private final AsyncTabCompletion asyncTabCompletion = new AsyncTabCompletion();
+    private final ConcurrentMap<Command, CommandTimings> timings = new ConcurrentHashMap<Command, CommandTimings>();
     protected static final Set<VanillaCommand> fallbackCommands = new HashSet<VanillaCommand>();
 
     static {
@@ -79,16 +91,21 @@ public class SimpleCommandMap implements CommandMap {
         register("bukkit", new VersionCommand("version"));
         register("bukkit", new ReloadCommand("reload"));
         register("bukkit", new PluginsCommand("plugins"));
-        register("bukkit", new TimingsCommand("timings"));
+        register("bukkit", new TimingsCommand("timings", this));
     }
 
     /**
      * {@inheritDoc}
      */
-    public void registerAll(String fallbackPrefix, List<Command> commands) {
+    public synchronized void registerAll(String fallbackPrefix, List<Command> commands) {
         if (commands != null) {
-            for (Command c : commands) {
-                register(fallbackPrefix, c);
+            beginBatch();
+            try {
+                for (Command c : commands) {
+                    register(fallbackPrefix, c);
+                }
+            } finally {
+                endBatch();
             }
         }
     }
@@ -103,20 +120,42 @@ public class SimpleCommandMap implements CommandMap {
     /**
      * {@inheritDoc}
      */
-    public boolean register(String label, String fallbackPrefix, Command command) {
-        boolean registeredPassedLabel = register(label, fallbackPrefix, command, false);
+    public synchronized boolean register(String label, String fallbackPrefix, Command command) {
+        beginBatch();
+        try {
+            boolean registeredPassedLabel = register(label, fallbackPrefix, command, false);
 
-        Iterator<String> iterator = command.getAliases().iterator();
-        while (iterator.hasNext()) {
-            if (!register(iterator.next(), fallbackPrefix, command, true)) {
-                iterator.remove();
+            Iterator<String> iterator = command.getAliases().iterator();
+            while (iterator.hasNext()) {
+                if (!register(iterator.next(), fallbackPrefix, command, true)) {
+                    iterator.remove();
+                }
             }
+
+            // Register to us so further updates of the commands label and aliases are postponed until its reregistered
+            command.register(this);
+
+            return registeredPassedLabel;
+        } finally {
+            endBatch();
         }
+    }
 
-        // Register to us so further updates of the commands label and aliases are postponed until its reregistered
-        command.register(this);
+    private void beginBatch() {
+        if (batchDepth++ == 0) {
+            pendingCommands = new HashMap<String, Command>();
+        }
+    }
+
+    private void endBatch() {
+        if (--batchDepth == 0) {
+            knownCommands.putAll(pendingCommands);
+            pendingCommands = null;
+        }
+    }
 
-        return registeredPassedLabel;
+    private boolean isKnown(String label) {
+        return pendingCommands.containsKey(label) || knownCommands.containsKey(label);
     }
 
     /**
@@ -136,7 +175,7 @@ public class SimpleCommandMap implements CommandMap {
     private synchronized boolean register(String label, String fallbackPrefix, Command command, boolean isAlias) {
         String lowerLabel = label.trim().toLowerCase();
 
-        if (isAlias && knownCommands.containsKey(lowerLabel)) {
+        if (isAlias && isKnown(lowerLabel)) {
             // Request is for an alias and it conflicts with a existing command or previous alias ignore it
             // Note: This will mean it gets removed from the commands list of active aliases
             return false;
@@ -146,7 +185,7 @@ public class SimpleCommandMap implements CommandMap {
         boolean registerdPassedLabel = true;
 
         // If the command exists but is an alias we overwrite it, otherwise we rename it based on the fallbackPrefix
-        while (knownCommands.containsKey(lowerLabel) && !aliases.contains(lowerLabel)) {
+        while (isKnown(lowerLabel) && !aliases.contains(lowerLabel)) {
             lowerLabel = lowerPrefix + ":" + lowerLabel;
             registerdPassedLabel = false;
         }
@@ -158,7 +197,7 @@ public class SimpleCommandMap implements CommandMap {
             aliases.remove(lowerLabel);
             command.setLabel(lowerLabel);
         }
-        knownCommands.put(lowerLabel, command);
+        pendingCommands.put(lowerLabel, command);
 
         return registerdPassedLabel;
     }
@@ -179,28 +218,60 @@ public class SimpleCommandMap implements CommandMap {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * A {@link PluginCommand#isAsync() asynchronous} plugin command
+     * dispatched from the main thread is executed by the scheduler's
+     * asynchronous workers. Any exception it throws is logged rather than
+     * thrown from this method.
      */
-    public boolean dispatch(CommandSender sender, String commandLine) throws CommandException {
-        String[] args = PATTERN_ON_SPACE.split(commandLine);
+    public boolean dispatch(final CommandSender sender, final String commandLine) throws CommandException {
+        final String sentCommandLabel = CommandLine.labelOf(commandLine).toLowerCase();
+        final Command target = getCommand(sentCommandLabel);
 
-        if (args.length == 0) {
+        if (target == null) {
             return false;
         }
 
-        String sentCommandLabel = args[0].toLowerCase();
-        Command target = getCommand(sentCommandLabel);
-
-        if (target == null) {
-            return false;
+        // Split the arguments only once the command is known, as it decides how
+        final String[] args = new CommandLine(commandLine, hasQuotedArgs(target)).getSharedArgs();
+
+        if (target instanceof PluginCommand) {
+            final PluginCommand command = (PluginCommand) target;
+            if (command.isAsync() && command.getPlugin().isEnabled() && server.isPrimaryThread()) {
+                server.getScheduler().runTaskAsynchronously(command.getPlugin(), new Runnable() {
+                    public void run() {
+                        long start = System.nanoTime();
+                        boolean failed = true;
+                        try {
+                            command.execute(sender, sentCommandLabel, args);
+                            failed = false;
+                        } catch (Throwable ex) {
+                            server.getLogger().log(Level.SEVERE, "Unhandled exception executing '" + commandLine + "' in " + command, ex);
+                        } finally {
+                            if (useTimings()) {
+                                getOrCreateTimings(command).getAsyncExecution().record(System.nanoTime() - start, failed);
+                            }
+                        }
+                    }
+                });
+                return true;
+            }
         }
 
+        long start = System.nanoTime();
+        boolean failed = true;
         try {
             // Note: we don't return the result of target.execute as thats success / failure, we return handled (true) or not handled (false)
-            target.execute(sender, sentCommandLabel, Arrays_copyOfRange(args, 1, args.length));
+            target.execute(sender, sentCommandLabel, args);
+            failed = false;
         } catch (CommandException ex) {
             throw ex;
         } catch (Throwable ex) {
             throw new CommandException("Unhandled exception executing '" + commandLine + "' in " + target, ex);
+        } finally {
+            if (useTimings()) {
+                getOrCreateTimings(target).getExecution().record(System.nanoTime() - start, failed);
+            }
         }
 
         // return true as command was handled
@@ -213,6 +284,8 @@ public class SimpleCommandMap implements CommandMap {
         }
         knownCommands.clear();
         aliases.clear();
+        asyncTabCompletion.clear();
+        timings.clear();
         setDefaultCommands(server);
     }
 
@@ -228,43 +301,17 @@ public class SimpleCommandMap implements CommandMap {
         Validate.notNull(sender, "Sender cannot be null");
         Validate.notNull(cmdLine, "Command line cannot null");
 
-        int spaceIndex = cmdLine.indexOf(' ');
-
-        if (spaceIndex == -1) {
+        if (cmdLine.indexOf(' ') == -1) {
             ArrayList<String> completions = new ArrayList<String>();
-            Map<String, Command> knownCommands = this.knownCommands;
+            LabelIndex index = getLabelIndex();
+            String lowerCmdLine = cmdLine.toLowerCase();
 
             final String prefix = (sender instanceof Player ? "/" : "");
 
-            for (VanillaCommand command : fallbackCommands) {
-                String name = command.getName();
-
-                if (!command.testPermissionSilent(sender)) {
-                    continue;
-                }
-                if (knownCommands.containsKey(name)) {
-                    // Don't let a vanilla command override a command added below
-                    // This has to do with the way aliases work
-                    continue;
-                }
-                if (!StringUtil.startsWithIgnoreCase(name, cmdLine)) {
-                    continue;
-                }
-
-                completions.add(prefix + name);
-            }
-
-            for (Map.Entry<String, Command> commandEntry : knownCommands.entrySet()) {
-                Command command = commandEntry.getValue();
-
-                if (!command.testPermissionSilent(sender)) {
-                    continue;
-                }
-
-                String name = commandEntry.getKey(); // Use the alias, not command name
-
-                if (StringUtil.startsWithIgnoreCase(name, cmdLine)) {
-                    completions.add(prefix + name);
+            // Only the labels starting with the command line are checked for permission
+            for (int i = index.first(lowerCmdLine); i < index.labels.length && index.labels[i].startsWith(lowerCmdLine); i++) {
+                if (index.commands[i].testPermissionSilent(sender)) {
+                    completions.add(prefix + index.labels[i]);
                 }
             }
 
@@ -272,7 +319,7 @@ public class SimpleCommandMap implements CommandMap {
             return completions;
         }
 
-        String commandName = cmdLine.substring(0, spaceIndex);
+        String commandName = CommandLine.labelOf(cmdLine);
         Command target = getCommand(commandName);
 
         if (target == null) {
@@ -283,54 +330,230 @@ public class SimpleCommandMap implements CommandMap {
             return null;
         }
 
-        String argLine = cmdLine.substring(spaceIndex + 1, cmdLine.length());
-        String[] args = PATTERN_ON_SPACE.split(argLine, -1);
+        String[] args = new CommandLine(cmdLine, hasQuotedArgs(target)).getPartialArgs();
 
+        long start = System.nanoTime();
+        boolean failed = true;
         try {
-            return target.tabComplete(sender, commandName, args);
+            List<String> completions;
+            AsyncTabCompleter asyncCompleter = target instanceof PluginCommand ? ((PluginCommand) target).getAsyncTabCompleter() : null;
+            if (asyncCompleter != null) {
+                completions = asyncTabCompletion.complete(asyncCompleter, sender, target, commandName, args);
+            } else {
+                completions = target.tabComplete(sender, commandName, args);
+            }
+            failed = false;
+            return completions;
         } catch (CommandException ex) {
             throw ex;
         } catch (Throwable ex) {
             throw new CommandException("Unhandled exception executing tab-completer for '" + cmdLine + "' in " + target, ex);
+        } finally {
+            if (useTimings()) {
+                getOrCreateTimings(target).getTabCompletion().record(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private static boolean hasQuotedArgs(Command target) {
+        return target instanceof PluginCommand && ((PluginCommand) target).hasQuotedArgs();
+    }
+
+    private boolean useTimings() {
+        PluginManager pluginManager = server.getPluginManager();
+        return pluginManager != null && pluginManager.useTimings();
+    }
+
+    private CommandTimings getOrCreateTimings(Command command) {
+        CommandTimings commandTimings = timings.get(command);
+        if (commandTimings == null) {
+            commandTimings = new CommandTimings();
+            CommandTimings previous = timings.putIfAbsent(command, commandTimings);
+            if (previous != null) {
+                commandTimings = previous;
+            }
         }
+        return commandTimings;
+    }
+
+    /**
+     * Gets the timings recorded for executing and tab-completing a command.
+     * Timings are only recorded while {@link PluginManager#useTimings()}
+     * is enabled.
+     *
+     * @param command the command to get the timings of
+     * @return the timings of the command, or null if none were recorded
+     */
+    public CommandTimings getTimings(Command command) {
+        Validate.notNull(command, "Command cannot be null");
+        return timings.get(command);
+    }
+
+    /**
+     * Gets the combined timings of all commands owned by a plugin, as
+     * {@link PluginIdentifiableCommand}s.
+     *
+     * @param plugin the plugin to get the timings of
+     * @return a copy of the combined timings of the plugin's commands
+     */
+    public CommandTimings getTimings(Plugin plugin) {
+        Validate.notNull(plugin, "Plugin cannot be null");
+        CommandTimings combined = new CommandTimings();
+        for (Map.Entry<Command, CommandTimings> entry : timings.entrySet()) {
+            if (entry.getKey() instanceof PluginIdentifiableCommand && ((PluginIdentifiableCommand) entry.getKey()).getPlugin() == plugin) {
+                combined.add(entry.getValue());
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Gets the timings of every command that timings were recorded for.
+     *
+     * @return an unmodifiable copy of the timings of each command
+     */
+    public Map<Command, CommandTimings> getTimings() {
+        return Collections.unmodifiableMap(new HashMap<Command, CommandTimings>(timings));
+    }
+
+    /**
+     * Resets the timings of all commands.
+     */
+    public void resetTimings() {
+        for (CommandTimings commandTimings : timings.values()) {
+            commandTimings.reset();
+        }
+    }
+
+    /**
+     * Sets how long tab completion waits for an {@link AsyncTabCompleter}
+     * before offering no completions. Defaults to 50 milliseconds.
+     *
+     * @param timeout the time to wait
+     * @param unit the unit of the timeout
+     */
+    public void setAsyncTabCompleteTimeout(long timeout, TimeUnit unit) {
+        Validate.isTrue(timeout >= 0, "Timeout cannot be negative");
+        Validate.notNull(unit, "Unit cannot be null");
+        asyncTabCompletion.setTimeout(timeout, unit);
+    }
+
+    /**
+     * Sets how long the completions of an {@link AsyncTabCompleter} are
+     * reused for the same sender, command and arguments. Defaults to 2
+     * seconds.
+     *
+     * @param cacheTime the time to keep completions
+     * @param unit the unit of the cache time
+     */
+    public void setAsyncTabCompleteCacheTime(long cacheTime, TimeUnit unit) {
+        Validate.isTrue(cacheTime >= 0, "Cache time cannot be negative");
+        Validate.notNull(unit, "Unit cannot be null");
+        asyncTabCompletion.setCacheTime(cacheTime, unit);
+    }
+
+    private LabelIndex getLabelIndex() {
+        Map<String, Command> commands = registry.snapshot();
+        LabelIndex index = labelIndex;
+        if (index == null || index.source != commands) {
+            index = new LabelIndex(commands);
+            labelIndex = index;
+        }
+        return index;
     }
 
     public Collection<Command> getCommands() {
         return knownCommands.values();
     }
 
-    public void registerServerAliases() {
+    public synchronized void registerServerAliases() {
         Map<String, String[]> values = server.getCommandAliases();
+        // Published together, with one copy for the aliases and one for the
+        // labels no longer aliased
+        Set<String> removed = new HashSet<String>();
 
-        for (String alias : values.keySet()) {
-            String[] targetNames = values.get(alias);
-            List<Command> targets = new ArrayList<Command>();
-            StringBuilder bad = new StringBuilder();
-
-            for (String name : targetNames) {
-                Command command = getCommand(name);
+        beginBatch();
+        try {
+            for (String alias : values.keySet()) {
+                String label = alias.toLowerCase();
+                String[] targetNames = values.get(alias);
+                List<Command> targets = new ArrayList<Command>();
+                StringBuilder bad = new StringBuilder();
+
+                for (String name : targetNames) {
+                    Command command = pendingCommands.get(name.toLowerCase());
+                    if (command == null) {
+                        command = getCommand(name);
+                    }
 
-                if (command == null) {
-                    if (bad.length() > 0) {
-                        bad.append(", ");
+                    if (command == null) {
+                        if (bad.length() > 0) {
+                            bad.append(", ");
+                        }
+                        bad.append(name);
+                    } else {
+                        targets.add(command);
                     }
-                    bad.append(name);
-                } else {
-                    targets.add(command);
+                }
+
+                // We register these as commands so they have absolute priority.
+
+                if (targets.size() > 0) {
+                    pendingCommands.put(label, new MultipleCommandAlias(label, targets.toArray(new Command[0])));
+                } else if (knownCommands.containsKey(label)) {
+                    removed.add(label);
+                }
+
+                if (bad.length() > 0) {
+                    server.getLogger().warning("The following command(s) could not be aliased under '" + alias + "' because they do not exist: " + bad);
                 }
             }
+        } finally {
+            endBatch();
+        }
 
-            // We register these as commands so they have absolute priority.
+        if (!removed.isEmpty()) {
+            registry.removeAll(removed);
+        }
+    }
 
-            if (targets.size() > 0) {
-                knownCommands.put(alias.toLowerCase(), new MultipleCommandAlias(alias.toLowerCase(), targets.toArray(new Command[0])));
-            } else {
-                knownCommands.remove(alias.toLowerCase());
+    /**
+     * The labels of the known commands and of the fallback commands they do
+     * not override, sorted so the labels starting with a prefix are next to
+     * each other.
+     */
+    private static final class LabelIndex {
+        // The snapshot of the known commands this index was built from
+        private final Map<String, Command> source;
+        private final String[] labels;
+        private final Command[] commands;
+
+        LabelIndex(Map<String, Command> knownCommands) {
+            source = knownCommands;
+            Map<String, Command> entries = new HashMap<String, Command>(knownCommands);
+            for (VanillaCommand command : fallbackCommands) {
+                // Don't let a vanilla command override a known command
+                // This has to do with the way aliases work
+                if (!entries.containsKey(command.getName())) {
+                    entries.put(command.getName(), command);
+                }
             }
 
-            if (bad.length() > 0) {
-                server.getLogger().warning("The following command(s) could not be aliased under '" + alias + "' because they do not exist: " + bad);
+            labels = entries.keySet().toArray(new String[entries.size()]);
+            Arrays.sort(labels);
+            commands = new Command[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                commands[i] = entries.get(labels[i]);
             }
         }
+
+        /**
+         * Gets the index of the first label not sorted before the given
+         * prefix.
+         */
+        int first(String prefix) {
+            int index = Arrays.binarySearch(labels, prefix);
+            return index >= 0 ? index : -index - 1;
+        }
     }
 }
@@ -5,11 +5,16 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.CommandTimings;
+import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.command.SimpleCommandMap;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.Plugin;
@@ -21,10 +26,24 @@ import com.google.common.collect.ImmutableList;
 
 public class TimingsCommand extends BukkitCommand {
     private static final List<String> TIMINGS_SUBCOMMANDS = ImmutableList.of("merged", "reset", "separate");
+    private final SimpleCommandMap commandMap;
 
     public TimingsCommand(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Creates a timings command which also reports the command timings of
+     * the given command map.
+     *
+     * @param name Name of the command
+     * @param commandMap Command map to report the command timings of, or
+     *     null to only report event timings
+     */
+    public TimingsCommand(String name, SimpleCommandMap commandMap) {
         super(name);
-        this.description = "Records timings for all plugin events";
+        this.commandMap = commandMap;
+        this.description = "Records timings for all plugin events and commands";
         this.usageMessage = "/timings <reset|merged|separate>";
         this.setPermission("bukkit.command.timings");
     }
@@ -50,6 +69,9 @@ public class TimingsCommand extends BukkitCommand {
                     }
                 }
             }
+            if (commandMap != null) {
+                commandMap.resetTimings();
+            }
             sender.sendMessage("Timings reset");
         } else if ("merged".equals(args[0]) || separate) {
 
@@ -68,6 +90,7 @@ public class TimingsCommand extends BukkitCommand {
                     names = new File(timingFolder, "names" + index + ".txt");
                     fileNames = new PrintStream(names);
                 }
+                Map<Command, CommandTimings> commandTimings = commandMap == null ? null : commandMap.getTimings();
                 for (Plugin plugin : Bukkit.getPluginManager().getPlugins()) {
                     pluginIdx++;
                     long totalTime = 0;
@@ -90,8 +113,27 @@ public class TimingsCommand extends BukkitCommand {
                             }
                         }
                     }
+                    if (commandTimings != null) {
+                        for (Map.Entry<Command, CommandTimings> entry : commandTimings.entrySet()) {
+                            if (entry.getKey() instanceof PluginIdentifiableCommand && ((PluginIdentifiableCommand) entry.getKey()).getPlugin() == plugin) {
+                                totalTime += printTimings(fileTimings, entry.getKey(), entry.getValue());
+                            }
+                        }
+                    }
                     fileTimings.println("    Total time " + totalTime + " (" + totalTime / 1000000000 + "s)");
                 }
+                if (commandTimings != null) {
+                    boolean header = false;
+                    for (Map.Entry<Command, CommandTimings> entry : commandTimings.entrySet()) {
+                        if (!(entry.getKey() instanceof PluginIdentifiableCommand)) {
+                            if (!header) {
+                                fileTimings.println("Server commands");
+                                header = true;
+                            }
+                            printTimings(fileTimings, entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
                 sender.sendMessage("Timings written to " + timings.getPath());
                 if (separate) sender.sendMessage("Names written to " + names.getPath());
             } catch (IOException e) {
@@ -107,6 +149,29 @@ public class TimingsCommand extends BukkitCommand {
         return true;
     }
 
+    /**
+     * Prints the timings of a command.
+     *
+     * @return the time spent on the main thread
+     */
+    private static long printTimings(PrintStream out, Command command, CommandTimings timings) {
+        long time = printTiming(out, command, "", timings.getExecution());
+        time += printTiming(out, command, " (tab complete)", timings.getTabCompletion());
+        // Not spent on the main thread, so not part of the total
+        printTiming(out, command, " (async)", timings.getAsyncExecution());
+        return time;
+    }
+
+    private static long printTiming(PrintStream out, Command command, String kind, CommandTimings.Timing timing) {
+        int count = timing.getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long time = timing.getTotalTime();
+        out.println("    /" + command.getLabel() + kind + " Time: " + time + " Count: " + count + " Avg: " + time / count + " Max: " + timing.getMaxTime() + " Exceptions: " + timing.getExceptionCount());
+        return time;
+    }
+
     @Override
     public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
         Validate.notNull(sender, "Sender cannot be null");
@@ -0,0 +1,158 @@
+package org.bukkit.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A path in a {@link ConfigurationSection} which has been split into its
+ * keys once, so it can be looked up many times without splitting it again.
+ * <p>
+ * Compiled paths are immutable, and are best kept in constants:
+ * <pre>
+ * private static final ConfigPath SPAWN_WORLD = ConfigPath.compile("spawn.world");
+ * ...
+ * String world = getConfig().getString(SPAWN_WORLD);
+ * </pre>
+ * A path should be compiled with the {@link
+ * ConfigurationOptions#pathSeparator() path separator} of the
+ * {@link Configuration} it is used with.
+ */
+public final class ConfigPath {
+    private static final String[] NO_KEYS = new String[0];
+
+    private final String path;
+    private final char separator;
+    private final String[] keys;
+
+    private ConfigPath(String path, char separator, String[] keys) {
+        this.path = path;
+        this.separator = separator;
+        this.keys = keys;
+    }
+
+    /**
+     * Compiles a path which uses '.' to separate its keys.
+     *
+     * @param path Path to compile
+     * @return Compiled path
+     * @throws IllegalArgumentException Thrown if path is null
+     */
+    public static ConfigPath compile(String path) {
+        return compile(path, '.');
+    }
+
+    /**
+     * Compiles a path which uses the given character to separate its keys.
+     * <p>
+     * Two separators next to each other give an empty key, as they do when
+     * the path is used as a String. An empty path refers to the section it
+     * is used with.
+     *
+     * @param path Path to compile
+     * @param separator Path separator
+     * @return Compiled path
+     * @throws IllegalArgumentException Thrown if path is null
+     */
+    public static ConfigPath compile(String path, char separator) {
+        Validate.notNull(path, "Path cannot be null");
+
+        if (path.length() == 0) {
+            return new ConfigPath(path, separator, NO_KEYS);
+        }
+
+        List<String> keys = new ArrayList<String>();
+        int start = 0;
+        int end;
+        while ((end = path.indexOf(separator, start)) != -1) {
+            keys.add(path.substring(start, end));
+            start = end + 1;
+        }
+        keys.add(path.substring(start));
+
+        return new ConfigPath(path, separator, keys.toArray(new String[keys.size()]));
+    }
+
+    /**
+     * Gets the path this was compiled from.
+     *
+     * @return Path, as a String
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the character separating the keys of the path.
+     *
+     * @return Path separator
+     */
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Gets the number of keys in the path.
+     *
+     * @return Number of keys, or 0 for an empty path
+     */
+    public int length() {
+        return keys.length;
+    }
+
+    /**
+     * Gets a key of the path.
+     *
+     * @param index Index of the key, from 0 for the first key
+     * @return Key at the index
+     * @throws IndexOutOfBoundsException Thrown if there is no key at the
+     *     index
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the path joined with another separator.
+     *
+     * @param separator Path separator to use
+     * @return Path, as a String
+     */
+    String toString(char separator) {
+        if (separator == this.separator) {
+            return path;
+        }
+
+        StringBuilder builder = new StringBuilder(path.length());
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(keys[i]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ConfigPath)) {
+            return false;
+        }
+        return Arrays.equals(keys, ((ConfigPath) obj).keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(keys);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -1,5 +1,10 @@
 package org.bukkit.configuration;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.Validate;
+
 /**
  * Various settings for controlling the input and output of a {@link
  * Configuration}
@@ -7,6 +12,8 @@ package org.bukkit.configuration;
 public class ConfigurationOptions {
     private char pathSeparator = '.';
     private boolean copyDefaults = false;
+    private int pathCacheSize = 0;
+    private volatile ConcurrentMap<String, ConfigPath> pathCache = null;
     private final Configuration configuration;
 
     protected ConfigurationOptions(Configuration configuration) {
@@ -46,6 +53,9 @@ public class ConfigurationOptions {
      * @return This object, for chaining
      */
     public ConfigurationOptions pathSeparator(char value) {
+        if (value != pathSeparator && pathCache != null) {
+            pathCache = new ConcurrentHashMap<String, ConfigPath>();
+        }
         this.pathSeparator = value;
         return this;
     }
@@ -87,4 +97,62 @@ public class ConfigurationOptions {
         this.copyDefaults = value;
         return this;
     }
+
+    /**
+     * Gets the number of String paths the {@link Configuration} keeps
+     * compiled, so looking them up again does not split them again.
+     * <p>
+     * When this many paths are cached, the cache is emptied before another
+     * path is added. The default value is 0, which disables the cache.
+     *
+     * @return Maximum number of cached paths
+     * @see ConfigPath
+     */
+    public int pathCacheSize() {
+        return pathCacheSize;
+    }
+
+    /**
+     * Sets the number of String paths the {@link Configuration} keeps
+     * compiled, so looking them up again does not split them again.
+     * <p>
+     * When this many paths are cached, the cache is emptied before another
+     * path is added. The default value is 0, which disables the cache.
+     *
+     * @param value Maximum number of cached paths
+     * @return This object, for chaining
+     * @throws IllegalArgumentException Thrown if value is negative
+     * @see ConfigPath
+     */
+    public ConfigurationOptions pathCacheSize(int value) {
+        Validate.isTrue(value >= 0, "Path cache size cannot be negative");
+
+        this.pathCacheSize = value;
+        this.pathCache = (value == 0) ? null : new ConcurrentHashMap<String, ConfigPath>();
+        return this;
+    }
+
+    /**
+     * Gets the compiled form of a path from the cache, compiling it if it is
+     * not cached.
+     *
+     * @param path Path to compile
+     * @return Compiled path, or null if the cache is disabled
+     */
+    ConfigPath compilePath(String path) {
+        ConcurrentMap<String, ConfigPath> cache = pathCache;
+        if (cache == null) {
+            return null;
+        }
+
+        ConfigPath compiled = cache.get(path);
+        if (compiled == null) {
+            compiled = ConfigPath.compile(path, pathSeparator);
+            if (cache.size() >= pathCacheSize) {
+                cache.clear();
+            }
+            cache.put(path, compiled);
+        }
+        return compiled;
+    }
 }
@@ -806,4 +806,212 @@ public interface ConfigurationSection {
      * @throws IllegalArgumentException Thrown if path is null.
      */
     public void addDefault(String path, Object value);
+
+    // Compiled paths
+    /**
+     * Checks if this {@link ConfigurationSection} contains the given compiled
+     * path.
+     *
+     * @param path Path to check for existence.
+     * @return True if this section contains the requested path, either via
+     *     default or being set.
+     * @throws IllegalArgumentException Thrown when path is null.
+     * @see #contains(String)
+     */
+    public boolean contains(ConfigPath path);
+
+    /**
+     * Checks if this {@link ConfigurationSection} has a value set for the
+     * given compiled path.
+     *
+     * @param path Path to check for existence.
+     * @return True if this section contains the requested path, regardless of
+     *     having a default.
+     * @throws IllegalArgumentException Thrown when path is null.
+     * @see #isSet(String)
+     */
+    public boolean isSet(ConfigPath path);
+
+    /**
+     * Gets the requested Object by compiled path.
+     *
+     * @param path Path of the Object to get.
+     * @return Requested Object.
+     * @see #get(String)
+     */
+    public Object get(ConfigPath path);
+
+    /**
+     * Gets the requested Object by compiled path, returning a default value
+     * if not found.
+     *
+     * @param path Path of the Object to get.
+     * @param def The default value to return if the path is not found.
+     * @return Requested Object.
+     * @see #get(String, Object)
+     */
+    public Object get(ConfigPath path, Object def);
+
+    /**
+     * Sets the specified compiled path to the given value.
+     *
+     * @param path Path of the object to set.
+     * @param value New value to set the path to.
+     * @see #set(String, Object)
+     */
+    public void set(ConfigPath path, Object value);
+
+    /**
+     * Creates an empty {@link ConfigurationSection} at the specified compiled
+     * path.
+     *
+     * @param path Path to create the section at.
+     * @return Newly created section
+     * @see #createSection(String)
+     */
+    public ConfigurationSection createSection(ConfigPath path);
+
+    /**
+     * Gets the requested String by compiled path.
+     *
+     * @param path Path of the String to get.
+     * @return Requested String.
+     * @see #getString(String)
+     */
+    public String getString(ConfigPath path);
+
+    /**
+     * Gets the requested String by compiled path, returning a default value
+     * if not found.
+     *
+     * @param path Path of the String to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a String.
+     * @return Requested String.
+     * @see #getString(String, String)
+     */
+    public String getString(ConfigPath path, String def);
+
+    /**
+     * Gets the requested int by compiled path.
+     *
+     * @param path Path of the int to get.
+     * @return Requested int.
+     * @see #getInt(String)
+     */
+    public int getInt(ConfigPath path);
+
+    /**
+     * Gets the requested int by compiled path, returning a default value if
+     * not found.
+     *
+     * @param path Path of the int to get.
+     * @param def The default value to return if the path is not found or is
+     *     not an int.
+     * @return Requested int.
+     * @see #getInt(String, int)
+     */
+    public int getInt(ConfigPath path, int def);
+
+    /**
+     * Gets the requested boolean by compiled path.
+     *
+     * @param path Path of the boolean to get.
+     * @return Requested boolean.
+     * @see #getBoolean(String)
+     */
+    public boolean getBoolean(ConfigPath path);
+
+    /**
+     * Gets the requested boolean by compiled path, returning a default value
+     * if not found.
+     *
+     * @param path Path of the boolean to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a boolean.
+     * @return Requested boolean.
+     * @see #getBoolean(String, boolean)
+     */
+    public boolean getBoolean(ConfigPath path, boolean def);
+
+    /**
+     * Gets the requested double by compiled path.
+     *
+     * @param path Path of the double to get.
+     * @return Requested double.
+     * @see #getDouble(String)
+     */
+    public double getDouble(ConfigPath path);
+
+    /**
+     * Gets the requested double by compiled path, returning a default value
+     * if not found.
+     *
+     * @param path Path of the double to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a double.
+     * @return Requested double.
+     * @see #getDouble(String, double)
+     */
+    public double getDouble(ConfigPath path, double def);
+
+    /**
+     * Gets the requested long by compiled path.
+     *
+     * @param path Path of the long to get.
+     * @return Requested long.
+     * @see #getLong(String)
+     */
+    public long getLong(ConfigPath path);
+
+    /**
+     * Gets the requested long by compiled path, returning a default value if
+     * not found.
+     *
+     * @param path Path of the long to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a long.
+     * @return Requested long.
+     * @see #getLong(String, long)
+     */
+    public long getLong(ConfigPath path, long def);
+
+    /**
+     * Gets the requested List by compiled path.
+     *
+     * @param path Path of the List to get.
+     * @return Requested List.
+     * @see #getList(String)
+     */
+    public List<?> getList(ConfigPath path);
+
+    /**
+     * Gets the requested List by compiled path, returning a default value if
+     * not found.
+     *
+     * @param path Path of the List to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a List.
+     * @return Requested List.
+     * @see #getList(String, List)
+     */
+    public List<?> getList(ConfigPath path, List<?> def);
+
+    /**
+     * Gets the requested List of String by compiled path.
+     *
+     * @param path Path of the List to get.
+     * @return Requested List of String.
+     * @see #getStringList(String)
+     */
+    public List<String> getStringList(ConfigPath path);
+
+    /**
+     * Gets the requested ConfigurationSection by compiled path.
+     *
+     * @param path Path of the ConfigurationSection to get.
+     * @return Requested ConfigurationSection.
+     * @see #getConfigurationSection(String)
+     */
+    public ConfigurationSection getConfigurationSection(ConfigPath path);
 }
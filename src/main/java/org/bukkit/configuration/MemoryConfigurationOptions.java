@@ -25,4 +25,10 @@ public class MemoryConfigurationOptions extends ConfigurationOptions {
         super.pathSeparator(value);
         return this;
     }
+
+    @Override
+    public MemoryConfigurationOptions pathCacheSize(int value) {
+        super.pathCacheSize(value);
+        return this;
+    }
 }
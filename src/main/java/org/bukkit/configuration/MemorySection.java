@@ -167,6 +167,12 @@ public class MemorySection implements ConfigurationSection {
             throw new IllegalStateException("Cannot use section without a root");
         }
 
+        ConfigPath compiled = root.options().compilePath(path);
+        if (compiled != null) {
+            set(compiled, value);
+            return;
+        }
+
         final char separator = root.options().pathSeparator();
         // i1 is the leading (higher) index
         // i2 is the trailing (lower) index
@@ -210,6 +216,11 @@ public class MemorySection implements ConfigurationSection {
             throw new IllegalStateException("Cannot access section without a root");
         }
 
+        ConfigPath compiled = root.options().compilePath(path);
+        if (compiled != null) {
+            return get(compiled, def);
+        }
+
         final char separator = root.options().pathSeparator();
         // i1 is the leading (higher) index
         // i2 is the trailing (lower) index
@@ -690,6 +701,200 @@ public class MemorySection implements ConfigurationSection {
         return val instanceof ConfigurationSection;
     }
 
+    // Compiled paths
+    public boolean contains(ConfigPath path) {
+        return get(path) != null;
+    }
+
+    public boolean isSet(ConfigPath path) {
+        Configuration root = getRoot();
+        if (root == null) {
+            return false;
+        }
+        if (root.options().copyDefaults()) {
+            return contains(path);
+        }
+        return get(path, null) != null;
+    }
+
+    public Object get(ConfigPath path) {
+        return get(path, getDefault(path));
+    }
+
+    public Object get(ConfigPath path, Object def) {
+        Validate.notNull(path, "Path cannot be null");
+
+        int last = path.length() - 1;
+        if (last < 0) {
+            return this;
+        }
+
+        ConfigurationSection section = this;
+        for (int i = 0; i < last; i++) {
+            section = getChild(section, path.getKey(i));
+            if (section == null) {
+                return def;
+            }
+        }
+
+        String key = path.getKey(last);
+        if (section instanceof MemorySection) {
+            Object result = ((MemorySection) section).map.get(key);
+            return (result == null) ? def : result;
+        }
+        return section.get(key, def);
+    }
+
+    public void set(ConfigPath path, Object value) {
+        Validate.notNull(path, "Path cannot be null");
+        Validate.isTrue(path.length() > 0, "Cannot set to an empty path");
+
+        ConfigurationSection section = getParentSection(path);
+        String key = path.getKey(path.length() - 1);
+        if (section instanceof MemorySection) {
+            Map<String, Object> map = ((MemorySection) section).map;
+            if (value == null) {
+                map.remove(key);
+            } else {
+                map.put(key, value);
+            }
+        } else {
+            section.set(key, value);
+        }
+    }
+
+    public ConfigurationSection createSection(ConfigPath path) {
+        Validate.notNull(path, "Path cannot be null");
+        Validate.isTrue(path.length() > 0, "Cannot create section at empty path");
+
+        return createChild(getParentSection(path), path.getKey(path.length() - 1));
+    }
+
+    public String getString(ConfigPath path) {
+        Object def = getDefault(path);
+        return getString(path, def != null ? def.toString() : null);
+    }
+
+    public String getString(ConfigPath path, String def) {
+        Object val = get(path, def);
+        return (val != null) ? val.toString() : def;
+    }
+
+    public int getInt(ConfigPath path) {
+        Object def = getDefault(path);
+        return getInt(path, (def instanceof Number) ? toInt(def) : 0);
+    }
+
+    public int getInt(ConfigPath path, int def) {
+        Object val = get(path, def);
+        return (val instanceof Number) ? toInt(val) : def;
+    }
+
+    public boolean getBoolean(ConfigPath path) {
+        Object def = getDefault(path);
+        return getBoolean(path, (def instanceof Boolean) ? (Boolean) def : false);
+    }
+
+    public boolean getBoolean(ConfigPath path, boolean def) {
+        Object val = get(path, def);
+        return (val instanceof Boolean) ? (Boolean) val : def;
+    }
+
+    public double getDouble(ConfigPath path) {
+        Object def = getDefault(path);
+        return getDouble(path, (def instanceof Number) ? toDouble(def) : 0);
+    }
+
+    public double getDouble(ConfigPath path, double def) {
+        Object val = get(path, def);
+        return (val instanceof Number) ? toDouble(val) : def;
+    }
+
+    public long getLong(ConfigPath path) {
+        Object def = getDefault(path);
+        return getLong(path, (def instanceof Number) ? toLong(def) : 0);
+    }
+
+    public long getLong(ConfigPath path, long def) {
+        Object val = get(path, def);
+        return (val instanceof Number) ? toLong(val) : def;
+    }
+
+    public List<?> getList(ConfigPath path) {
+        Object def = getDefault(path);
+        return getList(path, (def instanceof List) ? (List<?>) def : null);
+    }
+
+    public List<?> getList(ConfigPath path, List<?> def) {
+        Object val = get(path, def);
+        return (List<?>) ((val instanceof List) ? val : def);
+    }
+
+    public List<String> getStringList(ConfigPath path) {
+        List<?> list = getList(path);
+
+        if (list == null) {
+            return new ArrayList<String>(0);
+        }
+
+        List<String> result = new ArrayList<String>();
+
+        for (Object object : list) {
+            if ((object instanceof String) || (isPrimitiveWrapper(object))) {
+                result.add(String.valueOf(object));
+            }
+        }
+
+        return result;
+    }
+
+    public ConfigurationSection getConfigurationSection(ConfigPath path) {
+        Object val = get(path, null);
+        if (val != null) {
+            return (val instanceof ConfigurationSection) ? (ConfigurationSection) val : null;
+        }
+
+        val = get(path, getDefault(path));
+        return (val instanceof ConfigurationSection) ? createSection(path) : null;
+    }
+
+    /**
+     * Gets the section holding the last key of a path, creating the sections
+     * on the way to it.
+     */
+    private ConfigurationSection getParentSection(ConfigPath path) {
+        ConfigurationSection section = this;
+        for (int i = 0; i < path.length() - 1; i++) {
+            String key = path.getKey(i);
+            ConfigurationSection subSection = getChild(section, key);
+            if (subSection == null) {
+                section = createChild(section, key);
+            } else {
+                section = subSection;
+            }
+        }
+        return section;
+    }
+
+    private static ConfigurationSection getChild(ConfigurationSection section, String key) {
+        if (section instanceof MemorySection) {
+            Object val = ((MemorySection) section).map.get(key);
+            if (val instanceof ConfigurationSection) {
+                return (ConfigurationSection) val;
+            }
+        }
+        return section.getConfigurationSection(key);
+    }
+
+    private static ConfigurationSection createChild(ConfigurationSection section, String key) {
+        if (section instanceof MemorySection) {
+            ConfigurationSection result = new MemorySection(section, key);
+            ((MemorySection) section).map.put(key, result);
+            return result;
+        }
+        return section.createSection(key);
+    }
+
     protected boolean isPrimitiveWrapper(Object input) {
         return input instanceof Integer || input instanceof Boolean ||
                 input instanceof Character || input instanceof Byte ||
@@ -702,7 +907,29 @@ public class MemorySection implements ConfigurationSection {
 
         Configuration root = getRoot();
         Configuration defaults = root == null ? null : root.getDefaults();
-        return (defaults == null) ? null : defaults.get(createPath(this, path));
+        if (defaults == null) {
+            return null;
+        }
+
+        ConfigPath compiled = root.options().compilePath(path);
+        if (compiled != null) {
+            return getDefault(compiled);
+        }
+        return defaults.get(createPath(this, path));
+    }
+
+    protected Object getDefault(ConfigPath path) {
+        Validate.notNull(path, "Path cannot be null");
+
+        Configuration root = getRoot();
+        Configuration defaults = root == null ? null : root.getDefaults();
+        if (defaults == null) {
+            return null;
+        }
+        if (root == this) {
+            return defaults.get(path);
+        }
+        return defaults.get(createPath(this, path.toString(root.options().pathSeparator())));
     }
 
     protected void mapChildrenKeys(Set<String> output, ConfigurationSection section, boolean deep) {
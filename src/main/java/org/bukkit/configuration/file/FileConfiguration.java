@@ -12,6 +12,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.MemoryConfiguration;
 
@@ -130,10 +131,31 @@ public abstract class FileConfiguration extends MemoryConfiguration {
     public void load(InputStream stream) throws IOException, InvalidConfigurationException {
         Validate.notNull(stream, "Stream cannot be null");
 
-        InputStreamReader reader = new InputStreamReader(stream);
-        StringBuilder builder = new StringBuilder();
-        BufferedReader input = new BufferedReader(reader);
+        load(new InputStreamReader(stream));
+    }
 
+    /**
+     * Loads this {@link FileConfiguration} from the specified reader.
+     * <p>
+     * All the values contained within this configuration will be removed,
+     * leaving only settings and defaults, and the new values will be loaded
+     * from the given reader. The reader is closed afterwards.
+     * <p>
+     * By default the whole reader is read into a string, which is passed to
+     * {@link #loadFromString(String)}. Implementations which can parse their
+     * format as it is read should override this.
+     *
+     * @param reader Reader to load from
+     * @throws IOException Thrown when the given reader cannot be read.
+     * @throws InvalidConfigurationException Thrown when the given reader
+     *     does not contain a valid Configuration.
+     * @throws IllegalArgumentException Thrown when reader is null.
+     */
+    public void load(Reader reader) throws IOException, InvalidConfigurationException {
+        Validate.notNull(reader, "Reader cannot be null");
+
+        StringBuilder builder = new StringBuilder();
+        BufferedReader input = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
 
         try {
             String line;
@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -16,6 +18,7 @@ import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.error.YAMLException;
 import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 /**
  * An implementation of {@link Configuration} which saves all files in Yaml.
@@ -26,7 +29,9 @@ public class YamlConfiguration extends FileConfiguration {
     protected static final String BLANK_CONFIG = "{}\n";
     private final DumperOptions yamlOptions = new DumperOptions();
     private final Representer yamlRepresenter = new YamlRepresenter();
-    private final Yaml yaml = new Yaml(new YamlConstructor(), yamlRepresenter, yamlOptions);
+    private final YamlConstructor yamlConstructor = new YamlConstructor();
+    private final Resolver yamlResolver = new Resolver();
+    private final Yaml yaml = new Yaml(yamlConstructor, yamlRepresenter, yamlOptions, yamlResolver);
 
     @Override
     public String saveToString() {
@@ -44,27 +49,46 @@ public class YamlConfiguration extends FileConfiguration {
         return header + dump;
     }
 
+    @Override
+    public void load(Reader reader) throws IOException, InvalidConfigurationException {
+        Validate.notNull(reader, "Reader cannot be null");
+
+        YamlEventLoader.HeaderReader input = new YamlEventLoader.HeaderReader(reader);
+        try {
+            loadEvents(input);
+        } catch (YAMLException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new InvalidConfigurationException(e);
+        } finally {
+            input.close();
+        }
+
+        String header = input.getHeader();
+        if (header.length() > 0) {
+            options().header(header);
+        }
+    }
+
     @Override
     public void loadFromString(String contents) throws InvalidConfigurationException {
         Validate.notNull(contents, "Contents cannot be null");
 
-        Map<?, ?> input;
         try {
-            input = (Map<?, ?>) yaml.load(contents);
+            loadEvents(new StringReader(contents));
         } catch (YAMLException e) {
             throw new InvalidConfigurationException(e);
-        } catch (ClassCastException e) {
-            throw new InvalidConfigurationException("Top level is not a Map.");
         }
 
         String header = parseHeader(contents);
         if (header.length() > 0) {
             options().header(header);
         }
+    }
 
-        if (input != null) {
-            convertMapsToSections(input, this);
-        }
+    private void loadEvents(Reader reader) throws InvalidConfigurationException {
+        new YamlEventLoader(this, yamlConstructor, yamlResolver, yaml.parse(reader)).load();
     }
 
     protected void convertMapsToSections(Map<?, ?> input, ConfigurationSection section) {
@@ -81,29 +105,34 @@ public class YamlConfiguration extends FileConfiguration {
     }
 
     protected String parseHeader(String input) {
-        String[] lines = input.split("\r?\n", -1);
         StringBuilder result = new StringBuilder();
-        boolean readingHeader = true;
         boolean foundHeader = false;
+        int start = 0;
 
-        for (int i = 0; (i < lines.length) && (readingHeader); i++) {
-            String line = lines[i];
+        for (int i = 0; start <= input.length(); i++) {
+            int end = input.indexOf('\n', start);
+            if (end == -1) {
+                end = input.length();
+            }
+            int next = end + 1;
+            if (end > start && input.charAt(end - 1) == '\r') {
+                end--;
+            }
 
-            if (line.startsWith(COMMENT_PREFIX)) {
+            if (input.startsWith(COMMENT_PREFIX, start)) {
                 if (i > 0) {
                     result.append("\n");
                 }
 
-                if (line.length() > COMMENT_PREFIX.length()) {
-                    result.append(line.substring(COMMENT_PREFIX.length()));
-                }
-
+                result.append(input, start + COMMENT_PREFIX.length(), end);
                 foundHeader = true;
-            } else if ((foundHeader) && (line.length() == 0)) {
+            } else if ((foundHeader) && (end == start)) {
                 result.append("\n");
             } else if (foundHeader) {
-                readingHeader = false;
+                break;
             }
+
+            start = next;
         }
 
         return result.toString();
@@ -3,19 +3,59 @@ package org.bukkit.configuration.file;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.yaml.snakeyaml.composer.Composer;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.Tag;
 
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 
 public class YamlConstructor extends SafeConstructor {
+    private final NodeComposer nodeComposer = new NodeComposer();
 
     public YamlConstructor() {
         this.yamlConstructors.put(Tag.MAP, new ConstructCustomObject());
     }
 
+    /**
+     * Constructs a single scalar, such as a key of a mapping.
+     */
+    Object constructScalarNode(ScalarNode node) {
+        return getConstructor(node).construct(node);
+    }
+
+    /**
+     * Constructs a node as if it were a whole document, resolving aliases
+     * and merge keys inside it.
+     */
+    Object constructDocumentNode(Node node) {
+        nodeComposer.node = node;
+        setComposer(nodeComposer);
+        try {
+            return getSingleData(Object.class);
+        } finally {
+            nodeComposer.node = null;
+        }
+    }
+
+    /**
+     * Hands a node which was already composed to {@link #getSingleData(Class)}.
+     */
+    private static class NodeComposer extends Composer {
+        private Node node;
+
+        NodeComposer() {
+            super(null, null);
+        }
+
+        @Override
+        public Node getSingleNode() {
+            return node;
+        }
+    }
+
     private class ConstructCustomObject extends ConstructYamlMap {
         @Override
         public Object construct(Node node) {
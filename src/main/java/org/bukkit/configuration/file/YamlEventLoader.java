@@ -0,0 +1,440 @@
+package org.bukkit.configuration.file;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * Loads a YAML document into a {@link YamlConfiguration} from the events of
+ * the YAML parser, creating a section as soon as a mapping starts instead of
+ * constructing the whole document as maps first.
+ * <p>
+ * Keys and scalars are constructed one at a time. Sequences, and mappings
+ * with an anchor or a tag, are composed into nodes and constructed as a
+ * whole by the {@link YamlConstructor}, so aliases, merge keys and
+ * serialized objects load as they do through {@link
+ * org.yaml.snakeyaml.Yaml#load(Reader)}.
+ * <p>
+ * If loading fails, the top level keys it changed are restored, so the
+ * configuration is left as it was.
+ */
+final class YamlEventLoader {
+    private final YamlConfiguration config;
+    private final YamlConstructor constructor;
+    private final Resolver resolver;
+    private final Iterator<Event> events;
+    private final Map<String, Node> anchors = new HashMap<String, Node>();
+    // Collections being composed, which an alias makes recursive
+    private final Set<Node> composing = new HashSet<Node>();
+    // The values of the top level keys before they were loaded
+    private final Map<String, Object> replaced = new LinkedHashMap<String, Object>();
+
+    YamlEventLoader(YamlConfiguration config, YamlConstructor constructor, Resolver resolver, Iterable<Event> events) {
+        this.config = config;
+        this.constructor = constructor;
+        this.resolver = resolver;
+        this.events = events.iterator();
+    }
+
+    /**
+     * Loads the single document of the stream into the configuration.
+     *
+     * @throws InvalidConfigurationException if the document is not a map, or
+     *     the stream has more than one document
+     */
+    void load() throws InvalidConfigurationException {
+        boolean loaded = false;
+        try {
+            read();
+            loaded = true;
+        } finally {
+            if (!loaded) {
+                rollback();
+            }
+        }
+    }
+
+    private void read() throws InvalidConfigurationException {
+        events.next(); // StreamStart
+        if (events.next().is(Event.ID.StreamEnd)) {
+            return;
+        }
+
+        Event root = events.next();
+        if (isSection(root)) {
+            if (readSection(config) != null) {
+                throw new InvalidConfigurationException("Top level is not a Map.");
+            }
+        } else {
+            Object value = construct(compose(root));
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    put(config, String.valueOf(entry.getKey()), entry.getValue());
+                }
+            } else if (value != null) {
+                throw new InvalidConfigurationException("Top level is not a Map.");
+            }
+        }
+
+        events.next(); // DocumentEnd
+        Event end = events.next();
+        if (!end.is(Event.ID.StreamEnd)) {
+            throw new InvalidConfigurationException("Expected a single document in the stream, but found another document " + end.getStartMark());
+        }
+    }
+
+    /**
+     * Checks if a node event starts a plain mapping, which can be read
+     * straight into a section.
+     */
+    private static boolean isSection(Event event) {
+        if (!event.is(Event.ID.MappingStart)) {
+            return false;
+        }
+        MappingStartEvent start = (MappingStartEvent) event;
+        String tag = start.getTag();
+        return start.getAnchor() == null && (tag == null || tag.equals("!") || tag.equals(Tag.MAP.getValue()));
+    }
+
+    /**
+     * Reads the pairs of a mapping into a section, up to the end of the
+     * mapping.
+     *
+     * @return the object the mapping is deserialized to, if it has a
+     *     {@link ConfigurationSerialization#SERIALIZED_TYPE_KEY} key,
+     *     otherwise null
+     */
+    private Object readSection(ConfigurationSection section) throws InvalidConfigurationException {
+        boolean serialized = false;
+        // The keys of this mapping, as the section may hold keys from before
+        Set<String> keys = new HashSet<String>();
+        Event event;
+        while (!(event = events.next()).is(Event.ID.MappingEnd)) {
+            Node keyNode = compose(event);
+            if (keyNode.getTag().equals(Tag.MERGE)) {
+                merge(section, compose(events.next()), keys);
+                continue;
+            }
+
+            String key = String.valueOf(construct(keyNode));
+            keys.add(key);
+            Event value = events.next();
+            if (isSection(value)) {
+                Object object = readSection(createSection(section, key));
+                if (object != null) {
+                    set(section, key, object);
+                }
+            } else {
+                put(section, key, construct(compose(value)));
+            }
+
+            if (key.equals(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+                serialized = true;
+            }
+        }
+
+        if (!serialized) {
+            return null;
+        }
+        try {
+            return ConfigurationSerialization.deserializeObject(toMap(section));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidConfigurationException("Could not deserialize object", ex);
+        }
+    }
+
+    /**
+     * Adds the keys of a merged mapping, or a list of them, which were not
+     * read into the section from its mapping yet. Keys the section held
+     * before are replaced. Earlier mappings in a list take precedence.
+     */
+    private void merge(ConfigurationSection section, Node node, Set<String> keys) throws InvalidConfigurationException {
+        List<Node> sources = node instanceof SequenceNode ? ((SequenceNode) node).getValue() : Collections.singletonList(node);
+        for (Node source : sources) {
+            Object value = construct(source);
+            if (!(value instanceof Map)) {
+                throw new InvalidConfigurationException("Expected a mapping or list of mappings for merging " + node.getStartMark());
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if (keys.add(key)) {
+                    put(section, key, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void put(ConfigurationSection section, String key, Object value) {
+        if (value instanceof Map) {
+            config.convertMapsToSections((Map<?, ?>) value, createSection(section, key));
+        } else {
+            set(section, key, value);
+        }
+    }
+
+    private ConfigurationSection createSection(ConfigurationSection section, String key) {
+        remember(section, key);
+        return section.createSection(key);
+    }
+
+    private void set(ConfigurationSection section, String key, Object value) {
+        remember(section, key);
+        section.set(key, value);
+    }
+
+    private void remember(ConfigurationSection section, String key) {
+        if (section == config && !replaced.containsKey(key)) {
+            replaced.put(key, config.get(key, null));
+        }
+    }
+
+    private void rollback() {
+        for (Map.Entry<String, Object> entry : replaced.entrySet()) {
+            config.set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static Map<String, Object> toMap(ConfigurationSection section) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : section.getValues(false).entrySet()) {
+            Object value = entry.getValue();
+            map.put(entry.getKey(), value instanceof ConfigurationSection ? toMap((ConfigurationSection) value) : value);
+        }
+        return map;
+    }
+
+    private Object construct(Node node) {
+        if (node instanceof ScalarNode) {
+            return constructor.constructScalarNode((ScalarNode) node);
+        }
+        return constructor.constructDocumentNode(node);
+    }
+
+    /**
+     * Composes the node starting with the given event, reading the events of
+     * its children.
+     */
+    private Node compose(Event event) throws InvalidConfigurationException {
+        if (event.is(Event.ID.Alias)) {
+            String anchor = ((AliasEvent) event).getAnchor();
+            Node node = anchors.get(anchor);
+            if (node == null) {
+                throw new InvalidConfigurationException("Found undefined alias " + anchor + " " + event.getStartMark());
+            }
+            if (composing.contains(node)) {
+                node.setTwoStepsConstruction(true);
+            }
+            return node;
+        }
+
+        String anchor = ((NodeEvent) event).getAnchor();
+        if (anchor != null && anchors.containsKey(anchor)) {
+            throw new InvalidConfigurationException("Found duplicate anchor " + anchor + "; first occurence " + anchors.get(anchor).getStartMark() + " second occurence " + event.getStartMark());
+        }
+
+        if (event.is(Event.ID.Scalar)) {
+            ScalarEvent scalar = (ScalarEvent) event;
+            boolean resolved = isNonSpecific(scalar.getTag());
+            Tag tag = resolved ? resolver.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar()) : new Tag(scalar.getTag());
+            Node node = new ScalarNode(tag, resolved, scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getStyle());
+            if (anchor != null) {
+                anchors.put(anchor, node);
+            }
+            return node;
+        }
+
+        CollectionStartEvent start = (CollectionStartEvent) event;
+        boolean resolved = isNonSpecific(start.getTag());
+        if (event.is(Event.ID.SequenceStart)) {
+            List<Node> children = new ArrayList<Node>();
+            Tag tag = resolved ? resolver.resolve(NodeId.sequence, null, start.getImplicit()) : new Tag(start.getTag());
+            SequenceNode node = new SequenceNode(tag, resolved, children, start.getStartMark(), null, start.getFlowStyle());
+            if (anchor != null) {
+                anchors.put(anchor, node);
+            }
+
+            composing.add(node);
+            Event child;
+            while (!(child = events.next()).is(Event.ID.SequenceEnd)) {
+                children.add(compose(child));
+            }
+            composing.remove(node);
+            return node;
+        }
+
+        List<NodeTuple> tuples = new ArrayList<NodeTuple>();
+        Tag tag = resolved ? resolver.resolve(NodeId.mapping, null, start.getImplicit()) : new Tag(start.getTag());
+        MappingNode node = new MappingNode(tag, resolved, tuples, start.getStartMark(), null, start.getFlowStyle());
+        if (anchor != null) {
+            anchors.put(anchor, node);
+        }
+
+        composing.add(node);
+        Event child;
+        while (!(child = events.next()).is(Event.ID.MappingEnd)) {
+            Node key = compose(child);
+            if (key.getTag().equals(Tag.MERGE)) {
+                node.setMerged(true);
+            }
+            tuples.add(new NodeTuple(key, compose(events.next())));
+        }
+        composing.remove(node);
+        return node;
+    }
+
+    private static boolean isNonSpecific(String tag) {
+        return tag == null || tag.equals("!");
+    }
+
+    /**
+     * Passes characters through while collecting the header at the start of
+     * them, as {@link YamlConfiguration#parseHeader(String)} does for the
+     * whole text. Lines end at <code>\n</code>, <code>\r</code> or
+     * <code>\r\n</code>.
+     * <p>
+     * Whether a line is a comment is decided once its prefix has been read,
+     * and only comment lines are kept. Like parseHeader, the first block of
+     * comments is the header even if it does not start the text, so lines
+     * are watched until that block ends.
+     */
+    static final class HeaderReader extends FilterReader {
+        private static final String PREFIX = YamlConfiguration.COMMENT_PREFIX;
+
+        private final StringBuilder header = new StringBuilder();
+        // The current line after the prefix, if it is a comment
+        private final StringBuilder line = new StringBuilder();
+        private int length = 0;
+        // If the current line starts with as much of the prefix as was read
+        private boolean comment = false;
+        private int lineNumber = 0;
+        private boolean foundHeader = false;
+        private boolean done = false;
+        private boolean skipLF = false;
+
+        HeaderReader(Reader in) {
+            super(in);
+        }
+
+        /**
+         * Gets the header read so far, which is complete once the end of
+         * the stream has been read.
+         *
+         * @return the header, without comment prefixes
+         */
+        String getHeader() {
+            return header.toString();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c == -1) {
+                finish();
+            } else {
+                observe((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int count = super.read(cbuf, off, len);
+            if (count == -1) {
+                finish();
+            } else {
+                for (int i = off; i < off + count && !done; i++) {
+                    observe(cbuf[i]);
+                }
+            }
+            return count;
+        }
+
+        private void observe(char c) {
+            if (done) {
+                return;
+            }
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    return;
+                }
+            }
+            if (c == '\r' || c == '\n') {
+                endLine();
+                skipLF = c == '\r';
+                return;
+            }
+
+            if (length < PREFIX.length()) {
+                comment = (length == 0 || comment) && c == PREFIX.charAt(length);
+            } else if (comment) {
+                line.append(c);
+            }
+            length++;
+        }
+
+        private boolean isComment() {
+            return comment && length >= PREFIX.length();
+        }
+
+        private void endLine() {
+            if (isComment()) {
+                if (lineNumber > 0) {
+                    header.append('\n');
+                }
+                header.append(line);
+                foundHeader = true;
+            } else if (foundHeader && length == 0) {
+                header.append('\n');
+            } else if (foundHeader) {
+                done = true;
+            }
+
+            lineNumber++;
+            line.setLength(0);
+            length = 0;
+            comment = false;
+        }
+
+        private void finish() {
+            if (done) {
+                return;
+            }
+            // Every line used to be read with a line break after it
+            if (length > 0) {
+                endLine();
+            }
+            if (!done) {
+                endLine();
+            }
+            done = true;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.bukkit.configuration.view;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of an interface used with {@link ConfigurationView} as a
+ * getter for a configuration value.
+ * <p>
+ * The method must not take any parameters. Its return type decides how the
+ * value is converted when the view is loaded.
+ *
+ * @see ConfigurationView
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConfigValue {
+    /**
+     * The path of the value, relative to the section the view is loaded
+     * from. Keys are separated by '.'.
+     *
+     * @return Path of the value
+     */
+    public String value();
+
+    /**
+     * Whether the value must be set, either in the section or in its
+     * defaults. If a value which is not required is missing, the getter
+     * returns 0, false, null or an empty list, depending on its return type.
+     *
+     * @return true if loading fails when the value is missing
+     */
+    public boolean required() default false;
+}
@@ -0,0 +1,607 @@
+package org.bukkit.configuration.view;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.configuration.ConfigPath;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+
+/**
+ * A typed view of a {@link ConfigurationSection}, through an interface
+ * whose getters are annotated with {@link ConfigValue}.
+ * <p>
+ * All values are looked up and converted when the view is {@link
+ * #load(ConfigurationSection) loaded}, and kept until it is loaded again, so
+ * calling a getter does not look anything up in the configuration. Values
+ * which are missing or cannot be converted are all reported by the load,
+ * instead of when they are used.
+ * <pre>
+ * public interface Settings {
+ *     &#64;ConfigValue(value = "server.port", required = true)
+ *     int port();
+ *
+ *     &#64;ConfigValue("motd")
+ *     String motd();
+ * }
+ *
+ * ConfigurationView&lt;Settings&gt; settings = ConfigurationView.of(Settings.class);
+ * settings.load(getConfig());
+ * int port = settings.get().port();
+ * </pre>
+ * The object returned by {@link #get()} always has the values of the last
+ * successful load, so it may be kept across reloads. A failed load keeps
+ * the previous values.
+ * <p>
+ * Getters may return:
+ * <ul>
+ * <li>primitives, their wrappers, and String, converted from numbers,
+ *     booleans and Strings
+ * <li>enums, from the name of a constant, ignoring case and treating
+ *     dashes and spaces as underscores
+ * <li>Lists, whose elements are converted if the List has one of the types
+ *     above as its type argument
+ * <li>{@link ConfigurationSection}
+ * <li>another interface with {@link ConfigValue} getters, which is a view
+ *     of the section at the path
+ * <li>any other type stored in the configuration, such as {@link
+ *     org.bukkit.util.Vector}, which is returned as it is
+ * </ul>
+ *
+ * @param <T> Interface of the view
+ */
+public final class ConfigurationView<T> {
+    private final Model model;
+    private final T proxy;
+    private volatile Object[] values;
+
+    private ConfigurationView(Class<T> type, Model model) {
+        this.model = model;
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return ConfigurationView.this.model.invoke(proxy, method, args, values);
+            }
+        }));
+    }
+
+    /**
+     * Creates an unloaded view for the given interface.
+     *
+     * @param <T> Interface of the view
+     * @param type Interface of the view
+     * @return New view
+     * @throws IllegalArgumentException Thrown if type is not an interface, a
+     *     method of it is not a getter annotated with {@link ConfigValue},
+     *     or a getter returns void
+     */
+    public static <T> ConfigurationView<T> of(Class<T> type) {
+        Validate.notNull(type, "Type cannot be null");
+
+        return new ConfigurationView<T>(type, Model.of(type, new HashMap<Class<?>, Model>()));
+    }
+
+    /**
+     * Gets the object whose getters return the values of this view.
+     * <p>
+     * Calling a getter before the view has been loaded throws an {@link
+     * IllegalStateException}.
+     *
+     * @return Object implementing the interface of the view
+     */
+    public T get() {
+        return proxy;
+    }
+
+    /**
+     * Checks if this view has been loaded successfully.
+     *
+     * @return true if the getters return values
+     */
+    public boolean isLoaded() {
+        return values != null;
+    }
+
+    /**
+     * Looks up and converts all values of this view from the given section,
+     * including its defaults.
+     * <p>
+     * If a value is missing and required, or cannot be converted, nothing
+     * is changed and all such values are reported in the exception.
+     *
+     * @param section Section to load the values from
+     * @return Object implementing the interface of the view, as {@link
+     *     #get()}
+     * @throws InvalidConfigurationException Thrown if a required value is
+     *     missing, or a value cannot be converted to the return type of its
+     *     getter
+     * @throws IllegalArgumentException Thrown if section is null
+     */
+    public T load(ConfigurationSection section) throws InvalidConfigurationException {
+        Validate.notNull(section, "Section cannot be null");
+
+        List<String> errors = new ArrayList<String>();
+        Object[] loaded = model.load(section, "", errors);
+        if (!errors.isEmpty()) {
+            StringBuilder message = new StringBuilder("Invalid configuration for ").append(model.type.getName()).append(':');
+            for (String error : errors) {
+                message.append("\n  ").append(error);
+            }
+            throw new InvalidConfigurationException(message.toString());
+        }
+
+        values = loaded;
+        return proxy;
+    }
+
+    @Override
+    public String toString() {
+        return model.toString(values);
+    }
+
+    /**
+     * The getters of an interface and how to convert their values.
+     */
+    private static final class Model {
+        private final Class<?> type;
+        private final String[] names;
+        private final ConfigPath[] paths;
+        private final boolean[] required;
+        private final Converter[] converters;
+        private final Map<Method, Integer> indexes;
+
+        private Model(Class<?> type, int size) {
+            this.type = type;
+            this.names = new String[size];
+            this.paths = new ConfigPath[size];
+            this.required = new boolean[size];
+            this.converters = new Converter[size];
+            this.indexes = new HashMap<Method, Integer>(size * 2);
+        }
+
+        static Model of(Class<?> type, Map<Class<?>, Model> models) {
+            Validate.isTrue(type.isInterface(), type.getName() + " is not an interface");
+
+            Model model = models.get(type);
+            if (model != null) {
+                return model;
+            }
+
+            Method[] methods = type.getMethods();
+            Arrays.sort(methods, new Comparator<Method>() {
+                public int compare(Method a, Method b) {
+                    return a.getName().compareTo(b.getName());
+                }
+            });
+
+            model = new Model(type, methods.length);
+            // Added before the getters, so an interface may contain itself
+            models.put(type, model);
+
+            for (int i = 0; i < methods.length; i++) {
+                Method method = methods[i];
+                ConfigValue value = method.getAnnotation(ConfigValue.class);
+                Validate.notNull(value, "Method " + method + " is not annotated with @ConfigValue");
+                Validate.isTrue(method.getParameterTypes().length == 0, "Method " + method + " cannot take parameters");
+                Validate.notEmpty(value.value(), "Method " + method + " has an empty path");
+
+                model.names[i] = value.value();
+                model.paths[i] = ConfigPath.compile(value.value());
+                model.required[i] = value.required();
+                model.converters[i] = converter(method.getGenericReturnType(), method, models);
+                model.indexes.put(method, i);
+            }
+
+            return model;
+        }
+
+        Object[] load(ConfigurationSection section, String prefix, List<String> errors) {
+            Object[] values = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String path = prefix + names[i];
+                Object value = section.get(paths[i]);
+                if (value == null) {
+                    if (required[i]) {
+                        errors.add(path + ": is required, but missing");
+                    }
+                    values[i] = converters[i].empty(path, errors);
+                } else {
+                    values[i] = converters[i].convert(value, path, errors);
+                }
+            }
+            return values;
+        }
+
+        Object invoke(Object proxy, Method method, Object[] args, Object[] values) {
+            Integer index = indexes.get(method);
+            if (index != null) {
+                if (values == null) {
+                    throw new IllegalStateException("View of " + type.getName() + " has not been loaded");
+                }
+                return values[index];
+            }
+
+            // Only the methods of Object are left
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return toString(values);
+        }
+
+        String toString(Object[] values) {
+            StringBuilder builder = new StringBuilder(type.getSimpleName()).append('{');
+            if (values == null) {
+                builder.append("not loaded");
+            } else {
+                for (int i = 0; i < names.length; i++) {
+                    if (i > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append(names[i]).append('=').append(values[i]);
+                }
+            }
+            return builder.append('}').toString();
+        }
+
+        /**
+         * Gets a snapshot of the given values, implementing the interface.
+         */
+        Object snapshot(final Object[] values) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return Model.this.invoke(proxy, method, args, values);
+                }
+            });
+        }
+    }
+
+    private static Converter converter(Type type, Method method, Map<Class<?>, Model> models) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type element = parameterized.getActualTypeArguments()[0];
+            if (parameterized.getRawType() == List.class && element instanceof Class && element != Object.class) {
+                Converter converter = converter(element, method, models);
+                Validate.isTrue(!(converter instanceof ViewConverter), "Method " + method + " cannot return a List of views");
+                return new ListConverter(converter);
+            }
+            return converter(parameterized.getRawType(), method, models);
+        }
+
+        Validate.isTrue(type instanceof Class, "Method " + method + " has an unsupported return type " + type);
+        Class<?> clazz = (Class<?>) type;
+        Validate.isTrue(clazz != void.class, "Method " + method + " cannot return void");
+
+        if (clazz.isPrimitive()) {
+            return SimpleConverter.of(clazz);
+        }
+        SimpleConverter simple = SimpleConverter.of(clazz);
+        if (simple != null) {
+            return new WrapperConverter(simple);
+        }
+        if (clazz == String.class) {
+            return SimpleConverter.STRING;
+        }
+        if (clazz.isEnum()) {
+            return new EnumConverter(clazz);
+        }
+        if (clazz == List.class) {
+            return new ListConverter(null);
+        }
+        if (clazz.isInterface() && clazz != ConfigurationSection.class && isView(clazz)) {
+            return new ViewConverter(Model.of(clazz, models));
+        }
+        return new InstanceConverter(clazz);
+    }
+
+    private static boolean isView(Class<?> type) {
+        for (Method method : type.getMethods()) {
+            if (method.isAnnotationPresent(ConfigValue.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object fail(String path, List<String> errors, String expected, Object value) {
+        errors.add(path + ": expected " + expected + ", but found " + (value instanceof String ? "'" + value + "'" : value));
+        return null;
+    }
+
+    /**
+     * Converts configuration values to the return type of a getter.
+     */
+    private interface Converter {
+        /**
+         * Converts a value, adding an error if it cannot be converted.
+         *
+         * @return Converted value, or null if it cannot be converted
+         */
+        Object convert(Object value, String path, List<String> errors);
+
+        /**
+         * Gets the value of a getter whose value is missing.
+         */
+        Object empty(String path, List<String> errors);
+    }
+
+    private enum SimpleConverter implements Converter {
+        INT(int.class, Integer.class, "a whole number", 0) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Number) {
+                    return ((Number) value).intValue();
+                }
+                return value instanceof String ? Integer.valueOf(((String) value).trim()) : null;
+            }
+        },
+        LONG(long.class, Long.class, "a whole number", 0L) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Number) {
+                    return ((Number) value).longValue();
+                }
+                return value instanceof String ? Long.valueOf(((String) value).trim()) : null;
+            }
+        },
+        SHORT(short.class, Short.class, "a whole number", (short) 0) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Number) {
+                    return ((Number) value).shortValue();
+                }
+                return value instanceof String ? Short.valueOf(((String) value).trim()) : null;
+            }
+        },
+        BYTE(byte.class, Byte.class, "a whole number", (byte) 0) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Number) {
+                    return ((Number) value).byteValue();
+                }
+                return value instanceof String ? Byte.valueOf(((String) value).trim()) : null;
+            }
+        },
+        DOUBLE(double.class, Double.class, "a number", 0D) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                }
+                return value instanceof String ? Double.valueOf(((String) value).trim()) : null;
+            }
+        },
+        FLOAT(float.class, Float.class, "a number", 0F) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Number) {
+                    return ((Number) value).floatValue();
+                }
+                return value instanceof String ? Float.valueOf(((String) value).trim()) : null;
+            }
+        },
+        BOOLEAN(boolean.class, Boolean.class, "true or false", false) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if (value instanceof String) {
+                    String string = ((String) value).trim();
+                    if (string.equalsIgnoreCase("true")) {
+                        return true;
+                    }
+                    if (string.equalsIgnoreCase("false")) {
+                        return false;
+                    }
+                }
+                return null;
+            }
+        },
+        CHAR(char.class, Character.class, "a single character", '\0') {
+            @Override
+            Object value(Object value) {
+                if (value instanceof Character) {
+                    return value;
+                }
+                if (value instanceof String && ((String) value).length() == 1) {
+                    return ((String) value).charAt(0);
+                }
+                return null;
+            }
+        },
+        STRING(null, String.class, "text", null) {
+            @Override
+            Object value(Object value) {
+                if (value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character) {
+                    return value.toString();
+                }
+                return null;
+            }
+        };
+
+        private final Class<?> primitive;
+        private final Class<?> wrapper;
+        private final String expected;
+        private final Object zero;
+
+        private SimpleConverter(Class<?> primitive, Class<?> wrapper, String expected, Object zero) {
+            this.primitive = primitive;
+            this.wrapper = wrapper;
+            this.expected = expected;
+            this.zero = zero;
+        }
+
+        /**
+         * Converts a value, returning null or throwing a {@link
+         * NumberFormatException} if it cannot be converted.
+         */
+        abstract Object value(Object value);
+
+        public Object convert(Object value, String path, List<String> errors) {
+            Object result;
+            try {
+                result = value(value);
+            } catch (NumberFormatException ex) {
+                result = null;
+            }
+            return (result == null) ? fail(path, errors, expected, value) : result;
+        }
+
+        public Object empty(String path, List<String> errors) {
+            return zero;
+        }
+
+        /**
+         * Gets the converter for a primitive type or its wrapper.
+         *
+         * @return Converter, or null if the type is neither
+         */
+        static SimpleConverter of(Class<?> type) {
+            for (SimpleConverter converter : values()) {
+                if (converter != STRING && (converter.primitive == type || converter.wrapper == type)) {
+                    return converter;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Converts to a wrapper of a primitive, which is null when missing.
+     */
+    private static final class WrapperConverter implements Converter {
+        private final SimpleConverter converter;
+
+        WrapperConverter(SimpleConverter converter) {
+            this.converter = converter;
+        }
+
+        public Object convert(Object value, String path, List<String> errors) {
+            return converter.convert(value, path, errors);
+        }
+
+        public Object empty(String path, List<String> errors) {
+            return null;
+        }
+    }
+
+    private static final class EnumConverter implements Converter {
+        private final Object[] constants;
+        private final String expected;
+
+        EnumConverter(Class<?> type) {
+            this.constants = type.getEnumConstants();
+            StringBuilder builder = new StringBuilder("one of ");
+            for (int i = 0; i < constants.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(constants[i]);
+            }
+            this.expected = builder.toString();
+        }
+
+        public Object convert(Object value, String path, List<String> errors) {
+            if (value instanceof String) {
+                String name = ((String) value).trim().replace('-', '_').replace(' ', '_');
+                for (Object constant : constants) {
+                    if (((Enum<?>) constant).name().equalsIgnoreCase(name)) {
+                        return constant;
+                    }
+                }
+            } else {
+                for (Object constant : constants) {
+                    if (constant == value) {
+                        return constant;
+                    }
+                }
+            }
+            return fail(path, errors, expected, value);
+        }
+
+        public Object empty(String path, List<String> errors) {
+            return null;
+        }
+    }
+
+    private static final class ListConverter implements Converter {
+        private final Converter element;
+
+        /**
+         * @param element Converter for the elements, or null to keep them
+         */
+        ListConverter(Converter element) {
+            this.element = element;
+        }
+
+        public Object convert(Object value, String path, List<String> errors) {
+            if (!(value instanceof List)) {
+                return fail(path, errors, "a list", value);
+            }
+
+            List<?> list = (List<?>) value;
+            List<Object> result = new ArrayList<Object>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Object item = list.get(i);
+                if (element != null) {
+                    item = (item == null) ? element.empty(path + "[" + i + "]", errors) : element.convert(item, path + "[" + i + "]", errors);
+                }
+                result.add(item);
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        public Object empty(String path, List<String> errors) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static final class ViewConverter implements Converter {
+        private final Model model;
+
+        ViewConverter(Model model) {
+            this.model = model;
+        }
+
+        public Object convert(Object value, String path, List<String> errors) {
+            if (!(value instanceof ConfigurationSection)) {
+                return fail(path, errors, "a section", value);
+            }
+            return model.snapshot(model.load((ConfigurationSection) value, path + ".", errors));
+        }
+
+        public Object empty(String path, List<String> errors) {
+            return null;
+        }
+    }
+
+    private static final class InstanceConverter implements Converter {
+        private final Class<?> type;
+
+        InstanceConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        public Object convert(Object value, String path, List<String> errors) {
+            return type.isInstance(value) ? value : fail(path, errors, "a " + type.getSimpleName(), value);
+        }
+
+        public Object empty(String path, List<String> errors) {
+            return null;
+        }
+    }
+}
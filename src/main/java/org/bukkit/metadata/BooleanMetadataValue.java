@@ -0,0 +1,40 @@
+package org.bukkit.metadata;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A fixed metadata value holding an unboxed boolean. Reading it through
+ * {@link #asBoolean()} or {@link #value()} does not allocate. Invalidating a
+ * BooleanMetadataValue has no effect.
+ */
+public class BooleanMetadataValue extends MetadataValueAdapter {
+    private final boolean value;
+
+    /**
+     * Initializes a BooleanMetadataValue.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the value assigned to this metadata value
+     */
+    public BooleanMetadataValue(Plugin owningPlugin, boolean value) {
+        super(owningPlugin);
+        this.value = value;
+    }
+
+    public Object value() {
+        return Boolean.valueOf(value);
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return value;
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    public void invalidate() {
+    }
+}
@@ -0,0 +1,70 @@
+package org.bukkit.metadata;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A fixed metadata value holding an unboxed double. Reading it through {@link
+ * #asDouble()} or any other numeric conversion does not allocate. Invalidating
+ * a DoubleMetadataValue has no effect.
+ */
+public class DoubleMetadataValue extends MetadataValueAdapter {
+    private final double value;
+
+    /**
+     * Initializes a DoubleMetadataValue.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the value assigned to this metadata value
+     */
+    public DoubleMetadataValue(Plugin owningPlugin, double value) {
+        super(owningPlugin);
+        this.value = value;
+    }
+
+    public Object value() {
+        return Double.valueOf(value);
+    }
+
+    @Override
+    public int asInt() {
+        return (int) value;
+    }
+
+    @Override
+    public float asFloat() {
+        return (float) value;
+    }
+
+    @Override
+    public double asDouble() {
+        return value;
+    }
+
+    @Override
+    public long asLong() {
+        return (long) value;
+    }
+
+    @Override
+    public short asShort() {
+        return (short) value;
+    }
+
+    @Override
+    public byte asByte() {
+        return (byte) value;
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return (int) value != 0;
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    public void invalidate() {
+    }
+}
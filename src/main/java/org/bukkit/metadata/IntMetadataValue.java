@@ -0,0 +1,70 @@
+package org.bukkit.metadata;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A fixed metadata value holding an unboxed int. Reading it through {@link
+ * #asInt()} or any other numeric conversion does not allocate. Invalidating
+ * an IntMetadataValue has no effect.
+ */
+public class IntMetadataValue extends MetadataValueAdapter {
+    private final int value;
+
+    /**
+     * Initializes an IntMetadataValue.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the value assigned to this metadata value
+     */
+    public IntMetadataValue(Plugin owningPlugin, int value) {
+        super(owningPlugin);
+        this.value = value;
+    }
+
+    public Object value() {
+        return Integer.valueOf(value);
+    }
+
+    @Override
+    public int asInt() {
+        return value;
+    }
+
+    @Override
+    public float asFloat() {
+        return value;
+    }
+
+    @Override
+    public double asDouble() {
+        return value;
+    }
+
+    @Override
+    public long asLong() {
+        return value;
+    }
+
+    @Override
+    public short asShort() {
+        return (short) value;
+    }
+
+    @Override
+    public byte asByte() {
+        return (byte) value;
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return value != 0;
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    public void invalidate() {
+    }
+}
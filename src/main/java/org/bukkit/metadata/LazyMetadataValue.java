@@ -2,6 +2,8 @@ package org.bukkit.metadata;
 
 import java.lang.ref.SoftReference;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 import org.apache.commons.lang.Validate;
 import org.bukkit.plugin.Plugin;
@@ -16,11 +18,24 @@ import org.bukkit.plugin.Plugin;
  * by a {@link CacheStrategy} or invalidated at the individual or plugin
  * level. Once invalidated, the LazyMetadataValue will recompute its value
  * when asked.
+ * <p>
+ * Each value counts its cache hits and misses and the time spent evaluating
+ * it, which can be used to find expensive lazy values.
  */
 public class LazyMetadataValue extends MetadataValueAdapter implements MetadataValue {
     private Callable<Object> lazyValue;
     private CacheStrategy cacheStrategy;
     private SoftReference<Object> internalValue;
+    private long duration;
+    private long evaluatedAt;
+    private boolean stale = false;
+    private boolean refreshing = false;
+    private long refreshStartedAt;
+    private int invalidations = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evaluations = 0;
+    private long evaluationTime = 0;
     private static final Object ACTUALLY_NULL = new Object();
 
     /**
@@ -41,16 +56,44 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
      * @param owningPlugin the {@link Plugin} that created this metadata
      *     value.
      * @param cacheStrategy determines the rules for caching this metadata
-     *     value.
+     *     value. Strategies that expire the value need a duration and
+     *     cannot be used with this constructor.
      * @param lazyValue the lazy value assigned to this metadata value.
      */
     public LazyMetadataValue(Plugin owningPlugin, CacheStrategy cacheStrategy, Callable<Object> lazyValue) {
         super(owningPlugin);
         Validate.notNull(cacheStrategy, "cacheStrategy cannot be null");
         Validate.notNull(lazyValue, "lazyValue cannot be null");
+        Validate.isTrue(!cacheStrategy.expires, cacheStrategy + " requires a duration");
+        this.internalValue = new SoftReference<Object>(null);
+        this.lazyValue = lazyValue;
+        this.cacheStrategy = cacheStrategy;
+    }
+
+    /**
+     * Initializes a LazyMetadataValue object with a cache strategy that
+     * expires the value, {@link CacheStrategy#EXPIRE_AFTER_WRITE} or {@link
+     * CacheStrategy#REFRESH_AHEAD}.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata
+     *     value.
+     * @param cacheStrategy determines the rules for caching this metadata
+     *     value.
+     * @param duration how long an evaluated value stays fresh.
+     * @param unit the unit of duration.
+     * @param lazyValue the lazy value assigned to this metadata value.
+     */
+    public LazyMetadataValue(Plugin owningPlugin, CacheStrategy cacheStrategy, long duration, TimeUnit unit, Callable<Object> lazyValue) {
+        super(owningPlugin);
+        Validate.notNull(cacheStrategy, "cacheStrategy cannot be null");
+        Validate.notNull(unit, "unit cannot be null");
+        Validate.notNull(lazyValue, "lazyValue cannot be null");
+        Validate.isTrue(cacheStrategy.expires, cacheStrategy + " does not expire");
+        Validate.isTrue(duration > 0, "duration must be positive");
         this.internalValue = new SoftReference<Object>(null);
         this.lazyValue = lazyValue;
         this.cacheStrategy = cacheStrategy;
+        this.duration = unit.toNanos(duration);
     }
 
     /**
@@ -62,8 +105,7 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
     }
 
     public Object value() {
-        eval();
-        Object value = internalValue.get();
+        Object value = eval();
         if (value == ACTUALLY_NULL) {
             return null;
         }
@@ -73,29 +115,183 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
     /**
      * Lazily evaluates the value of this metadata item.
      *
+     * @return the cached or newly computed value
      * @throws MetadataEvaluationException if computing the metadata value
      *     fails.
      */
-    private synchronized void eval() throws MetadataEvaluationException {
-        if (cacheStrategy == CacheStrategy.NEVER_CACHE || internalValue.get() == null) {
+    private Object eval() throws MetadataEvaluationException {
+        boolean refresh = false;
+        Object value;
+        synchronized (this) {
+            value = cacheStrategy == CacheStrategy.NEVER_CACHE ? null : internalValue.get();
+            if (value != null && !isFresh()) {
+                if (cacheStrategy == CacheStrategy.REFRESH_AHEAD) {
+                    // Serve the stale value while it is reloaded. A reload
+                    // that has not finished within the duration is assumed
+                    // lost, for example if its task was never run.
+                    long now = System.nanoTime();
+                    refresh = !refreshing || now - refreshStartedAt >= duration;
+                    if (refresh) {
+                        refreshing = true;
+                        refreshStartedAt = now;
+                    }
+                } else {
+                    value = null;
+                }
+            }
+
+            if (value != null) {
+                hits++;
+            } else {
+                misses++;
+                value = compute();
+                store(value);
+            }
+        }
+
+        if (refresh) {
             try {
-                Object value = lazyValue.call();
-                if (value == null) {
-                    value = ACTUALLY_NULL;
+                scheduleRefresh(new Runnable() {
+                    public void run() {
+                        refresh();
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    refreshing = false;
                 }
-                internalValue = new SoftReference<Object>(value);
-            } catch (Exception e) {
-                throw new MetadataEvaluationException(e);
+                logRefreshFailure("Could not schedule the refresh of a metadata value", e);
+            }
+        }
+        return value;
+    }
+
+    // Must hold the monitor
+    private boolean isFresh() {
+        if (stale) {
+            return false;
+        }
+        return !cacheStrategy.expires || System.nanoTime() - evaluatedAt < duration;
+    }
+
+    // Must hold the monitor
+    private void store(Object value) {
+        internalValue = new SoftReference<Object>(value);
+        evaluatedAt = System.nanoTime();
+        stale = false;
+    }
+
+    private Object compute() throws MetadataEvaluationException {
+        long start = System.nanoTime();
+        try {
+            Object value = lazyValue.call();
+            return value == null ? ACTUALLY_NULL : value;
+        } catch (Exception e) {
+            throw new MetadataEvaluationException(e);
+        } finally {
+            long time = System.nanoTime() - start;
+            synchronized (this) {
+                evaluations++;
+                evaluationTime += time;
+            }
+        }
+    }
+
+    private void refresh() {
+        int started;
+        synchronized (this) {
+            started = invalidations;
+        }
+        try {
+            Object value = compute();
+            synchronized (this) {
+                store(value);
+                // Invalidated while reloading, the value may already be outdated
+                stale = invalidations != started;
+            }
+        } catch (MetadataEvaluationException e) {
+            logRefreshFailure("Could not refresh metadata value", e.getCause());
+        } finally {
+            synchronized (this) {
+                refreshing = false;
             }
         }
     }
 
+    private void logRefreshFailure(String message, Throwable cause) {
+        Plugin plugin = getOwningPlugin();
+        if (plugin != null) {
+            plugin.getServer().getLogger().log(Level.WARNING, message + " of " + plugin.getName(), cause);
+        }
+    }
+
+    /**
+     * Schedules the reload of a stale {@link CacheStrategy#REFRESH_AHEAD}
+     * value. The default implementation runs the task asynchronously on the
+     * scheduler of the owning plugin's server, or immediately if the plugin
+     * is no longer enabled.
+     *
+     * @param task the task reloading the value
+     */
+    protected void scheduleRefresh(Runnable task) {
+        Plugin plugin = getOwningPlugin();
+        if (plugin == null || !plugin.isEnabled()) {
+            task.run();
+            return;
+        }
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
     public synchronized void invalidate() {
-        if (cacheStrategy != CacheStrategy.CACHE_ETERNALLY) {
+        if (cacheStrategy == CacheStrategy.REFRESH_AHEAD) {
+            stale = true;
+            invalidations++;
+        } else if (cacheStrategy != CacheStrategy.CACHE_ETERNALLY) {
             internalValue.clear();
         }
     }
 
+    /**
+     * Gets the number of reads served from the cached value, including stale
+     * values served while a {@link CacheStrategy#REFRESH_AHEAD} value is
+     * reloaded.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of reads that had to evaluate the value before
+     * returning it.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of times the value was evaluated, including
+     * background reloads.
+     *
+     * @return the number of evaluations
+     */
+    public synchronized long getEvaluationCount() {
+        return evaluations;
+    }
+
+    /**
+     * Gets the total time spent evaluating the value, including background
+     * reloads.
+     *
+     * @return the evaluation time in nanoseconds
+     */
+    public synchronized long getEvaluationTime() {
+        return evaluationTime;
+    }
+
     /**
      * Describes possible caching strategies for metadata.
      */
@@ -115,6 +311,31 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
          * Once the metadata value has been evaluated, do not re-evaluate the
          * value in spite of manual invalidation.
          */
-        CACHE_ETERNALLY
+        CACHE_ETERNALLY,
+
+        /**
+         * Re-evaluate the metadata item when it is requested after a fixed
+         * duration has passed since it was evaluated, or after it was
+         * manually invalidated.
+         */
+        EXPIRE_AFTER_WRITE(true),
+
+        /**
+         * Once the metadata value is older than a fixed duration, or was
+         * manually invalidated, keep returning it while it is re-evaluated
+         * asynchronously. The value is only evaluated on the requesting
+         * thread if there is no value to return yet.
+         */
+        REFRESH_AHEAD(true);
+
+        private final boolean expires;
+
+        private CacheStrategy() {
+            this(false);
+        }
+
+        private CacheStrategy(boolean expires) {
+            this.expires = expires;
+        }
     }
 }
@@ -0,0 +1,70 @@
+package org.bukkit.metadata;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A fixed metadata value holding an unboxed long. Reading it through {@link
+ * #asLong()} or any other numeric conversion does not allocate. Invalidating
+ * a LongMetadataValue has no effect.
+ */
+public class LongMetadataValue extends MetadataValueAdapter {
+    private final long value;
+
+    /**
+     * Initializes a LongMetadataValue.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata value
+     * @param value the value assigned to this metadata value
+     */
+    public LongMetadataValue(Plugin owningPlugin, long value) {
+        super(owningPlugin);
+        this.value = value;
+    }
+
+    public Object value() {
+        return Long.valueOf(value);
+    }
+
+    @Override
+    public int asInt() {
+        return (int) value;
+    }
+
+    @Override
+    public float asFloat() {
+        return value;
+    }
+
+    @Override
+    public double asDouble() {
+        return value;
+    }
+
+    @Override
+    public long asLong() {
+        return value;
+    }
+
+    @Override
+    public short asShort() {
+        return (short) value;
+    }
+
+    @Override
+    public byte asByte() {
+        return (byte) value;
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return (int) value != 0;
+    }
+
+    @Override
+    public String asString() {
+        return String.valueOf(value);
+    }
+
+    public void invalidate() {
+    }
+}
@@ -0,0 +1,186 @@
+package org.bukkit.metadata;
+
+import java.util.List;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+
+import com.google.common.primitives.Primitives;
+
+/**
+ * A metadata key bound to the type of value stored under it.
+ * <p>
+ * Keys are meant to be created once and kept in a constant:
+ * <pre>
+ * private static final MetadataKey&lt;Integer&gt; KILLS = new MetadataKey&lt;Integer&gt;("myplugin.kills", Integer.class);
+ *
+ * KILLS.set(entity, plugin, 5);
+ * int kills = KILLS.getValue(entity, plugin).asInt();
+ * </pre>
+ * Values for {@link Integer}, {@link Long}, {@link Double} and {@link
+ * Boolean} keys are stored in {@link IntMetadataValue}, {@link
+ * LongMetadataValue}, {@link DoubleMetadataValue} and {@link
+ * BooleanMetadataValue}, so reading them through {@link
+ * #getValue(Metadatable, Plugin)} and the matching conversion method does not
+ * allocate. Values are stored under {@link #getName()} and can be read
+ * through the untyped {@link Metadatable} methods as well.
+ *
+ * @param <T> the type of value stored under this key
+ */
+public final class MetadataKey<T> {
+    private final String name;
+    private final Class<T> type;
+
+    /**
+     * Creates a new metadata key.
+     *
+     * @param name the name the values are stored under
+     * @param type the type of the values; primitive types are replaced by
+     *     their wrapper types
+     * @throws IllegalArgumentException if name or type is null
+     */
+    public MetadataKey(String name, Class<T> type) {
+        Validate.notNull(name, "Name cannot be null");
+        Validate.notNull(type, "Type cannot be null");
+        this.name = name;
+        this.type = Primitives.wrap(type);
+    }
+
+    /**
+     * Gets the name the values of this key are stored under.
+     *
+     * @return the name of this key
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of the values of this key.
+     *
+     * @return the type of this key
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Sets the value of this key owned by a plugin.
+     *
+     * @param holder the object receiving the metadata
+     * @param owningPlugin the plugin owning the value
+     * @param value the value to set
+     * @throws IllegalArgumentException if holder, owningPlugin or value is
+     *     null
+     * @throws ClassCastException if value is not of the type of this key
+     */
+    public void set(Metadatable holder, Plugin owningPlugin, T value) {
+        Validate.notNull(holder, "Holder cannot be null");
+        Validate.notNull(value, "Value cannot be null");
+        holder.setMetadata(name, wrap(owningPlugin, type.cast(value)));
+    }
+
+    /**
+     * Gets the metadata value of this key owned by a plugin, without
+     * converting it. This does not allocate.
+     *
+     * @param holder the object being interrogated
+     * @param owningPlugin the plugin owning the value
+     * @return the metadata value, or null if the plugin has not set one
+     * @throws IllegalArgumentException if holder or owningPlugin is null
+     */
+    public MetadataValue getValue(Metadatable holder, Plugin owningPlugin) {
+        Validate.notNull(holder, "Holder cannot be null");
+        Validate.notNull(owningPlugin, "Plugin cannot be null");
+        List<MetadataValue> values = holder.getMetadata(name);
+        for (int i = 0; i < values.size(); i++) {
+            MetadataValue value = values.get(i);
+            if (owningPlugin.equals(value.getOwningPlugin())) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value of this key owned by a plugin.
+     *
+     * @param holder the object being interrogated
+     * @param owningPlugin the plugin owning the value
+     * @return the value, or null if the plugin has not set one
+     * @throws IllegalArgumentException if holder or owningPlugin is null
+     * @throws MetadataConversionException if the stored value is not of the
+     *     type of this key
+     */
+    public T get(Metadatable holder, Plugin owningPlugin) {
+        MetadataValue value = getValue(holder, owningPlugin);
+        return value == null ? null : convert(value);
+    }
+
+    /**
+     * Gets if any plugin has set a value for this key.
+     *
+     * @param holder the object being interrogated
+     * @return true if a value is present
+     * @throws IllegalArgumentException if holder is null
+     */
+    public boolean has(Metadatable holder) {
+        Validate.notNull(holder, "Holder cannot be null");
+        return holder.hasMetadata(name);
+    }
+
+    /**
+     * Removes the value of this key owned by a plugin.
+     *
+     * @param holder the object to remove the metadata from
+     * @param owningPlugin the plugin owning the value
+     * @throws IllegalArgumentException if holder or owningPlugin is null
+     */
+    public void remove(Metadatable holder, Plugin owningPlugin) {
+        Validate.notNull(holder, "Holder cannot be null");
+        holder.removeMetadata(name, owningPlugin);
+    }
+
+    private T convert(MetadataValue value) {
+        Object object = value.value();
+        if (object != null && !type.isInstance(object)) {
+            throw new MetadataConversionException("Metadata " + name + " is a " + object.getClass().getName() + ", not a " + type.getName());
+        }
+        return type.cast(object);
+    }
+
+    private MetadataValue wrap(Plugin owningPlugin, Object value) {
+        if (type == Integer.class) {
+            return new IntMetadataValue(owningPlugin, (Integer) value);
+        } else if (type == Long.class) {
+            return new LongMetadataValue(owningPlugin, (Long) value);
+        } else if (type == Double.class) {
+            return new DoubleMetadataValue(owningPlugin, (Double) value);
+        } else if (type == Boolean.class) {
+            return new BooleanMetadataValue(owningPlugin, (Boolean) value);
+        }
+        return new FixedMetadataValue(owningPlugin, value);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode() * 31 + type.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MetadataKey)) {
+            return false;
+        }
+        MetadataKey<?> other = (MetadataKey<?>) obj;
+        return name.equals(other.name) && type.equals(other.type);
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataKey{name=" + name + ", type=" + type.getName() + "}";
+    }
+}
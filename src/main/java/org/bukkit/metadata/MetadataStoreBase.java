@@ -1,12 +1,62 @@
 package org.bukkit.metadata;
 
 import org.apache.commons.lang.Validate;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.plugin.EventExecutor;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.MapMaker;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Base implementation of {@link MetadataStore}.
+ * <p>
+ * Values are stored per subject, keyed by the object returned from {@link
+ * #identify(Object)}, and then per metadata key. Implementations should
+ * override {@link #identify(Object)} with an identity that can be looked up
+ * without allocating, such as an entity's {@link java.util.UUID}.
+ * Implementations that only implement {@link #disambiguate(Object, String)}
+ * keep working, but build a new String for every access.
+ * <p>
+ * This class is safe to use from multiple threads. Reads never lock, and
+ * writes only lock against other writes to subjects that share a lock
+ * stripe.
+ * <p>
+ * The keys holding values of each plugin are indexed, so {@link
+ * #invalidateAll(Plugin)} and {@link #removeAll(Plugin)} only visit the
+ * entries of that plugin. The index refers to plugins weakly, by identity,
+ * so it does not keep a plugin loaded after it has been disabled.
+ *
+ * @param <T> the type of subject the metadata is attached to
+ */
 public abstract class MetadataStoreBase<T> {
-    private Map<String, Map<Plugin, MetadataValue>> metadataMap = new HashMap<String, Map<Plugin, MetadataValue>>();
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentMap<Object, ConcurrentMap<String, List<MetadataValue>>> metadataMap = new ConcurrentHashMap<Object, ConcurrentMap<String, List<MetadataValue>>>();
+    // Weak keys, so the index does not keep disabled plugins loaded
+    private final ConcurrentMap<Plugin, ConcurrentMap<Object, Set<String>>> pluginIndex = new MapMaker().weakKeys().makeMap();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private volatile boolean removeOnDisable = false;
+
+    public MetadataStoreBase() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
 
     /**
      * Adds a metadata value to an object. Each metadata value is owned by a
@@ -15,37 +65,63 @@ public abstract class MetadataStoreBase<T> {
      * newMetadataValue}. Multiple plugins can set independent values for the
      * same {@code metadataKey} without conflict.
      * <p>
-     * Implementation note: I considered using a {@link
-     * java.util.concurrent.locks.ReadWriteLock} for controlling access to
-     * {@code metadataMap}, but decided that the added overhead wasn't worth
-     * the finer grained access control.
-     * <p>
-     * Bukkit is almost entirely single threaded so locking overhead shouldn't
-     * pose a problem.
+     * Implementation note: the values for a key are kept in an immutable
+     * list that is replaced on every write, so readers never see a partially
+     * updated list and never need to copy it.
      *
      * @param subject The object receiving the metadata.
      * @param metadataKey A unique key to identify this metadata.
      * @param newMetadataValue The metadata value to apply.
      * @see MetadataStore#setMetadata(Object, String, MetadataValue)
-     * @throws IllegalArgumentException If value is null, or the owning plugin
-     *     is null
+     * @throws IllegalArgumentException If value is null, the owning plugin
+     *     is null, or the key is null
      */
-    public synchronized void setMetadata(T subject, String metadataKey, MetadataValue newMetadataValue) {
+    public void setMetadata(T subject, String metadataKey, MetadataValue newMetadataValue) {
         Validate.notNull(newMetadataValue, "Value cannot be null");
         Plugin owningPlugin = newMetadataValue.getOwningPlugin();
         Validate.notNull(owningPlugin, "Plugin cannot be null");
-        String key = disambiguate(subject, metadataKey);
-        Map<Plugin, MetadataValue> entry = metadataMap.get(key);
-        if (entry == null) {
-            entry = new WeakHashMap<Plugin, MetadataValue>(1);
-            metadataMap.put(key, entry);
+        Validate.notNull(metadataKey, "Key cannot be null");
+        Object id = identify(subject);
+
+        synchronized (lockFor(id)) {
+            ConcurrentMap<String, List<MetadataValue>> subjectMap = metadataMap.get(id);
+            if (subjectMap == null) {
+                subjectMap = new ConcurrentHashMap<String, List<MetadataValue>>(4, 0.75f, 1);
+                metadataMap.put(id, subjectMap);
+            }
+
+            List<MetadataValue> values = subjectMap.get(metadataKey);
+            List<MetadataValue> updated = new ArrayList<MetadataValue>(values == null ? 1 : values.size() + 1);
+            boolean replaced = false;
+            if (values != null) {
+                for (MetadataValue value : values) {
+                    Plugin plugin = value.getOwningPlugin();
+                    if (plugin == null) {
+                        // The owning plugin was unloaded and collected
+                        continue;
+                    }
+                    if (plugin.equals(owningPlugin)) {
+                        updated.add(newMetadataValue);
+                        replaced = true;
+                    } else {
+                        updated.add(value);
+                    }
+                }
+            }
+            if (!replaced) {
+                updated.add(newMetadataValue);
+            }
+            subjectMap.put(metadataKey, Collections.unmodifiableList(updated));
+            index(owningPlugin, id, metadataKey);
         }
-        entry.put(owningPlugin, newMetadataValue);
     }
 
     /**
      * Returns all metadata values attached to an object. If multiple
      * have attached metadata, each will value will be included.
+     * <p>
+     * The returned list is an immutable snapshot; it is not copied for each
+     * call and does not change when the store is modified.
      *
      * @param subject the object being interrogated.
      * @param metadataKey the unique metadata key being sought.
@@ -53,11 +129,10 @@ public abstract class MetadataStoreBase<T> {
      *     requested value.
      * @see MetadataStore#getMetadata(Object, String)
      */
-    public synchronized List<MetadataValue> getMetadata(T subject, String metadataKey) {
-        String key = disambiguate(subject, metadataKey);
-        if (metadataMap.containsKey(key)) {
-            Collection<MetadataValue> values = metadataMap.get(key).values();
-            return Collections.unmodifiableList(new ArrayList<MetadataValue>(values));
+    public List<MetadataValue> getMetadata(T subject, String metadataKey) {
+        List<MetadataValue> values = getValues(subject, metadataKey);
+        if (values != null) {
+            return values;
         } else {
             return Collections.emptyList();
         }
@@ -71,9 +146,8 @@ public abstract class MetadataStoreBase<T> {
      * @param metadataKey the unique metadata key being queried.
      * @return the existence of the metadataKey within subject.
      */
-    public synchronized boolean hasMetadata(T subject, String metadataKey) {
-        String key = disambiguate(subject, metadataKey);
-        return metadataMap.containsKey(key);
+    public boolean hasMetadata(T subject, String metadataKey) {
+        return getValues(subject, metadataKey) != null;
     }
 
     /**
@@ -87,17 +161,17 @@ public abstract class MetadataStoreBase<T> {
      *     org.bukkit.plugin.Plugin)
      * @throws IllegalArgumentException If plugin is null
      */
-    public synchronized void removeMetadata(T subject, String metadataKey, Plugin owningPlugin) {
+    public void removeMetadata(T subject, String metadataKey, Plugin owningPlugin) {
         Validate.notNull(owningPlugin, "Plugin cannot be null");
-        String key = disambiguate(subject, metadataKey);
-        Map<Plugin, MetadataValue> entry = metadataMap.get(key);
-        if (entry == null) {
+        if (metadataKey == null) {
             return;
         }
+        Object id = identify(subject);
 
-        entry.remove(owningPlugin);
-        if (entry.isEmpty()) {
-            metadataMap.remove(key);
+        synchronized (lockFor(id)) {
+            if (removeValue(id, metadataKey, owningPlugin)) {
+                unindex(owningPlugin, id, metadataKey);
+            }
         }
     }
 
@@ -110,15 +184,317 @@ public abstract class MetadataStoreBase<T> {
      * @see MetadataStore#invalidateAll(org.bukkit.plugin.Plugin)
      * @throws IllegalArgumentException If plugin is null
      */
-    public synchronized void invalidateAll(Plugin owningPlugin) {
+    public void invalidateAll(Plugin owningPlugin) {
+        Validate.notNull(owningPlugin, "Plugin cannot be null");
+        Map<Object, Set<String>> index = pluginIndex.get(owningPlugin);
+        if (index == null) {
+            return;
+        }
+
+        for (Map.Entry<Object, Set<String>> entry : index.entrySet()) {
+            Map<String, List<MetadataValue>> subjectMap = metadataMap.get(entry.getKey());
+            if (subjectMap == null) {
+                continue;
+            }
+            for (String metadataKey : entry.getValue()) {
+                List<MetadataValue> values = subjectMap.get(metadataKey);
+                if (values == null) {
+                    continue;
+                }
+                for (MetadataValue value : values) {
+                    if (owningPlugin.equals(value.getOwningPlugin())) {
+                        value.invalidate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all metadata in the metadata store that originates from the
+     * given plugin.
+     *
+     * @param owningPlugin the plugin owning the metadata to remove.
+     * @throws IllegalArgumentException If plugin is null
+     */
+    public void removeAll(Plugin owningPlugin) {
+        Validate.notNull(owningPlugin, "Plugin cannot be null");
+        Map<Object, Set<String>> index = pluginIndex.remove(owningPlugin);
+        if (index == null) {
+            return;
+        }
+
+        for (Map.Entry<Object, Set<String>> entry : index.entrySet()) {
+            Object id = entry.getKey();
+            synchronized (lockFor(id)) {
+                for (String metadataKey : entry.getValue()) {
+                    // The value may have been set again since the index was detached
+                    if (removeValue(id, metadataKey, owningPlugin)) {
+                        unindex(owningPlugin, id, metadataKey);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets if the metadata of a plugin is removed when it is disabled,
+     * instead of being kept until the plugin removes it. This only has an
+     * effect if this store was {@link #registerEviction(Plugin) registered
+     * for eviction}.
+     *
+     * @param removeOnDisable true to remove the metadata of disabled plugins
+     */
+    public void setRemoveOnDisable(boolean removeOnDisable) {
+        this.removeOnDisable = removeOnDisable;
+    }
+
+    /**
+     * Gets if the metadata of a plugin is removed when it is disabled.
+     *
+     * @return true if the metadata of disabled plugins is removed
+     * @see #setRemoveOnDisable(boolean)
+     */
+    public boolean isRemoveOnDisable() {
+        return removeOnDisable;
+    }
+
+    /**
+     * Removes all metadata attached to a subject, regardless of the owning
+     * plugin.
+     *
+     * @param subject the object to remove the metadata from.
+     */
+    public void removeAll(T subject) {
+        removeSubject(identify(subject));
+    }
+
+    /**
+     * Removes all metadata attached to every subject matching the given
+     * filter, regardless of the owning plugin.
+     * <p>
+     * The filter is tested against the identities produced by {@link
+     * #identify(Object)}, not against the subjects themselves, as the store
+     * does not keep references to its subjects.
+     *
+     * @param filter the filter selecting the subject identities to remove.
+     * @return the number of subjects that had metadata removed.
+     * @throws IllegalArgumentException If filter is null
+     */
+    public int removeAll(Predicate<Object> filter) {
+        Validate.notNull(filter, "Filter cannot be null");
+        int removed = 0;
+        for (Object id : metadataMap.keySet()) {
+            if (filter.apply(id) && removeSubject(id)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the number of subjects that have metadata in this store.
+     *
+     * @return the number of subjects.
+     */
+    public int size() {
+        return metadataMap.size();
+    }
+
+    /**
+     * Gets the number of metadata values in this store owned by the given
+     * plugin.
+     *
+     * @param owningPlugin the plugin owning the values.
+     * @return the number of values owned by the plugin.
+     * @throws IllegalArgumentException If plugin is null
+     */
+    public int size(Plugin owningPlugin) {
         Validate.notNull(owningPlugin, "Plugin cannot be null");
-        for (Map<Plugin, MetadataValue> values : metadataMap.values()) {
-            if (values.containsKey(owningPlugin)) {
-                values.get(owningPlugin).invalidate();
+        Map<Object, Set<String>> index = pluginIndex.get(owningPlugin);
+        if (index == null) {
+            return 0;
+        }
+
+        int size = 0;
+        for (Set<String> metadataKeys : index.values()) {
+            size += metadataKeys.size();
+        }
+        return size;
+    }
+
+    /**
+     * Registers this store for the events that end the lifetime of its
+     * subjects, so metadata is evicted without plugins cleaning up by hand.
+     * <p>
+     * Unloaded chunks are passed to {@link #onChunkUnload(Chunk)}. Dead
+     * entities other than players, and despawned items, are passed to {@link
+     * #onEntityRemove(Entity)}. Both are called at {@link
+     * EventPriority#MONITOR} priority, and only if the event was not
+     * cancelled. If {@link #setRemoveOnDisable(boolean) enabled}, the
+     * metadata of disabled plugins is removed as well.
+     * <p>
+     * This should be called once, by the implementation owning the store.
+     *
+     * @param plugin the plugin to register the listener for.
+     * @throws IllegalArgumentException If plugin is null
+     */
+    public void registerEviction(Plugin plugin) {
+        Validate.notNull(plugin, "Plugin cannot be null");
+        PluginManager pluginManager = plugin.getServer().getPluginManager();
+        EvictionListener listener = new EvictionListener();
+        pluginManager.registerEvent(ChunkUnloadEvent.class, listener, EventPriority.MONITOR, listener, plugin, true);
+        pluginManager.registerEvent(EntityDeathEvent.class, listener, EventPriority.MONITOR, listener, plugin, false);
+        pluginManager.registerEvent(ItemDespawnEvent.class, listener, EventPriority.MONITOR, listener, plugin, true);
+        pluginManager.registerEvent(PluginDisableEvent.class, listener, EventPriority.MONITOR, listener, plugin, false);
+    }
+
+    /**
+     * Called when a chunk is unloaded, if this store was {@link
+     * #registerEviction(Plugin) registered for eviction}.
+     * <p>
+     * The default implementation does nothing. Stores for subjects that live
+     * in a chunk, such as blocks, should remove the metadata of all subjects
+     * in the chunk, for example with {@link #removeAll(Predicate)}.
+     *
+     * @param chunk the chunk being unloaded.
+     */
+    protected void onChunkUnload(Chunk chunk) {
+    }
+
+    /**
+     * Called when an entity is removed from the world for good, if this
+     * store was {@link #registerEviction(Plugin) registered for eviction}.
+     * <p>
+     * The default implementation does nothing. Stores for entities should
+     * call {@link #removeAll(Object)} for the entity.
+     *
+     * @param entity the entity being removed.
+     */
+    protected void onEntityRemove(Entity entity) {
+    }
+
+    private boolean removeSubject(Object id) {
+        synchronized (lockFor(id)) {
+            Map<String, List<MetadataValue>> subjectMap = metadataMap.remove(id);
+            if (subjectMap == null) {
+                return false;
+            }
+            for (Map.Entry<String, List<MetadataValue>> entry : subjectMap.entrySet()) {
+                for (MetadataValue value : entry.getValue()) {
+                    Plugin plugin = value.getOwningPlugin();
+                    if (plugin != null) {
+                        unindex(plugin, id, entry.getKey());
+                    }
+                }
             }
+            return true;
         }
     }
 
+    // Must hold the lock for id
+    private boolean removeValue(Object id, String metadataKey, Plugin owningPlugin) {
+        ConcurrentMap<String, List<MetadataValue>> subjectMap = metadataMap.get(id);
+        if (subjectMap == null) {
+            return false;
+        }
+        List<MetadataValue> values = subjectMap.get(metadataKey);
+        if (values == null) {
+            return false;
+        }
+
+        List<MetadataValue> updated = new ArrayList<MetadataValue>(values.size());
+        for (MetadataValue value : values) {
+            Plugin plugin = value.getOwningPlugin();
+            if (plugin != null && !plugin.equals(owningPlugin)) {
+                updated.add(value);
+            }
+        }
+
+        if (updated.size() == values.size()) {
+            return false;
+        } else if (!updated.isEmpty()) {
+            subjectMap.put(metadataKey, Collections.unmodifiableList(updated));
+        } else {
+            subjectMap.remove(metadataKey);
+            if (subjectMap.isEmpty()) {
+                metadataMap.remove(id);
+            }
+        }
+        return true;
+    }
+
+    // Must hold the lock for id
+    private void index(Plugin owningPlugin, Object id, String metadataKey) {
+        ConcurrentMap<Object, Set<String>> index = pluginIndex.get(owningPlugin);
+        if (index == null) {
+            index = new ConcurrentHashMap<Object, Set<String>>();
+            ConcurrentMap<Object, Set<String>> existing = pluginIndex.putIfAbsent(owningPlugin, index);
+            if (existing != null) {
+                index = existing;
+            }
+        }
+
+        Set<String> metadataKeys = index.get(id);
+        if (metadataKeys == null) {
+            metadataKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(4, 0.75f, 1));
+            index.put(id, metadataKeys);
+        }
+        metadataKeys.add(metadataKey);
+    }
+
+    // Must hold the lock for id
+    private void unindex(Plugin owningPlugin, Object id, String metadataKey) {
+        Map<Object, Set<String>> index = pluginIndex.get(owningPlugin);
+        if (index == null) {
+            return;
+        }
+
+        Set<String> metadataKeys = index.get(id);
+        if (metadataKeys != null) {
+            metadataKeys.remove(metadataKey);
+            if (metadataKeys.isEmpty()) {
+                index.remove(id);
+            }
+        }
+    }
+
+    private List<MetadataValue> getValues(T subject, String metadataKey) {
+        if (metadataKey == null) {
+            return null;
+        }
+        Map<String, List<MetadataValue>> subjectMap = metadataMap.get(identify(subject));
+        return subjectMap == null ? null : subjectMap.get(metadataKey);
+    }
+
+    private Object lockFor(Object id) {
+        int hash = id.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return locks[hash & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Creates an object identifying the subject receiving metadata.
+     * <p>
+     * The identity must properly implement {@link Object#equals(Object)} and
+     * {@link Object#hashCode()}, and any two equivalent subjects must produce
+     * equal identities. For example, two Player objects must produce equal
+     * identities if they represent the same player, even if the objects would
+     * fail a reference equality test.
+     * <p>
+     * The default implementation uses {@link #disambiguate(Object, String)}
+     * with an empty metadata key, which allocates a new String on every
+     * call. Implementations should override this method with an identity
+     * that is already available, such as a {@link java.util.UUID}.
+     *
+     * @param subject The object for which the identity is being generated.
+     * @return an identity for the given subject.
+     */
+    protected Object identify(T subject) {
+        return disambiguate(subject, "");
+    }
+
     /**
      * Creates a unique name for the object receiving metadata by combining
      * unique data from the subject with a metadataKey.
@@ -127,10 +503,34 @@ public abstract class MetadataStoreBase<T> {
      * two equivalent objects must generate the same unique name. For example,
      * two Player objects must generate the same string if they represent the
      * same player, even if the objects would fail a reference equality test.
+     * <p>
+     * This is only used by the default implementation of {@link
+     * #identify(Object)}, so implementations which override that may
+     * implement this by combining the identity with the key.
      *
      * @param subject The object for which this key is being generated.
      * @param metadataKey The name identifying the metadata value.
      * @return a unique metadata key for the given subject.
      */
     protected abstract String disambiguate(T subject, String metadataKey);
+
+    private final class EvictionListener implements Listener, EventExecutor {
+        public void execute(Listener listener, Event event) {
+            if (event instanceof PluginDisableEvent) {
+                if (removeOnDisable) {
+                    removeAll(((PluginDisableEvent) event).getPlugin());
+                }
+            } else if (event instanceof ChunkUnloadEvent) {
+                onChunkUnload(((ChunkUnloadEvent) event).getChunk());
+            } else if (event instanceof ItemDespawnEvent) {
+                onEntityRemove(((ItemDespawnEvent) event).getEntity());
+            } else if (event instanceof EntityDeathEvent) {
+                // Players keep their entity after respawning
+                Entity entity = ((EntityDeathEvent) event).getEntity();
+                if (!(entity instanceof Player)) {
+                    onEntityRemove(entity);
+                }
+            }
+        }
+    }
 }
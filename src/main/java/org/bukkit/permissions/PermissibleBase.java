@@ -9,15 +9,42 @@ import java.util.Set;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.SimplePluginManager;
+import org.bukkit.util.CaseInsensitiveMap;
 
 /**
  * Base Permissible for use in any Permissible object via proxy or extension
+ * <p>
+ * Changes to the attachments created by this object are applied
+ * incrementally: only the changed node and its children are re-evaluated.
+ * {@link #recalculatePermissions()} still rebuilds everything, and is called
+ * when the default permissions or the children of a permission change.
+ * <p>
+ * Permissions set to a wildcard by an attachment, such as
+ * <code>plugin.*</code> or <code>*</code>, also apply to every permission
+ * below it that is neither registered nor set itself by an attachment. The
+ * most specific wildcard wins. Registered permissions, and wildcards given
+ * by the default permissions, only apply through their registered children.
+ * <p>
+ * Changes are made under the lock of this object, and each finished change
+ * publishes an immutable snapshot of the effective permissions. Permission
+ * checks read the latest snapshot without locking, so they are safe from
+ * any thread and never see a half applied change. Use {@link
+ * PermissionAttachment#setPermissions(Map)} to publish many changes once.
  */
 public class PermissibleBase implements Permissible {
     private ServerOperator opable = null;
     private Permissible parent = this;
     private final List<PermissionAttachment> attachments = new LinkedList<PermissionAttachment>();
-    private final Map<String, PermissionAttachmentInfo> permissions = new HashMap<String, PermissionAttachmentInfo>();
+    private final CaseInsensitiveMap<PermissionAttachmentInfo> permissions = new CaseInsensitiveMap<PermissionAttachmentInfo>();
+    private final PermissionTrie<PermissionAttachmentInfo> wildcards = new PermissionTrie<PermissionAttachmentInfo>();
+    private boolean permissionsChanged = false;
+    private boolean wildcardsChanged = false;
+    private volatile Snapshot snapshot = new Snapshot(new CaseInsensitiveMap<PermissionAttachmentInfo>(), new PermissionTrie<PermissionAttachmentInfo>());
+    private final Map<String, Grant> grants = new HashMap<String, Grant>();
+    private final Map<PermissionAttachment, AttachmentState> attachmentStates = new HashMap<PermissionAttachment, AttachmentState>();
+    private int nextAttachmentOrder = 1;
 
     public PermissibleBase(ServerOperator opable) {
         this.opable = opable;
@@ -50,7 +77,7 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        return permissions.containsKey(name.toLowerCase());
+        return snapshot.get(name) != null;
     }
 
     public boolean isPermissionSet(Permission perm) {
@@ -58,7 +85,7 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission cannot be null");
         }
 
-        return isPermissionSet(perm.getName());
+        return snapshot.getLowerCase(perm.getLowerCaseName()) != null;
     }
 
     public boolean hasPermission(String inName) {
@@ -66,12 +93,12 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        String name = inName.toLowerCase();
+        PermissionAttachmentInfo info = snapshot.get(inName);
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        if (info != null) {
+            return info.getValue();
         } else {
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
+            Permission perm = Bukkit.getServer().getPluginManager().getPermission(inName);
 
             if (perm != null) {
                 return perm.getDefault().getValue(isOp());
@@ -86,10 +113,10 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission cannot be null");
         }
 
-        String name = perm.getName().toLowerCase();
+        PermissionAttachmentInfo info = snapshot.getLowerCase(perm.getLowerCaseName());
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        if (info != null) {
+            return info.getValue();
         }
         return perm.getDefault().getValue(isOp());
     }
@@ -106,12 +133,10 @@ public class PermissibleBase implements Permissible {
         PermissionAttachment result = addAttachment(plugin);
         result.setPermission(name, value);
 
-        recalculatePermissions();
-
         return result;
     }
 
-    public PermissionAttachment addAttachment(Plugin plugin) {
+    public synchronized PermissionAttachment addAttachment(Plugin plugin) {
         if (plugin == null) {
             throw new IllegalArgumentException("Plugin cannot be null");
         } else if (!plugin.isEnabled()) {
@@ -119,14 +144,15 @@ public class PermissibleBase implements Permissible {
         }
 
         PermissionAttachment result = new PermissionAttachment(plugin, parent);
+        result.setPermissibleBase(this);
 
         attachments.add(result);
-        recalculatePermissions();
+        attachmentStates.put(result, new AttachmentState(nextAttachmentOrder++));
 
         return result;
     }
 
-    public void removeAttachment(PermissionAttachment attachment) {
+    public synchronized void removeAttachment(PermissionAttachment attachment) {
         if (attachment == null) {
             throw new IllegalArgumentException("Attachment cannot be null");
         }
@@ -139,30 +165,49 @@ public class PermissibleBase implements Permissible {
                 ex.attachmentRemoved(attachment);
             }
 
-            recalculatePermissions();
+            AttachmentState state = attachmentStates.remove(attachment);
+            if (state != null) {
+                for (EntryState entry : state.entries.values()) {
+                    revoke(state.order(entry), entry);
+                }
+            }
+            attachment.setPermissibleBase(null);
+            publish();
         } else {
             throw new IllegalArgumentException("Given attachment is not part of Permissible object " + parent);
         }
     }
 
-    public void recalculatePermissions() {
-        clearPermissions();
-        Set<Permission> defaults = Bukkit.getServer().getPluginManager().getDefaultPermissions(isOp());
-        Bukkit.getServer().getPluginManager().subscribeToDefaultPerms(isOp(), parent);
+    public synchronized void recalculatePermissions() {
+        clear();
+        PluginManager pluginManager = Bukkit.getServer().getPluginManager();
+        Set<Permission> defaults = pluginManager.getDefaultPermissions(isOp());
+        pluginManager.subscribeToDefaultPerms(isOp(), parent);
 
+        int index = 0;
         for (Permission perm : defaults) {
-            String name = perm.getName().toLowerCase();
-            permissions.put(name, new PermissionAttachmentInfo(parent, name, null, true));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
-            calculateChildPermissions(perm.getChildren(), false, null);
+            grant(order(0, index++), perm.getLowerCaseName(), true, null);
         }
 
         for (PermissionAttachment attachment : attachments) {
-            calculateChildPermissions(attachment.getPermissions(), false, attachment);
+            AttachmentState state = attachmentStates.get(attachment);
+            if (state == null) {
+                continue;
+            }
+            for (Map.Entry<String, Boolean> entry : attachment.getPermissions().entrySet()) {
+                EntryState added = state.add(entry.getKey(), entry.getValue());
+                added.granted = grant(state.order(added), entry.getKey(), entry.getValue(), attachment);
+            }
         }
+        publish();
     }
 
     public synchronized void clearPermissions() {
+        clear();
+        publish();
+    }
+
+    private void clear() {
         Set<String> perms = permissions.keySet();
 
         for (String name : perms) {
@@ -172,24 +217,182 @@ public class PermissibleBase implements Permissible {
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(false, parent);
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(true, parent);
 
+        permissionsChanged |= !permissions.isEmpty();
+        wildcardsChanged |= !wildcards.isEmpty();
         permissions.clear();
+        wildcards.clear();
+        grants.clear();
+        for (AttachmentState state : attachmentStates.values()) {
+            state.entries.clear();
+        }
+    }
+
+    /**
+     * Called by an attachment of this object when one of its permissions
+     * was set.
+     */
+    synchronized void attachmentPermissionSet(PermissionAttachment attachment, String name, boolean value) {
+        set(attachment, name, value);
+        publish();
+    }
+
+    private void set(PermissionAttachment attachment, String name, boolean value) {
+        AttachmentState state = attachmentStates.get(attachment);
+        if (state == null) {
+            return;
+        }
+
+        EntryState entry = state.entries.get(name);
+        if (entry != null) {
+            if (entry.value == value) {
+                return;
+            }
+            revoke(state.order(entry), entry);
+            entry.value = value;
+        } else {
+            entry = state.add(name, value);
+        }
+        entry.granted = grant(state.order(entry), name, value, attachment);
+    }
+
+    /**
+     * Called by an attachment of this object when several of its permissions
+     * were set at once.
+     */
+    synchronized void attachmentPermissionsSet(PermissionAttachment attachment, Map<String, Boolean> changes) {
+        for (Map.Entry<String, Boolean> entry : changes.entrySet()) {
+            set(attachment, entry.getKey(), entry.getValue());
+        }
+        publish();
     }
 
-    private void calculateChildPermissions(Map<String, Boolean> children, boolean invert, PermissionAttachment attachment) {
-        Set<String> keys = children.keySet();
+    /**
+     * Called by an attachment of this object when one of its permissions
+     * was unset.
+     */
+    synchronized void attachmentPermissionUnset(PermissionAttachment attachment, String name) {
+        AttachmentState state = attachmentStates.get(attachment);
+        if (state == null) {
+            return;
+        }
 
-        for (String name : keys) {
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
-            boolean value = children.get(name) ^ invert;
-            String lname = name.toLowerCase();
+        EntryState entry = state.entries.remove(name);
+        if (entry != null) {
+            revoke(state.order(entry), entry);
+            publish();
+        }
+    }
 
-            permissions.put(lname, new PermissionAttachmentInfo(parent, lname, attachment, value));
+    /**
+     * Grants a node and all of its children to this object.
+     *
+     * @return the granted nodes
+     */
+    private PermissionClosure grant(long order, String name, boolean value, PermissionAttachment attachment) {
+        PermissionClosure closure = getClosure(name);
+        for (int i = 0; i < closure.size(); i++) {
+            addGrant(closure.getName(i), new Grant(order, closure.getValue(i, value), attachment));
+        }
+        return closure;
+    }
+
+    private void revoke(long order, EntryState entry) {
+        PermissionClosure closure = entry.granted;
+        for (int i = 0; i < closure.size(); i++) {
+            removeGrant(closure.getName(i), order);
+        }
+    }
+
+    private PermissionClosure getClosure(String name) {
+        PluginManager pluginManager = Bukkit.getServer().getPluginManager();
+        if (pluginManager instanceof SimplePluginManager) {
+            return ((SimplePluginManager) pluginManager).getPermissionClosure(name);
+        }
+        return PermissionClosure.compile(name, pluginManager);
+    }
+
+    private void addGrant(String name, Grant grant) {
+        Grant head = grants.get(name);
+        if (head == null) {
+            grants.put(name, grant);
             Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
+        } else if (grant.order > head.order) {
+            grant.next = head;
+            grants.put(name, grant);
+        } else {
+            Grant previous = head;
+            while (previous.next != null && previous.next.order > grant.order) {
+                previous = previous.next;
+            }
+            grant.next = previous.next;
+            previous.next = grant;
+            return;
+        }
+        setEffective(name, grant);
+    }
 
-            if (perm != null) {
-                calculateChildPermissions(perm.getChildren(), !value, attachment);
+    private void removeGrant(String name, long order) {
+        Grant head = grants.get(name);
+        if (head == null) {
+            return;
+        }
+
+        if (head.order == order) {
+            if (head.next == null) {
+                grants.remove(name);
+                permissions.remove(name);
+                permissionsChanged = true;
+                if (PermissionTrie.isWildcard(name)) {
+                    wildcards.remove(name);
+                    wildcardsChanged = true;
+                }
+                Bukkit.getServer().getPluginManager().unsubscribeFromPermission(name, parent);
+            } else {
+                grants.put(name, head.next);
+                setEffective(name, head.next);
             }
+            return;
         }
+
+        for (Grant previous = head; previous.next != null; previous = previous.next) {
+            if (previous.next.order == order) {
+                previous.next = previous.next.next;
+                return;
+            }
+        }
+    }
+
+    private void setEffective(String name, Grant grant) {
+        PermissionAttachmentInfo info = new PermissionAttachmentInfo(parent, name, grant.attachment, grant.value);
+        permissions.put(name, info);
+        permissionsChanged = true;
+        if (PermissionTrie.isWildcard(name)) {
+            if (grant.attachment != null) {
+                wildcards.put(name, info);
+                wildcardsChanged = true;
+            } else if (wildcards.remove(name) != null) {
+                wildcardsChanged = true;
+            }
+        }
+    }
+
+    /**
+     * Publishes the changed permissions to the readers.
+     */
+    private void publish() {
+        if (!permissionsChanged) {
+            return;
+        }
+
+        Snapshot previous = snapshot;
+        PermissionTrie<PermissionAttachmentInfo> publishedWildcards = wildcardsChanged ? new PermissionTrie<PermissionAttachmentInfo>(wildcards) : previous.wildcards;
+        snapshot = new Snapshot(new CaseInsensitiveMap<PermissionAttachmentInfo>(permissions), publishedWildcards);
+        permissionsChanged = false;
+        wildcardsChanged = false;
+    }
+
+    private static long order(int attachmentOrder, int entryOrder) {
+        return ((long) attachmentOrder << 32) | entryOrder;
     }
 
     public PermissionAttachment addAttachment(Plugin plugin, String name, boolean value, int ticks) {
@@ -229,7 +432,96 @@ public class PermissibleBase implements Permissible {
     }
 
     public Set<PermissionAttachmentInfo> getEffectivePermissions() {
-        return new HashSet<PermissionAttachmentInfo>(permissions.values());
+        return new HashSet<PermissionAttachmentInfo>(snapshot.permissions.values());
+    }
+
+    /**
+     * The effective permissions at one point in time. Never modified once
+     * published.
+     */
+    private static final class Snapshot {
+        private final CaseInsensitiveMap<PermissionAttachmentInfo> permissions;
+        private final PermissionTrie<PermissionAttachmentInfo> wildcards;
+
+        Snapshot(CaseInsensitiveMap<PermissionAttachmentInfo> permissions, PermissionTrie<PermissionAttachmentInfo> wildcards) {
+            this.permissions = permissions;
+            this.wildcards = wildcards;
+        }
+
+        PermissionAttachmentInfo get(String name) {
+            return matchWildcard(name, permissions.get(name));
+        }
+
+        PermissionAttachmentInfo getLowerCase(String lowerCaseName) {
+            return matchWildcard(lowerCaseName, permissions.getLowerCase(lowerCaseName));
+        }
+
+        /**
+         * Looks for a wildcard overriding the effective permission of a
+         * node. Only wildcards set by an attachment match, never a
+         * registered permission, and a node that is only set because of the
+         * default permissions can be overridden by them.
+         */
+        private PermissionAttachmentInfo matchWildcard(String name, PermissionAttachmentInfo info) {
+            if (wildcards.isEmpty() || (info != null && info.getAttachment() != null)) {
+                return info;
+            }
+
+            PermissionAttachmentInfo wildcard = wildcards.get(name);
+            if (wildcard != null && wildcard.getAttachment() != null && Bukkit.getServer().getPluginManager().getPermission(name) == null) {
+                return wildcard;
+            }
+            return info;
+        }
+    }
+
+    /**
+     * A value given to a node by one attachment entry or default permission.
+     * Grants for the same node are linked from the last applied to the
+     * first, so the head holds the effective value.
+     */
+    private static final class Grant {
+        private final long order;
+        private final boolean value;
+        private final PermissionAttachment attachment;
+        private Grant next;
+
+        Grant(long order, boolean value, PermissionAttachment attachment) {
+            this.order = order;
+            this.value = value;
+            this.attachment = attachment;
+        }
+    }
+
+    private static final class AttachmentState {
+        private final int order;
+        private final Map<String, EntryState> entries = new HashMap<String, EntryState>();
+        private int nextEntryOrder = 0;
+
+        AttachmentState(int order) {
+            this.order = order;
+        }
+
+        EntryState add(String name, boolean value) {
+            EntryState entry = new EntryState(nextEntryOrder++, value);
+            entries.put(name, entry);
+            return entry;
+        }
+
+        long order(EntryState entry) {
+            return PermissibleBase.order(order, entry.order);
+        }
+    }
+
+    private static final class EntryState {
+        private final int order;
+        private boolean value;
+        private PermissionClosure granted;
+
+        EntryState(int order, boolean value) {
+            this.order = order;
+            this.value = value;
+        }
     }
 
     private class RemoveAttachmentRunnable implements Runnable {
@@ -3,6 +3,7 @@ package org.bukkit.permissions;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -19,6 +20,7 @@ public class Permission {
     public static final PermissionDefault DEFAULT_PERMISSION = PermissionDefault.OP;
 
     private final String name;
+    private final String lowerCaseName;
     private final Map<String, Boolean> children = new LinkedHashMap<String, Boolean>();
     private PermissionDefault defaultValue = DEFAULT_PERMISSION;
     private String description;
@@ -53,6 +55,7 @@ public class Permission {
 
     public Permission(String name, String description, PermissionDefault defaultValue, Map<String, Boolean> children) {
         this.name = name;
+        this.lowerCaseName = name.toLowerCase(Locale.ENGLISH);
         this.description = (description == null) ? "" : description;
 
         if (defaultValue != null) {
@@ -75,6 +78,16 @@ public class Permission {
         return name;
     }
 
+    /**
+     * Returns the name of this Permission in lower case, as permissions are
+     * stored and looked up by it
+     *
+     * @return Lower case name
+     */
+    String getLowerCaseName() {
+        return lowerCaseName;
+    }
+
     /**
      * Gets the children of this permission.
      * <p>
@@ -1,7 +1,10 @@
 package org.bukkit.permissions;
 
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+
+import org.apache.commons.lang.Validate;
 import org.bukkit.plugin.Plugin;
 
 /**
@@ -13,6 +16,7 @@ public class PermissionAttachment {
     private final Map<String, Boolean> permissions = new LinkedHashMap<String, Boolean>();
     private final Permissible permissible;
     private final Plugin plugin;
+    private PermissibleBase permissibleBase;
 
     public PermissionAttachment(Plugin plugin, Permissible Permissible) {
         if (plugin == null) {
@@ -83,8 +87,14 @@ public class PermissionAttachment {
      * @param value New value of the permission
      */
     public void setPermission(String name, boolean value) {
-        permissions.put(name.toLowerCase(), value);
-        permissible.recalculatePermissions();
+        String lname = name.toLowerCase(Locale.ENGLISH);
+        permissions.put(lname, value);
+
+        if (permissibleBase != null) {
+            permissibleBase.attachmentPermissionSet(this, lname, value);
+        } else {
+            permissible.recalculatePermissions();
+        }
     }
 
     /**
@@ -97,6 +107,30 @@ public class PermissionAttachment {
         setPermission(perm.getName(), value);
     }
 
+    /**
+     * Sets several permissions to the given values, by their fully qualified
+     * names. This recalculates the permissions of the {@link Permissible}
+     * once for all changes, instead of once per permission.
+     *
+     * @param permissions Names and new values of the permissions
+     */
+    public void setPermissions(Map<String, Boolean> permissions) {
+        Validate.notNull(permissions, "Permissions cannot be null");
+        Map<String, Boolean> changes = new LinkedHashMap<String, Boolean>(permissions.size());
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            Validate.notNull(entry.getKey(), "Permission name cannot be null");
+            Validate.notNull(entry.getValue(), "Permission value cannot be null");
+            changes.put(entry.getKey().toLowerCase(Locale.ENGLISH), entry.getValue());
+        }
+        this.permissions.putAll(changes);
+
+        if (permissibleBase != null) {
+            permissibleBase.attachmentPermissionsSet(this, changes);
+        } else {
+            permissible.recalculatePermissions();
+        }
+    }
+
     /**
      * Removes the specified permission from this attachment.
      * <p>
@@ -106,8 +140,14 @@ public class PermissionAttachment {
      * @param name Name of the permission to remove
      */
     public void unsetPermission(String name) {
-        permissions.remove(name.toLowerCase());
-        permissible.recalculatePermissions();
+        String lname = name.toLowerCase(Locale.ENGLISH);
+        permissions.remove(lname);
+
+        if (permissibleBase != null) {
+            permissibleBase.attachmentPermissionUnset(this, lname);
+        } else {
+            permissible.recalculatePermissions();
+        }
     }
 
     /**
@@ -122,6 +162,15 @@ public class PermissionAttachment {
         unsetPermission(perm.getName());
     }
 
+    /**
+     * Sets the {@link PermissibleBase} that created this attachment, which
+     * is updated incrementally instead of recalculating all permissions of
+     * the {@link Permissible} on every change.
+     */
+    void setPermissibleBase(PermissibleBase permissibleBase) {
+        this.permissibleBase = permissibleBase;
+    }
+
     /**
      * Removes this attachment from its registered {@link Permissible}
      *
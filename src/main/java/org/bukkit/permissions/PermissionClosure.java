@@ -0,0 +1,98 @@
+package org.bukkit.permissions;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.PluginManager;
+
+/**
+ * An immutable, flattened view of a permission node and all of its
+ * children, resolved as if the node was set to true.
+ * <p>
+ * If a node is reached more than once, the value of the last path wins, the
+ * same as when the children are applied one by one. The value of each node
+ * when the root is set to false is the inverse of its value here.
+ */
+public final class PermissionClosure {
+    private final String[] names;
+    private final boolean[] values;
+
+    private PermissionClosure(String[] names, boolean[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * Resolves the closure of a permission node against the permissions
+     * registered with a plugin manager.
+     *
+     * @param name Name of the root node
+     * @param pluginManager Plugin manager to look up the children in
+     * @return The closure of the node
+     */
+    public static PermissionClosure compile(String name, PluginManager pluginManager) {
+        Validate.notNull(name, "Name cannot be null");
+        Validate.notNull(pluginManager, "Plugin manager cannot be null");
+
+        Map<String, Boolean> result = new LinkedHashMap<String, Boolean>();
+        expand(pluginManager, name.toLowerCase(Locale.ENGLISH), true, result, new HashSet<String>());
+
+        String[] names = new String[result.size()];
+        boolean[] values = new boolean[result.size()];
+        int i = 0;
+        for (Map.Entry<String, Boolean> entry : result.entrySet()) {
+            names[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        return new PermissionClosure(names, values);
+    }
+
+    private static void expand(PluginManager pluginManager, String name, boolean value, Map<String, Boolean> result, Set<String> path) {
+        result.put(name, value);
+
+        Permission perm = pluginManager.getPermission(name);
+        // Stop at cycles, the node itself is already set
+        if (perm == null || !path.add(name)) {
+            return;
+        }
+        for (Map.Entry<String, Boolean> child : perm.getChildren().entrySet()) {
+            expand(pluginManager, child.getKey().toLowerCase(Locale.ENGLISH), child.getValue() ^ !value, result, path);
+        }
+        path.remove(name);
+    }
+
+    /**
+     * Gets the number of nodes in this closure, including the root.
+     *
+     * @return Number of nodes
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Gets the lowercase name of a node. The root node is at index 0.
+     *
+     * @param index Index of the node
+     * @return Name of the node
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Gets the value of a node when the root is set to the given value.
+     *
+     * @param index Index of the node
+     * @param rootValue Value of the root node
+     * @return Value of the node
+     */
+    public boolean getValue(int index, boolean rootValue) {
+        return values[index] == rootValue;
+    }
+}
@@ -0,0 +1,347 @@
+package org.bukkit.permissions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A case-insensitive trie of permission nodes.
+ * <p>
+ * Nodes are either exact names, such as <code>plugin.command.help</code>, or
+ * wildcards: <code>*</code>, or a name ending in <code>.*</code> such as
+ * <code>plugin.command.*</code>. A wildcard matches every name that starts
+ * with the wildcard without its <code>*</code>, and is longer than that.
+ * <p>
+ * {@link #get(String)} finds the most specific node matching a name by
+ * walking the name once, without creating any objects for ASCII names. This
+ * class is not thread-safe.
+ *
+ * @param <V> the type of values stored with each node
+ */
+public final class PermissionTrie<V> {
+    private final Node root;
+    private int size = 0;
+
+    /**
+     * Creates an empty trie.
+     */
+    public PermissionTrie() {
+        root = new Node();
+    }
+
+    /**
+     * Creates a trie containing the same nodes as the given trie.
+     *
+     * @param trie Trie to copy
+     */
+    public PermissionTrie(PermissionTrie<? extends V> trie) {
+        Validate.notNull(trie, "Trie cannot be null");
+        root = trie.root.copy();
+        size = trie.size;
+    }
+
+    /**
+     * Checks if a permission name is a wildcard.
+     *
+     * @param name Name to check
+     * @return true if the name is <code>*</code> or ends with <code>.*</code>
+     */
+    public static boolean isWildcard(String name) {
+        int length = name.length();
+        return length > 0 && name.charAt(length - 1) == '*' && (length == 1 || name.charAt(length - 2) == '.');
+    }
+
+    /**
+     * Lower cases a name containing non-ASCII characters the same way as
+     * {@link org.bukkit.util.CaseInsensitiveMap}. ASCII names are returned
+     * as they are and folded one character at a time by {@link #fold(char)}.
+     */
+    private static String foldNonAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return name.toLowerCase(Locale.ENGLISH);
+            }
+        }
+        return name;
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Gets the number of nodes in this trie.
+     *
+     * @return Number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this trie has no nodes.
+     *
+     * @return true if this trie is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds or replaces a node.
+     *
+     * @param name Exact name or wildcard of the node
+     * @param value Value to store with the node
+     * @return The previous value of the node, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(String name, V value) {
+        Validate.notNull(name, "Name cannot be null");
+        name = foldNonAscii(name);
+        Validate.notNull(value, "Value cannot be null");
+
+        boolean wildcard = isWildcard(name);
+        int length = wildcard ? name.length() - 1 : name.length();
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            node = node.getOrCreateChild(fold(name.charAt(i)));
+        }
+
+        Object previous;
+        if (wildcard) {
+            previous = node.wildcard;
+            node.wildcard = value;
+        } else {
+            previous = node.value;
+            node.value = value;
+        }
+        if (previous == null) {
+            size++;
+        }
+        return (V) previous;
+    }
+
+    /**
+     * Removes a node.
+     *
+     * @param name Exact name or wildcard of the node
+     * @return The value of the removed node, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(String name) {
+        Validate.notNull(name, "Name cannot be null");
+        name = foldNonAscii(name);
+
+        boolean wildcard = isWildcard(name);
+        int length = wildcard ? name.length() - 1 : name.length();
+        Node[] path = new Node[length + 1];
+        path[0] = root;
+        for (int i = 0; i < length; i++) {
+            path[i + 1] = path[i].getChild(fold(name.charAt(i)));
+            if (path[i + 1] == null) {
+                return null;
+            }
+        }
+
+        Node node = path[length];
+        Object previous;
+        if (wildcard) {
+            previous = node.wildcard;
+            node.wildcard = null;
+        } else {
+            previous = node.value;
+            node.value = null;
+        }
+        if (previous == null) {
+            return null;
+        }
+        size--;
+
+        // Prune the nodes that no longer lead anywhere
+        for (int i = length; i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(fold(name.charAt(i - 1)));
+        }
+        return (V) previous;
+    }
+
+    /**
+     * Removes all nodes.
+     */
+    public void clear() {
+        root.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the value of a node, matching the name exactly. A wildcard is only
+     * returned for the same wildcard.
+     *
+     * @param name Exact name or wildcard of the node
+     * @return The value of the node, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V getExact(String name) {
+        Validate.notNull(name, "Name cannot be null");
+        name = foldNonAscii(name);
+
+        boolean wildcard = isWildcard(name);
+        int length = wildcard ? name.length() - 1 : name.length();
+        Node node = root;
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.getChild(fold(name.charAt(i)));
+        }
+        if (node == null) {
+            return null;
+        }
+        return (V) (wildcard ? node.wildcard : node.value);
+    }
+
+    /**
+     * Gets the value of the most specific node matching a permission name.
+     * A node with exactly the given name wins over any wildcard, and longer
+     * wildcards win over shorter ones.
+     *
+     * @param name Permission name to match
+     * @return The value of the matching node, or null if no node matches
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String name) {
+        Validate.notNull(name, "Name cannot be null");
+        name = foldNonAscii(name);
+
+        Object best = null;
+        Node node = root;
+        int length = name.length();
+        for (int i = 0; i < length; i++) {
+            // The rest of the name is not empty, so a wildcard here matches
+            if (node.wildcard != null) {
+                best = node.wildcard;
+            }
+            node = node.getChild(fold(name.charAt(i)));
+            if (node == null) {
+                return (V) best;
+            }
+        }
+        return (V) (node.value != null ? node.value : best);
+    }
+
+    /**
+     * Gets the values of all nodes whose exact name or wildcard starts with
+     * the given prefix.
+     *
+     * @param prefix Prefix to search for
+     * @return The values of the matching nodes
+     */
+    public List<V> getWithPrefix(String prefix) {
+        Validate.notNull(prefix, "Prefix cannot be null");
+        prefix = foldNonAscii(prefix);
+
+        List<V> result = new ArrayList<V>();
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(fold(prefix.charAt(i)));
+        }
+        if (node != null) {
+            collect(node, result);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(Node node, Collection<V> result) {
+        if (node.value != null) {
+            result.add((V) node.value);
+        }
+        if (node.wildcard != null) {
+            result.add((V) node.wildcard);
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            collect(node.children[i], result);
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount = 0;
+        private Object value;
+        private Object wildcard;
+
+        Node getChild(char key) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node getOrCreateChild(char key) {
+            Node child = getChild(key);
+            if (child != null) {
+                return child;
+            }
+
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                char[] newKeys = new char[capacity];
+                Node[] newChildren = new Node[capacity];
+                System.arraycopy(keys, 0, newKeys, 0, childCount);
+                System.arraycopy(children, 0, newChildren, 0, childCount);
+                keys = newKeys;
+                children = newChildren;
+            }
+            child = new Node();
+            keys[childCount] = key;
+            children[childCount] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(char key) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == key) {
+                    childCount--;
+                    keys[i] = keys[childCount];
+                    children[i] = children[childCount];
+                    children[childCount] = null;
+                    return;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return value == null && wildcard == null && childCount == 0;
+        }
+
+        Node copy() {
+            Node copy = new Node();
+            copy.value = value;
+            copy.wildcard = wildcard;
+            if (childCount > 0) {
+                copy.keys = new char[childCount];
+                copy.children = new Node[childCount];
+                System.arraycopy(keys, 0, copy.keys, 0, childCount);
+                for (int i = 0; i < childCount; i++) {
+                    copy.children[i] = children[i].copy();
+                }
+                copy.childCount = childCount;
+            }
+            return copy;
+        }
+
+        void clear() {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+            childCount = 0;
+            value = null;
+            wildcard = null;
+        }
+    }
+}
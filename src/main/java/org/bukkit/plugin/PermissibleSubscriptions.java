@@ -0,0 +1,135 @@
+package org.bukkit.plugin;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.bukkit.permissions.Permissible;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tracks which {@link Permissible}s are subscribed to which keys.
+ * <p>
+ * Each permissible is weakly referenced once and given a small int id, and
+ * each key keeps the ids of its subscribers in a {@link BitSet}. A
+ * permissible that is garbage collected is removed from every key, and its
+ * id is reused.
+ *
+ * @param <K> the type of the keys
+ */
+final class PermissibleSubscriptions<K> {
+    private final Map<K, BitSet> subscriptions = new HashMap<K, BitSet>();
+    private final Map<Permissible, Subscriber> ids = new WeakHashMap<Permissible, Subscriber>();
+    private final ReferenceQueue<Permissible> collected = new ReferenceQueue<Permissible>();
+    private Subscriber[] subscribers = new Subscriber[16];
+    private final BitSet freeIds = new BitSet();
+    private int nextId = 0;
+
+    public synchronized void subscribe(K key, Permissible permissible) {
+        expungeCollected();
+
+        BitSet subscribed = subscriptions.get(key);
+        if (subscribed == null) {
+            subscribed = new BitSet();
+            subscriptions.put(key, subscribed);
+        }
+        subscribed.set(getId(permissible));
+    }
+
+    public synchronized void unsubscribe(K key, Permissible permissible) {
+        expungeCollected();
+
+        Subscriber subscriber = ids.get(permissible);
+        BitSet subscribed = subscriptions.get(key);
+        if (subscriber == null || subscribed == null) {
+            return;
+        }
+
+        subscribed.clear(subscriber.id);
+        if (subscribed.isEmpty()) {
+            subscriptions.remove(key);
+        }
+    }
+
+    public synchronized Set<Permissible> getSubscriptions(K key) {
+        expungeCollected();
+
+        BitSet subscribed = subscriptions.get(key);
+        if (subscribed == null) {
+            return ImmutableSet.of();
+        }
+
+        ImmutableSet.Builder<Permissible> result = ImmutableSet.builder();
+        for (int id = subscribed.nextSetBit(0); id >= 0; id = subscribed.nextSetBit(id + 1)) {
+            Permissible permissible = subscribers[id].get();
+            if (permissible != null) {
+                result.add(permissible);
+            }
+        }
+        return result.build();
+    }
+
+    private int getId(Permissible permissible) {
+        Subscriber subscriber = ids.get(permissible);
+        if (subscriber != null) {
+            return subscriber.id;
+        }
+
+        int id = freeIds.nextSetBit(0);
+        if (id >= 0) {
+            freeIds.clear(id);
+        } else {
+            id = nextId++;
+            if (id == subscribers.length) {
+                Subscriber[] grown = new Subscriber[id * 2];
+                System.arraycopy(subscribers, 0, grown, 0, id);
+                subscribers = grown;
+            }
+        }
+
+        subscriber = new Subscriber(permissible, id, collected);
+        subscribers[id] = subscriber;
+        ids.put(permissible, subscriber);
+        return id;
+    }
+
+    private void expungeCollected() {
+        BitSet expunged = null;
+        Subscriber subscriber;
+        while ((subscriber = (Subscriber) collected.poll()) != null) {
+            if (expunged == null) {
+                expunged = new BitSet();
+            }
+            expunged.set(subscriber.id);
+            subscribers[subscriber.id] = null;
+        }
+        if (expunged == null) {
+            return;
+        }
+
+        Iterator<BitSet> it = subscriptions.values().iterator();
+        while (it.hasNext()) {
+            BitSet subscribed = it.next();
+            subscribed.andNot(expunged);
+            if (subscribed.isEmpty()) {
+                it.remove();
+            }
+        }
+        freeIds.or(expunged);
+    }
+
+    private static final class Subscriber extends WeakReference<Permissible> {
+        private final int id;
+
+        Subscriber(Permissible permissible, int id, ReferenceQueue<Permissible> queue) {
+            super(permissible, queue);
+            this.id = id;
+        }
+    }
+}
@@ -82,6 +82,10 @@ import com.google.common.collect.ImmutableMap;
  *     <td>{@link #isDatabaseEnabled()}</td>
  *     <td>Indicator to enable database support</td>
  * </tr><tr>
+ *     <td><code>virtual-threads</code></td>
+ *     <td>{@link #isVirtualThreadsEnabled()}</td>
+ *     <td>Indicator to run asynchronous tasks on virtual threads</td>
+ * </tr><tr>
  *     <td><code>load</code></td>
  *     <td>{@link #getLoad()}</td>
  *     <td>The phase of server-startup this plugin will load during</td>
@@ -179,6 +183,7 @@ public final class PluginDescriptionFile {
     private String website = null;
     private String prefix = null;
     private boolean database = false;
+    private boolean virtualThreads = false;
     private PluginLoadOrder order = PluginLoadOrder.POSTWORLD;
     private List<Permission> permissions = null;
     private Map<?, ?> lazyPermissions = null;
@@ -401,6 +406,31 @@ public final class PluginDescriptionFile {
         return database;
     }
 
+    /**
+     * Gives if the plugin's asynchronous tasks should run on virtual threads.
+     * <ul>
+     * <li>This is intended for plugins whose asynchronous tasks mostly block
+     *     on I/O, such as file saves, database calls or web requests.
+     * <li>If the Java runtime does not support virtual threads, the tasks
+     *     run on the regular asynchronous worker pool instead.
+     * <li>Tasks are still reported through {@link
+     *     org.bukkit.scheduler.BukkitScheduler#getActiveWorkers()} and may
+     *     be cancelled the same way.
+     * <li>Valid values include <code>true</code> and <code>false</code>
+     * </ul>
+     * <p>
+     * In the plugin.yml, this entry is named <code>virtual-threads</code>.
+     * <p>
+     * Example:
+     * <blockquote><pre>virtual-threads: true</pre></blockquote>
+     *
+     * @return if this plugin's asynchronous tasks prefer virtual threads
+     * @see org.bukkit.util.VirtualThreadCompat
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreads;
+    }
+
     /**
      * Gives a list of other plugins that the plugin requires.
      * <ul>
@@ -585,6 +615,24 @@ public final class PluginDescriptionFile {
      *         <a href="http://yaml.org/spec/current.html#id2503232">surround
      *         the message with double-quote</a>:
      *         <blockquote><pre>usage: "Usage: /god [player]"</pre></blockquote></td>
+     * </tr><tr>
+     *     <td><code>async</code></td>
+     *     <td>{@link PluginCommand#setAsync(boolean)}</td>
+     *     <td>Boolean</td>
+     *     <td>Marks the command as safe to execute off the main server
+     *         thread. When dispatched from the main thread, the command is
+     *         executed by the scheduler's asynchronous workers instead. Only
+     *         commands that do not touch the world, such as lookups of
+     *         stored statistics, should be asynchronous.</td>
+     *     <td><blockquote><pre>async: true</pre></blockquote></td>
+     * </tr><tr>
+     *     <td><code>quoted-args</code></td>
+     *     <td>{@link PluginCommand#setQuotedArgs(boolean)}</td>
+     *     <td>Boolean</td>
+     *     <td>Lets double-quoted arguments of the command contain spaces,
+     *         so <code>/&lt;command&gt; "two words"</code> is executed with
+     *         a single argument.</td>
+     *     <td><blockquote><pre>quoted-args: true</pre></blockquote></td>
      * </tr>
      * </table>
      * The commands are structured as a hiearchy of <a
@@ -609,6 +657,7 @@ public final class PluginDescriptionFile {
      *    - burning_deaths
      *    - burningDeaths
      *    permission: inferno.burningdeaths
+     *    async: true
      *    usage: |
      *      /&lt;command&gt; [player]
      *      Example: /&lt;command&gt; - see how many times you have burned to death
@@ -909,6 +958,14 @@ public final class PluginDescriptionFile {
             }
         }
 
+        if (map.get("virtual-threads") != null) {
+            try {
+                virtualThreads = (Boolean) map.get("virtual-threads");
+            } catch (ClassCastException ex) {
+                throw new InvalidDescriptionException(ex, "virtual-threads is of wrong type");
+            }
+        }
+
         if (map.get("website") != null) {
             website = map.get("website").toString();
         }
@@ -976,6 +1033,7 @@ public final class PluginDescriptionFile {
         map.put("main", main);
         map.put("version", version);
         map.put("database", database);
+        map.put("virtual-threads", virtualThreads);
         map.put("order", order.toString());
         map.put("default-permission", defaultPerm.toString());
 
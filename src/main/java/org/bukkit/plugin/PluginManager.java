@@ -1,6 +1,7 @@
 package org.bukkit.plugin;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.Set;
 
 import org.bukkit.event.Event;
@@ -174,6 +175,21 @@ public interface PluginManager {
      */
     public void addPermission(Permission perm);
 
+    /**
+     * Adds several {@link Permission}s to this plugin manager at once.
+     * <p>
+     * This is the same as calling {@link #addPermission(Permission)} for
+     * each permission, except that {@link Permissible}s affected by the new
+     * default permissions are only recalculated once. If any of the
+     * permissions is already defined, or defined twice, an exception is
+     * thrown and none of them are added.
+     *
+     * @param perms Permissions to add
+     * @throws IllegalArgumentException Thrown when a permission with the same
+     *     name already exists
+     */
+    public void addPermissions(Collection<Permission> perms);
+
     /**
      * Removes a {@link Permission} registration from this plugin manager.
      * <p>
@@ -9,11 +9,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -29,7 +31,10 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.permissions.Permissible;
 import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionClosure;
 import org.bukkit.permissions.PermissionDefault;
+import org.bukkit.permissions.PermissionTrie;
+import org.bukkit.util.CaseInsensitiveMap;
 import org.bukkit.util.FileUtil;
 
 import com.google.common.collect.ImmutableSet;
@@ -44,11 +49,23 @@ public final class SimplePluginManager implements PluginManager {
     private final Map<String, Plugin> lookupNames = new HashMap<String, Plugin>();
     private static File updateDirectory = null;
     private final SimpleCommandMap commandMap;
-    private final Map<String, Permission> permissions = new HashMap<String, Permission>();
+    // Never changed once published: writers copy it under permissionsLock,
+    // so permissions can be looked up from any thread without locking
+    private volatile CaseInsensitiveMap<Permission> permissions = new CaseInsensitiveMap<Permission>();
+    private final Object permissionsLock = new Object();
+    private final PermissionTrie<Permission> permissionTrie = new PermissionTrie<Permission>();
+    private final Map<String, PermissionClosure> permissionClosures = new ConcurrentHashMap<String, PermissionClosure>();
     private final Map<Boolean, Set<Permission>> defaultPerms = new LinkedHashMap<Boolean, Set<Permission>>();
-    private final Map<String, Map<Permissible, Boolean>> permSubs = new HashMap<String, Map<Permissible, Boolean>>();
-    private final Map<Boolean, Map<Permissible, Boolean>> defSubs = new HashMap<Boolean, Map<Permissible, Boolean>>();
+    private final PermissibleSubscriptions<String> permSubs = new PermissibleSubscriptions<String>();
+    private final PermissibleSubscriptions<Boolean> defSubs = new PermissibleSubscriptions<Boolean>();
     private boolean useTimings = false;
+    // Guards the batch depth and the permissibles it deferred, as
+    // permissions may be registered from more than one thread
+    private final Object permissionBatchLock = new Object();
+    private int permissionBatchDepth = 0;
+    private boolean opDefaultsDirty = false;
+    private boolean nonOpDefaultsDirty = false;
+    private final Set<Permissible> childrenDirtyPermissibles = new LinkedHashSet<Permissible>();
 
     public SimplePluginManager(Server instance, SimpleCommandMap commandMap) {
         server = instance;
@@ -168,6 +185,21 @@ public final class SimplePluginManager implements PluginManager {
             }
         }
 
+        // Permissions registered while loading only dirty the permissibles once
+        beginPermissionBatch();
+        try {
+            loadPlugins(directory, result, plugins, loadedPlugins, dependencies, softDependencies);
+        } finally {
+            endPermissionBatch();
+        }
+
+        return result.toArray(new Plugin[result.size()]);
+    }
+
+    /**
+     * Loads the found plugins in the order of their dependencies.
+     */
+    private void loadPlugins(File directory, List<Plugin> result, Map<String, File> plugins, Set<String> loadedPlugins, Map<String, Collection<String>> dependencies, Map<String, Collection<String>> softDependencies) {
         while (!plugins.isEmpty()) {
             boolean missingDependency = true;
             Iterator<String> pluginIterator = plugins.keySet().iterator();
@@ -274,8 +306,6 @@ public final class SimplePluginManager implements PluginManager {
                 }
             }
         }
-
-        return result.toArray(new Plugin[result.size()]);
     }
 
     /**
@@ -380,10 +410,14 @@ public final class SimplePluginManager implements PluginManager {
                 commandMap.registerAll(plugin.getDescription().getName(), pluginCommands);
             }
 
+            // Permissions registered while enabling only dirty the permissibles once
+            beginPermissionBatch();
             try {
                 plugin.getPluginLoader().enablePlugin(plugin);
             } catch (Throwable ex) {
                 server.getLogger().log(Level.SEVERE, "Error occurred (in the plugin loader) while enabling " + plugin.getDescription().getFullName() + " (Is it up to date?)", ex);
+            } finally {
+                endPermissionBatch();
             }
 
             HandlerList.bakeAll();
@@ -439,7 +473,11 @@ public final class SimplePluginManager implements PluginManager {
             lookupNames.clear();
             HandlerList.unregisterAll();
             fileAssociations.clear();
-            permissions.clear();
+            synchronized (permissionsLock) {
+                permissions = new CaseInsensitiveMap<Permission>();
+            }
+            permissionTrie.clear();
+            invalidatePermissionClosures();
             defaultPerms.get(true).clear();
             defaultPerms.get(false).clear();
         }
@@ -568,20 +606,56 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     public Permission getPermission(String name) {
-        return permissions.get(name.toLowerCase());
+        return permissions.get(name);
     }
 
     public void addPermission(Permission perm) {
-        String name = perm.getName().toLowerCase();
+        String name = perm.getName().toLowerCase(Locale.ENGLISH);
+
+        synchronized (permissionsLock) {
+            if (permissions.containsKey(name)) {
+                throw new IllegalArgumentException("The permission " + name + " is already defined!");
+            }
 
-        if (permissions.containsKey(name)) {
-            throw new IllegalArgumentException("The permission " + name + " is already defined!");
+            CaseInsensitiveMap<Permission> copy = new CaseInsensitiveMap<Permission>(permissions);
+            copy.put(name, perm);
+            permissions = copy;
         }
+        added(name, perm);
+    }
 
-        permissions.put(name, perm);
+    private void added(String name, Permission perm) {
+        permissionTrie.put(name, perm);
+        invalidatePermissionClosures();
+        if (!perm.getChildren().isEmpty()) {
+            dirtyChildPermissibles(name);
+        }
         calculatePermissionDefault(perm);
     }
 
+    public void addPermissions(Collection<Permission> perms) {
+        synchronized (permissionsLock) {
+            CaseInsensitiveMap<Permission> copy = new CaseInsensitiveMap<Permission>(permissions);
+            for (Permission perm : perms) {
+                String name = perm.getName().toLowerCase(Locale.ENGLISH);
+
+                if (copy.put(name, perm) != null) {
+                    throw new IllegalArgumentException("The permission " + name + " is already defined!");
+                }
+            }
+            permissions = copy;
+        }
+
+        beginPermissionBatch();
+        try {
+            for (Permission perm : perms) {
+                added(perm.getName().toLowerCase(Locale.ENGLISH), perm);
+            }
+        } finally {
+            endPermissionBatch();
+        }
+    }
+
     public Set<Permission> getDefaultPermissions(boolean op) {
         return ImmutableSet.copyOf(defaultPerms.get(op));
     }
@@ -591,10 +665,65 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     public void removePermission(String name) {
-        permissions.remove(name.toLowerCase());
+        Permission perm;
+        synchronized (permissionsLock) {
+            perm = permissions.get(name);
+            if (perm != null) {
+                CaseInsensitiveMap<Permission> copy = new CaseInsensitiveMap<Permission>(permissions);
+                copy.remove(name);
+                permissions = copy;
+            }
+        }
+        if (perm != null) {
+            permissionTrie.remove(name);
+        }
+        invalidatePermissionClosures();
+        if (perm != null && !perm.getChildren().isEmpty()) {
+            dirtyChildPermissibles(name);
+        }
+    }
+
+    /**
+     * Gets the closure of a permission node: the node and all of its
+     * children, flattened. The closures of registered permissions are
+     * compiled once and shared until a permission is added or removed, or
+     * {@link Permission#recalculatePermissibles()} is called after changing
+     * the children of a permission. Adding or removing a permission with
+     * children also recalculates the permissibles holding it, as the
+     * closures they were granted contain the old children.
+     *
+     * @param name Name of the permission node
+     * @return The closure of the node
+     */
+    public PermissionClosure getPermissionClosure(String name) {
+        String lname = name.toLowerCase(Locale.ENGLISH);
+        PermissionClosure closure = permissionClosures.get(lname);
+
+        if (closure == null) {
+            synchronized (permissionClosures) {
+                closure = permissionClosures.get(lname);
+                if (closure == null) {
+                    closure = PermissionClosure.compile(lname, this);
+                    if (permissions.containsKey(lname)) {
+                        permissionClosures.put(lname, closure);
+                    }
+                }
+            }
+        }
+
+        return closure;
+    }
+
+    private void invalidatePermissionClosures() {
+        synchronized (permissionClosures) {
+            permissionClosures.clear();
+        }
     }
 
     public void recalculatePermissionDefaults(Permission perm) {
+        // The children may have changed
+        invalidatePermissionClosures();
+
         if (permissions.containsValue(perm)) {
             defaultPerms.get(true).remove(perm);
             defaultPerms.get(false).remove(perm);
@@ -615,6 +744,17 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     private void dirtyPermissibles(boolean op) {
+        synchronized (permissionBatchLock) {
+            if (permissionBatchDepth > 0) {
+                if (op) {
+                    opDefaultsDirty = true;
+                } else {
+                    nonOpDefaultsDirty = true;
+                }
+                return;
+            }
+        }
+
         Set<Permissible> permissibles = getDefaultPermSubscriptions(op);
 
         for (Permissible p : permissibles) {
@@ -622,79 +762,110 @@ public final class SimplePluginManager implements PluginManager {
         }
     }
 
-    public void subscribeToPermission(String permission, Permissible permissible) {
-        String name = permission.toLowerCase();
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            permSubs.put(name, map);
+    /**
+     * Recalculates the permissibles holding a node whose children were
+     * registered or unregistered, as the closures they were granted were
+     * compiled with the old children. Every node of a granted closure is
+     * subscribed to, so the subscribers of the node are exactly those.
+     */
+    private void dirtyChildPermissibles(String name) {
+        Set<Permissible> permissibles = getPermissionSubscriptions(name);
+        synchronized (permissionBatchLock) {
+            if (permissionBatchDepth > 0) {
+                childrenDirtyPermissibles.addAll(permissibles);
+                return;
+            }
         }
 
-        map.put(permissible, true);
+        for (Permissible p : permissibles) {
+            p.recalculatePermissions();
+        }
     }
 
-    public void unsubscribeFromPermission(String permission, Permissible permissible) {
-        String name = permission.toLowerCase();
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map != null) {
-            map.remove(permissible);
-
-            if (map.isEmpty()) {
-                permSubs.remove(name);
-            }
+    /**
+     * Starts deferring the recalculation of permissibles subscribed to the
+     * default permissions until the matching {@link #endPermissionBatch()}.
+     */
+    private void beginPermissionBatch() {
+        synchronized (permissionBatchLock) {
+            permissionBatchDepth++;
         }
     }
 
-    public Set<Permissible> getPermissionSubscriptions(String permission) {
-        String name = permission.toLowerCase();
-        Map<Permissible, Boolean> map = permSubs.get(name);
+    /**
+     * Recalculates each permissible whose default permissions or granted
+     * children changed since the outermost {@link #beginPermissionBatch()}
+     * once.
+     */
+    private void endPermissionBatch() {
+        Set<Permissible> permissibles;
+        boolean opDirty;
+        boolean nonOpDirty;
+        synchronized (permissionBatchLock) {
+            if (--permissionBatchDepth > 0) {
+                return;
+            }
 
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
+            permissibles = new LinkedHashSet<Permissible>(childrenDirtyPermissibles);
+            opDirty = opDefaultsDirty;
+            nonOpDirty = nonOpDefaultsDirty;
+            opDefaultsDirty = false;
+            nonOpDefaultsDirty = false;
+            childrenDirtyPermissibles.clear();
         }
-    }
 
-    public void subscribeToDefaultPerms(boolean op, Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+        if (opDirty) {
+            permissibles.addAll(getDefaultPermSubscriptions(true));
+        }
+        if (nonOpDirty) {
+            permissibles.addAll(getDefaultPermSubscriptions(false));
+        }
 
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            defSubs.put(op, map);
+        for (Permissible p : permissibles) {
+            p.recalculatePermissions();
         }
+    }
 
-        map.put(permissible, true);
+    public void subscribeToPermission(String permission, Permissible permissible) {
+        permSubs.subscribe(permission.toLowerCase(), permissible);
     }
 
-    public void unsubscribeFromDefaultPerms(boolean op, Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+    public void unsubscribeFromPermission(String permission, Permissible permissible) {
+        permSubs.unsubscribe(permission.toLowerCase(), permissible);
+    }
 
-        if (map != null) {
-            map.remove(permissible);
+    public Set<Permissible> getPermissionSubscriptions(String permission) {
+        return permSubs.getSubscriptions(permission.toLowerCase());
+    }
 
-            if (map.isEmpty()) {
-                defSubs.remove(op);
-            }
-        }
+    public void subscribeToDefaultPerms(boolean op, Permissible permissible) {
+        defSubs.subscribe(op, permissible);
     }
 
-    public Set<Permissible> getDefaultPermSubscriptions(boolean op) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+    public void unsubscribeFromDefaultPerms(boolean op, Permissible permissible) {
+        defSubs.unsubscribe(op, permissible);
+    }
 
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
-        }
+    public Set<Permissible> getDefaultPermSubscriptions(boolean op) {
+        return defSubs.getSubscriptions(op);
     }
 
     public Set<Permission> getPermissions() {
         return new HashSet<Permission>(permissions.values());
     }
 
+    /**
+     * Gets the registered permissions whose names start with the given
+     * prefix, ignoring case. Passing <code>"plugin."</code> returns every
+     * permission of the plugin, including <code>plugin.*</code>.
+     *
+     * @param prefix Prefix of the permission names
+     * @return Set containing the matching permissions
+     */
+    public Set<Permission> getPermissionsWithPrefix(String prefix) {
+        return new HashSet<Permission>(permissionTrie.getWithPrefix(prefix));
+    }
+
     public boolean useTimings() {
         return useTimings;
     }
@@ -193,6 +193,11 @@ public interface BukkitScheduler {
      * should be taken to assure the thread-safety of asynchronous tasks.</b>
      * <p>
      * Returns a task that will run asynchronously.
+     * <p>
+     * If the plugin {@linkplain
+     * org.bukkit.plugin.PluginDescriptionFile#isVirtualThreadsEnabled() opts
+     * in} and the Java runtime supports it, the task runs on a virtual
+     * thread instead of a pooled worker thread.
      *
      * @param plugin the reference to the plugin scheduling task
      * @param task the task to be run
@@ -221,6 +226,11 @@ public interface BukkitScheduler {
      * <p>
      * Returns a task that will run asynchronously after the specified number
      * of server ticks.
+     * <p>
+     * If the plugin {@linkplain
+     * org.bukkit.plugin.PluginDescriptionFile#isVirtualThreadsEnabled() opts
+     * in} and the Java runtime supports it, the task runs on a virtual
+     * thread instead of a pooled worker thread.
      *
      * @param plugin the reference to the plugin scheduling task
      * @param task the task to be run
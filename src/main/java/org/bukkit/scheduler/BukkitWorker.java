@@ -26,6 +26,10 @@ public interface BukkitWorker {
 
     /**
      * Returns the thread for the worker.
+     * <p>
+     * This may be a virtual thread for plugins that {@linkplain
+     * org.bukkit.plugin.PluginDescriptionFile#isVirtualThreadsEnabled() opt
+     * in} to them.
      *
      * @return The Thread object for the worker
      */
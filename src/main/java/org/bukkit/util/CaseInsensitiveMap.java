@@ -0,0 +1,407 @@
+package org.bukkit.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A map with case-insensitive String keys.
+ * <p>
+ * Keys are stored {@link String#toLowerCase(Locale) lower cased} in the
+ * {@link Locale#ENGLISH English} locale, so lookups do not depend on the
+ * default locale, and are returned that way from {@link #keySet()}. Looking
+ * up a key that only contains ASCII characters does not create a lower case
+ * copy of it.
+ * <p>
+ * This map does not permit null keys. It is not thread-safe, but a map which
+ * is no longer changed may be read from any thread once safely published.
+ *
+ * @param <V> the type of mapped values
+ */
+public final class CaseInsensitiveMap<V> extends AbstractMap<String, V> {
+    private static final int MINIMUM_CAPACITY = 16;
+    // Marks a removed entry, so probing continues past it
+    private static final String REMOVED = new String("");
+
+    private String[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size = 0;
+    private int used = 0;
+    private int modCount = 0;
+    private Set<Map.Entry<String, V>> entrySet;
+
+    /**
+     * Creates an empty map.
+     */
+    public CaseInsensitiveMap() {
+        this(MINIMUM_CAPACITY / 2);
+    }
+
+    /**
+     * Creates an empty map that can hold the given number of keys without
+     * resizing.
+     *
+     * @param expectedSize the expected number of keys
+     */
+    public CaseInsensitiveMap(int expectedSize) {
+        Validate.isTrue(expectedSize >= 0, "Expected size cannot be negative");
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Creates a map containing the mappings of the given map. Copying
+     * another CaseInsensitiveMap only copies its tables.
+     *
+     * @param map the mappings to copy
+     */
+    public CaseInsensitiveMap(Map<String, ? extends V> map) {
+        if (map instanceof CaseInsensitiveMap) {
+            CaseInsensitiveMap<?> other = (CaseInsensitiveMap<?>) map;
+            keys = other.keys.clone();
+            hashes = other.hashes.clone();
+            values = other.values.clone();
+            size = other.size;
+            used = other.used;
+        } else {
+            allocate(capacityFor(map.size()));
+            putAll(map);
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Finds the slot holding the given key.
+     *
+     * @return the slot, or -1 if the key is not present
+     */
+    private int find(String key) {
+        // Hash as if the key was lower case, without creating the copy
+        int length = key.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c >= 0x80) {
+                return findLowerCase(key.toLowerCase(Locale.ENGLISH));
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            hash = 31 * hash + c;
+        }
+
+        int mask = keys.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                return -1;
+            }
+            if (candidate != REMOVED && hashes[slot] == hash && equalsLowerCase(candidate, key)) {
+                return slot;
+            }
+        }
+    }
+
+    private int findLowerCase(String key) {
+        int hash = key.hashCode();
+        int mask = keys.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                return -1;
+            }
+            if (candidate != REMOVED && hashes[slot] == hash && candidate.equals(key)) {
+                return slot;
+            }
+        }
+    }
+
+    private static boolean equalsLowerCase(String lowerCase, String key) {
+        int length = key.length();
+        if (lowerCase.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (lowerCase.charAt(i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && find((String) key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int slot = find((String) key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    /**
+     * Gets the value of a key that is already lower cased in the English
+     * locale. This skips folding the key and uses its cached {@link
+     * String#hashCode() hash}.
+     *
+     * @param lowerCaseKey the lower case key
+     * @return the value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V getLowerCase(String lowerCaseKey) {
+        int slot = findLowerCase(lowerCaseKey);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        Validate.notNull(key, "Key cannot be null");
+        String lowerCase = key.toLowerCase(Locale.ENGLISH);
+        int slot = findLowerCase(lowerCase);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        if ((used + 1) * 4 > keys.length * 3) {
+            resize();
+        }
+        int hash = lowerCase.hashCode();
+        int mask = keys.length - 1;
+        slot = spread(hash) & mask;
+        while (keys[slot] != null && keys[slot] != REMOVED) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            used++;
+        }
+        keys[slot] = lowerCase;
+        hashes[slot] = hash;
+        values[slot] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        allocate(capacityFor(size + 1));
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            String key = oldKeys[i];
+            if (key == null || key == REMOVED) {
+                continue;
+            }
+            int slot = spread(oldHashes[i]) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            hashes[slot] = oldHashes[i];
+            values[slot] = oldValues[i];
+        }
+        used = size;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int slot = find((String) key);
+        return slot >= 0 ? removeSlot(slot) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeSlot(int slot) {
+        V previous = (V) values[slot];
+        keys[slot] = REMOVED;
+        values[slot] = null;
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (used == 0) {
+            return;
+        }
+        allocate(capacityFor(0));
+        size = 0;
+        used = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CaseInsensitiveMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+        private final String[] table = keys;
+        private int expectedModCount = modCount;
+        private int next = -1;
+        private int current = -1;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                next++;
+            } while (next < table.length && (table[next] == null || table[next] == REMOVED));
+        }
+
+        public boolean hasNext() {
+            return next < table.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Map.Entry<String, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            advance();
+            return new Entry(current);
+        }
+
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeSlot(current);
+            expectedModCount = modCount;
+            current = -1;
+        }
+    }
+
+    private final class Entry implements Map.Entry<String, V> {
+        private final String key;
+        private final int slot;
+
+        Entry(int slot) {
+            this.key = keys[slot];
+            this.slot = slot;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Checks if the entry is still in its slot. The table may have been
+         * reallocated, or the key moved or removed, since it was created.
+         */
+        private boolean inSlot() {
+            return slot < keys.length && keys[slot] == key;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return inSlot() ? (V) values[slot] : get(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            if (!inSlot()) {
+                return put(key, value);
+            }
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            Object value = getValue();
+            return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package org.bukkit.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A thread-safe map which copies its mappings on every change.
+ * <p>
+ * Reads never lock and see the mappings of the last completed change.
+ * Iterating the map or its views iterates the mappings as they were when
+ * the iterator was created, so it never throws a {@link
+ * java.util.ConcurrentModificationException}. Removing through an iterator
+ * removes the mapping from the map unless its value changed since, and
+ * setting the value of an entry puts it into the map.
+ * <p>
+ * Changes lock the map and copy all of its mappings, so this map suits
+ * mappings which are read far more often than they change. Use {@link
+ * #putAll(Map)} to add several mappings with a single copy, and {@link
+ * #removeAll(Collection)} or the <code>removeAll</code> and
+ * <code>retainAll</code> methods of the views to remove several mappings
+ * with a single copy.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of mapped values
+ */
+public final class CopyOnWriteMap<K, V> extends AbstractMap<K, V> {
+    // The part of each mapping removeMatching compares
+    private static final int KEYS = 0;
+    private static final int VALUES = 1;
+    private static final int ENTRIES = 2;
+
+    private volatile Map<K, V> snapshot = Collections.emptyMap();
+    private final Set<Map.Entry<K, V>> entrySet = new EntrySet();
+    private final Set<K> keySet = new KeySet();
+    private final Collection<V> values = new Values();
+
+    /**
+     * Creates an empty map.
+     */
+    public CopyOnWriteMap() {
+    }
+
+    /**
+     * Creates a map containing the mappings of the given map.
+     *
+     * @param map the mappings to copy
+     */
+    public CopyOnWriteMap(Map<? extends K, ? extends V> map) {
+        putAll(map);
+    }
+
+    /**
+     * Gets an unmodifiable map of the current mappings, which does not
+     * change when this map changes. The same instance is returned until
+     * this map next changes.
+     *
+     * @return the current mappings
+     */
+    public Map<K, V> snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return snapshot.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return snapshot.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return snapshot.get(key);
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        Map<K, V> copy = new HashMap<K, V>(snapshot);
+        V previous = copy.put(key, value);
+        snapshot = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty()) {
+            return;
+        }
+        Map<K, V> copy = new HashMap<K, V>(snapshot);
+        copy.putAll(map);
+        snapshot = Collections.unmodifiableMap(copy);
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        if (!snapshot.containsKey(key)) {
+            return null;
+        }
+        Map<K, V> copy = new HashMap<K, V>(snapshot);
+        V previous = copy.remove(key);
+        snapshot = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    /**
+     * Removes the mapping of a key only if it is still mapped to the given
+     * value.
+     */
+    private synchronized void removeMapping(Object key, Object value) {
+        Object current = snapshot.get(key);
+        if (current == null ? value != null || !snapshot.containsKey(key) : !current.equals(value)) {
+            return;
+        }
+        Map<K, V> copy = new HashMap<K, V>(snapshot);
+        copy.remove(key);
+        snapshot = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Removes the mappings of several keys with a single copy.
+     *
+     * @param keys the keys to remove
+     * @return true if any mapping was removed
+     */
+    public boolean removeAll(Collection<?> keys) {
+        return removeMatching(keys, false, KEYS);
+    }
+
+    /**
+     * Removes the mappings whose key, value or entry is, or is not, in the
+     * given collection, with a single copy.
+     */
+    private synchronized boolean removeMatching(Collection<?> items, boolean retain, int part) {
+        Map<K, V> copy = new HashMap<K, V>(snapshot);
+        boolean changed = false;
+        Iterator<Map.Entry<K, V>> it = copy.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
+            Object item = part == KEYS ? entry.getKey() : part == VALUES ? entry.getValue() : entry;
+            if (items.contains(item) != retain) {
+                it.remove();
+                changed = true;
+            }
+        }
+        if (changed) {
+            snapshot = Collections.unmodifiableMap(copy);
+        }
+        return changed;
+    }
+
+    @Override
+    public synchronized void clear() {
+        snapshot = Collections.emptyMap();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return values;
+    }
+
+    /**
+     * Iterates the mappings as they were when it was created. Removing
+     * through it removes the last mapping returned, but not a newer value
+     * put for the same key since.
+     */
+    private final class SnapshotIterator {
+        private final Iterator<Map.Entry<K, V>> it = snapshot.entrySet().iterator();
+        private Map.Entry<K, V> last;
+        private boolean canRemove = false;
+
+        boolean hasNext() {
+            return it.hasNext();
+        }
+
+        Map.Entry<K, V> next() {
+            Map.Entry<K, V> entry = it.next();
+            last = entry;
+            canRemove = true;
+            return entry;
+        }
+
+        void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            removeMapping(last.getKey(), last.getValue());
+            canRemove = false;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final SnapshotIterator it = new SnapshotIterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public Map.Entry<K, V> next() {
+                    return new WriteThroughEntry(it.next());
+                }
+
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return snapshot.entrySet().contains(o);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return removeMatching(c, false, ENTRIES);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return removeMatching(c, true, ENTRIES);
+        }
+
+        @Override
+        public void clear() {
+            CopyOnWriteMap.this.clear();
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            final SnapshotIterator it = new SnapshotIterator();
+            return new Iterator<K>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public K next() {
+                    return it.next().getKey();
+                }
+
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            CopyOnWriteMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return removeMatching(c, false, KEYS);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return removeMatching(c, true, KEYS);
+        }
+
+        @Override
+        public void clear() {
+            CopyOnWriteMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            final SnapshotIterator it = new SnapshotIterator();
+            return new Iterator<V>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public V next() {
+                    return it.next().getValue();
+                }
+
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return removeMatching(c, false, VALUES);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return removeMatching(c, true, VALUES);
+        }
+
+        @Override
+        public void clear() {
+            CopyOnWriteMap.this.clear();
+        }
+    }
+
+    /**
+     * An entry of a snapshot, which puts its value into the map when set.
+     */
+    private final class WriteThroughEntry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        WriteThroughEntry(Map.Entry<K, V> entry) {
+            this.key = entry.getKey();
+            this.value = entry.getValue();
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            V previous = put(key, value);
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return (key == null ? other.getKey() == null : key.equals(other.getKey())) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
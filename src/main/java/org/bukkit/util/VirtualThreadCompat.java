@@ -0,0 +1,111 @@
+package org.bukkit.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Provides reflective access to virtual threads on Java runtimes that
+ * support them, without requiring a newer compile target.
+ */
+public final class VirtualThreadCompat {
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method IS_VIRTUAL;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method isVirtual = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            isVirtual = Thread.class.getMethod("isVirtual");
+
+            // Preview builds expose the methods but refuse to run them
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            ofVirtual = null;
+            builderName = null;
+            builderFactory = null;
+            isVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        IS_VIRTUAL = isVirtual;
+    }
+
+    private VirtualThreadCompat() {}
+
+    /**
+     * Gets if the running Java runtime can create virtual threads.
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a factory for virtual threads. Threads are named with the
+     * given prefix followed by an increasing counter.
+     *
+     * @param namePrefix the prefix for the thread names
+     * @return a virtual thread factory, or null if virtual threads are not
+     *     {@link #isSupported() supported}
+     * @throws IllegalArgumentException if namePrefix is null
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        Validate.notNull(namePrefix, "Name prefix cannot be null");
+        if (!isSupported()) {
+            return null;
+        }
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a factory for virtual threads, falling back to the given
+     * factory if virtual threads are not {@link #isSupported() supported}.
+     *
+     * @param namePrefix the prefix for the thread names
+     * @param fallback the factory to use without virtual thread support
+     * @return a virtual thread factory, or the fallback
+     * @throws IllegalArgumentException if namePrefix or fallback is null
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix, ThreadFactory fallback) {
+        Validate.notNull(fallback, "Fallback cannot be null");
+        ThreadFactory factory = newThreadFactory(namePrefix);
+        return factory != null ? factory : fallback;
+    }
+
+    /**
+     * Gets if the given thread is a virtual thread.
+     *
+     * @param thread the thread to check
+     * @return true if the thread is virtual
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (thread == null || IS_VIRTUAL == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+}
@@ -71,6 +71,14 @@ public class TestServer implements InvocationHandler {
                         }
                     }
                 );
+            methodMap.put(
+                    Server.class.getMethod("getUpdateFolder"),
+                    new MethodHandler() {
+                        public Object handle(TestServer server, Object[] args) {
+                            return "";
+                        }
+                    }
+                );
             methods = methodMap.build();
 
             TestServer server = new TestServer();
@@ -0,0 +1,103 @@
+package org.bukkit.command;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class CommandLineTest {
+    private static final Pattern PATTERN_ON_SPACE = Pattern.compile(" ", Pattern.LITERAL);
+
+    @Test
+    public void testLabelOnly() {
+        CommandLine line = new CommandLine("Help");
+        assertThat(line.getLabel(), is("Help"));
+        assertThat(line.hasArgs(), is(false));
+        assertThat(line.getArgs(), is(emptyArray()));
+        assertThat(line.getPartialArgs(), is(emptyArray()));
+    }
+
+    @Test
+    public void testLabelOf() {
+        assertThat(CommandLine.labelOf("Help"), is("Help"));
+        assertThat(CommandLine.labelOf("give \"Steve Jobs\" apple"), is("give"));
+        assertThat(CommandLine.labelOf(" tp"), is(""));
+    }
+
+    @Test
+    public void testTrailingSpaces() {
+        CommandLine line = new CommandLine("tp Steve  ");
+        assertThat(line.getLabel(), is("tp"));
+        assertThat(line.hasArgs(), is(true));
+        assertThat(line.getArgs(), is(new String[] { "Steve" }));
+        assertThat(line.getPartialArgs(), is(new String[] { "Steve", "", "" }));
+
+        line = new CommandLine("tp ");
+        assertThat(line.getArgs(), is(emptyArray()));
+        assertThat(line.getPartialArgs(), is(new String[] { "" }));
+    }
+
+    @Test
+    public void testArgsAreCopied() {
+        CommandLine line = new CommandLine("tp Steve Alex");
+        line.getArgs()[0] = "Notch";
+        line.getPartialArgs()[1] = "Notch";
+        assertThat(line.getArgs(), is(new String[] { "Steve", "Alex" }));
+        assertThat(line.getPartialArgs(), is(new String[] { "Steve", "Alex" }));
+    }
+
+    @Test
+    public void testSplitLikePattern() {
+        Random random = new Random(47);
+        char[] chars = { 'a', 'B', ' ', ' ', '"' };
+        for (int n = 0; n < 10000; n++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                builder.append(chars[random.nextInt(chars.length)]);
+            }
+            String text = builder.toString();
+
+            int space = text.indexOf(' ');
+            if (space == -1) {
+                continue;
+            }
+            CommandLine line = new CommandLine(text);
+            String argLine = text.substring(space + 1);
+            assertThat(text, line.getLabel(), is(text.substring(0, space)));
+            assertThat(text, line.getPartialArgs(), is(PATTERN_ON_SPACE.split(argLine, -1)));
+
+            String[] split = PATTERN_ON_SPACE.split(text);
+            String[] expected = split.length == 0 ? split : Arrays.copyOfRange(split, 1, split.length);
+            assertThat(text, line.getArgs(), is(expected));
+        }
+    }
+
+    @Test
+    public void testQuoted() {
+        CommandLine line = new CommandLine("give \"Steve Jobs\" apple \"\"", true);
+        assertThat(line.getArgs(), is(new String[] { "Steve Jobs", "apple", "" }));
+
+        line = new CommandLine("say \"a \\\"quoted\\\" \\\\ word\" c:\\dir", true);
+        assertThat(line.getArgs(), is(new String[] { "a \"quoted\" \\ word", "c:\\dir" }));
+
+        // Quotes not at the start of an argument, or not followed by a space
+        line = new CommandLine("say it\"s \"a\"b c\"", true);
+        assertThat(line.getArgs(), is(new String[] { "it\"s", "a\"b c" }));
+    }
+
+    @Test
+    public void testUnclosedQuote() {
+        CommandLine line = new CommandLine("msg \"Steve Jo", true);
+        assertThat(line.getArgs(), is(new String[] { "Steve Jo" }));
+        assertThat(line.getPartialArgs(), is(new String[] { "Steve Jo" }));
+
+        line = new CommandLine("msg \"Steve Jobs\" ", true);
+        assertThat(line.getArgs(), is(new String[] { "Steve Jobs" }));
+        assertThat(line.getPartialArgs(), is(new String[] { "Steve Jobs", "" }));
+    }
+}
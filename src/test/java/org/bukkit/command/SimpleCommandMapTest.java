@@ -0,0 +1,425 @@
+package org.bukkit.command;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import org.bukkit.Server;
+import org.bukkit.TestServer;
+import org.bukkit.plugin.SimplePluginManager;
+import org.bukkit.plugin.TestPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.Test;
+
+public class SimpleCommandMapTest {
+    private final SimpleCommandMap commandMap = new SimpleCommandMap(TestServer.getInstance());
+
+    @Test
+    public void testTabCompleteLabels() {
+        commandMap.register("test", new TestCommand("Warp", "warps"));
+        commandMap.register("test", new TestCommand("warn"));
+        commandMap.register("test", new TestCommand("war_room"));
+
+        assertThat(commandMap.tabComplete(sender(), "WAR"), contains("war_room", "warn", "warp", "warps"));
+        assertThat(commandMap.tabComplete(sender(), "warp"), contains("warp", "warps"));
+        assertThat(commandMap.tabComplete(sender(), "warz"), is(empty()));
+    }
+
+    @Test
+    public void testTabCompleteFallbacks() {
+        assertThat(commandMap.tabComplete(sender(), "op"), contains("op"));
+        assertThat(commandMap.tabComplete(sender(), "stop"), contains("stop"));
+
+        // A registered command hides the vanilla command with the same label
+        commandMap.register("test", new TestCommand("op"));
+        assertThat(commandMap.tabComplete(sender(), "op"), contains("op"));
+        assertThat(commandMap.getCommand("op"), is(instanceOf(TestCommand.class)));
+    }
+
+    @Test
+    public void testTabCompleteChecksMatchesOnly() {
+        TestCommand home = new TestCommand("home");
+        home.setPermission("test.home");
+        TestCommand sethome = new TestCommand("sethome");
+        sethome.setPermission("test.sethome");
+        commandMap.register("test", home);
+        commandMap.register("test", sethome);
+
+        Set<String> checked = new HashSet<String>();
+        assertThat(commandMap.tabComplete(sender(checked, "test.sethome"), "ho"), is(empty()));
+        assertThat(checked, contains("test.home"));
+
+        checked.clear();
+        assertThat(commandMap.tabComplete(sender(checked, "test.sethome"), "seth"), contains("sethome"));
+        assertThat(checked, contains("test.sethome"));
+    }
+
+    @Test
+    public void testTabCompleteAfterClear() {
+        commandMap.register("test", new TestCommand("warp"));
+        assertThat(commandMap.tabComplete(sender(), "warp"), contains("warp"));
+
+        commandMap.clearCommands();
+        assertThat(commandMap.tabComplete(sender(), "warp"), is(empty()));
+        assertThat(commandMap.tabComplete(sender(), "timings"), contains("timings"));
+    }
+
+    @Test
+    public void testRegisterServerAliases() {
+        final Map<String, String[]> aliases = new LinkedHashMap<String, String[]>();
+        aliases.put("Go", new String[] { "warp" });
+        aliases.put("both", new String[] { "go", "home", "missing" });
+        aliases.put("gone", new String[] { "warp" });
+        SimpleCommandMap commandMap = new SimpleCommandMap((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[] { Server.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getCommandAliases")) {
+                    return aliases;
+                } else if (method.getName().equals("getLogger")) {
+                    return Logger.getLogger(SimpleCommandMapTest.class.getName());
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        TestCommand warp = new TestCommand("warp");
+        TestCommand home = new TestCommand("home");
+        commandMap.register("test", warp);
+        commandMap.register("test", home);
+
+        commandMap.registerServerAliases();
+        Command go = commandMap.getCommand("go");
+        assertThat(((MultipleCommandAlias) go).getCommands(), is(arrayContaining((Command) warp)));
+        assertThat(((MultipleCommandAlias) commandMap.getCommand("both")).getCommands(), is(arrayContaining(go, home)));
+        assertThat(commandMap.getCommand("gone"), is(instanceOf(MultipleCommandAlias.class)));
+
+        aliases.put("gone", new String[] { "missing" });
+        commandMap.registerServerAliases();
+        assertThat(commandMap.getCommand("gone"), is(nullValue()));
+        assertThat(commandMap.getCommand("go"), is(instanceOf(MultipleCommandAlias.class)));
+    }
+
+    @Test
+    public void testAsyncTabComplete() {
+        final AtomicInteger calls = new AtomicInteger();
+        PluginCommand command = new PluginCommand("lookup", new TestPlugin("async"));
+        command.setAsyncTabCompleter(new AsyncTabCompleter() {
+            public List<String> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+                calls.incrementAndGet();
+                assertThat(Thread.currentThread().getName(), startsWith("Tab Completion Thread"));
+                return Arrays.asList(args[0] + "1", args[0] + "2");
+            }
+        });
+        commandMap.register("test", command);
+        commandMap.setAsyncTabCompleteTimeout(10, TimeUnit.SECONDS);
+
+        CommandSender sender = sender();
+        assertThat(commandMap.tabComplete(sender, "lookup ab"), contains("ab1", "ab2"));
+        assertThat(commandMap.tabComplete(sender, "LOOKUP ab"), contains("ab1", "ab2"));
+        assertThat(calls.get(), is(1));
+
+        assertThat(commandMap.tabComplete(sender, "lookup abc"), contains("abc1", "abc2"));
+        assertThat(commandMap.tabComplete(sender(), "lookup ab"), contains("ab1", "ab2"));
+        assertThat(calls.get(), is(3));
+
+        commandMap.setAsyncTabCompleteCacheTime(0, TimeUnit.SECONDS);
+        commandMap.tabComplete(sender, "lookup xyz");
+        commandMap.tabComplete(sender, "lookup xyz");
+        assertThat(calls.get(), is(5));
+    }
+
+    @Test
+    public void testAsyncTabCompleteTimeout() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        PluginCommand command = new PluginCommand("slow", new TestPlugin("async"));
+        command.setAsyncTabCompleter(new AsyncTabCompleter() {
+            public List<String> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                return Arrays.asList("done");
+            }
+        });
+        commandMap.register("test", command);
+        commandMap.setAsyncTabCompleteTimeout(10, TimeUnit.MILLISECONDS);
+
+        CommandSender sender = sender();
+        assertThat(commandMap.tabComplete(sender, "slow "), is(empty()));
+        release.countDown();
+
+        // The completions are kept for the next attempt
+        commandMap.setAsyncTabCompleteTimeout(10, TimeUnit.SECONDS);
+        assertThat(commandMap.tabComplete(sender, "slow "), contains("done"));
+    }
+
+    @Test
+    public void testAsyncTabCompleteQueueFull() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        PluginCommand command = new PluginCommand("queued", new TestPlugin("async"));
+        command.setAsyncTabCompleter(new AsyncTabCompleter() {
+            public List<String> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                return Arrays.asList("done");
+            }
+        });
+        commandMap.register("test", command);
+        commandMap.setAsyncTabCompleteTimeout(1, TimeUnit.MILLISECONDS);
+
+        // Far more completions than the threads and queue can hold
+        CommandSender sender = sender();
+        for (int i = 0; i < 200; i++) {
+            assertThat(commandMap.tabComplete(sender, "queued " + i), is(empty()));
+        }
+        assertThat(calls.get(), is(lessThanOrEqualTo(2)));
+        release.countDown();
+
+        // The first completion was running, and finishes into the cache
+        commandMap.setAsyncTabCompleteTimeout(10, TimeUnit.SECONDS);
+        assertThat(commandMap.tabComplete(sender, "queued 0"), contains("done"));
+    }
+
+    @Test(expected = CommandException.class)
+    public void testAsyncTabCompleteException() {
+        PluginCommand command = new PluginCommand("broken", new TestPlugin("async"));
+        command.setAsyncTabCompleter(new AsyncTabCompleter() {
+            public List<String> onTabCompleteAsync(CommandSender sender, Command command, String alias, String[] args) {
+                throw new IllegalStateException();
+            }
+        });
+        commandMap.register("test", command);
+        commandMap.setAsyncTabCompleteTimeout(10, TimeUnit.SECONDS);
+        commandMap.tabComplete(sender(), "broken ");
+    }
+
+    @Test
+    public void testDispatchAsync() {
+        final List<Runnable> scheduled = new ArrayList<Runnable>();
+        SimpleCommandMap commandMap = new SimpleCommandMap(server(scheduled));
+        final AtomicReference<String[]> executed = new AtomicReference<String[]>();
+        CommandExecutor executor = new CommandExecutor() {
+            public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+                executed.set(args);
+                return true;
+            }
+        };
+        PluginCommand stats = new PluginCommand("stats", new TestPlugin("async"));
+        stats.setExecutor(executor);
+        stats.setAsync(true);
+        PluginCommand kick = new PluginCommand("kickall", new TestPlugin("async"));
+        kick.setExecutor(executor);
+        commandMap.register("test", stats);
+        commandMap.register("test", kick);
+
+        assertThat(commandMap.dispatch(sender(), "kickall now"), is(true));
+        assertThat(executed.get(), is(new String[] { "now" }));
+        assertThat(scheduled, is(empty()));
+
+        executed.set(null);
+        assertThat(commandMap.dispatch(sender(), "stats top 10"), is(true));
+        assertThat(executed.get(), is(nullValue()));
+        assertThat(scheduled, hasSize(1));
+        SimplePluginManager pluginManager = (SimplePluginManager) TestServer.getInstance().getPluginManager();
+        pluginManager.useTimings(true);
+        try {
+            scheduled.get(0).run();
+        } finally {
+            pluginManager.useTimings(false);
+        }
+        assertThat(executed.get(), is(new String[] { "top", "10" }));
+
+        // Timed apart from the main thread
+        assertThat(commandMap.getTimings(stats).getAsyncExecution().getCount(), is(1));
+        assertThat(commandMap.getTimings(stats).getExecution().getCount(), is(0));
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws InterruptedException {
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    CommandSender sender = sender();
+                    while (!done.get()) {
+                        for (Command command : commandMap.getCommands()) {
+                            assertThat(command, is(notNullValue()));
+                        }
+                        commandMap.tabComplete(sender, "cmd");
+                        commandMap.getCommand("cmd1");
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        };
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            commandMap.register("test", new TestCommand("cmd" + i, "alias" + i));
+        }
+        done.set(true);
+        reader.join();
+
+        assertThat(failure.get(), is(nullValue()));
+        assertThat(commandMap.tabComplete(sender(), "cmd1999"), contains("cmd1999"));
+    }
+
+    @Test
+    public void testQuotedArgs() {
+        final AtomicReference<String[]> executed = new AtomicReference<String[]>();
+        PluginCommand command = new PluginCommand("give", new TestPlugin("quoted"));
+        command.setExecutor(new CommandExecutor() {
+            public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+                executed.set(args);
+                return true;
+            }
+        });
+        command.setTabCompleter(new TabCompleter() {
+            public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+                return Arrays.asList(args);
+            }
+        });
+        commandMap.register("test", command);
+
+        commandMap.dispatch(sender(), "give \"Steve Jobs\" apple");
+        assertThat(executed.get(), is(new String[] { "\"Steve", "Jobs\"", "apple" }));
+        assertThat(commandMap.tabComplete(sender(), "give \"Steve Jo"), contains("\"Steve", "Jo"));
+
+        command.setQuotedArgs(true);
+        commandMap.dispatch(sender(), "give \"Steve Jobs\" apple");
+        assertThat(executed.get(), is(new String[] { "Steve Jobs", "apple" }));
+        assertThat(commandMap.tabComplete(sender(), "give \"Steve Jo"), contains("Steve Jo"));
+    }
+
+    @Test
+    public void testTimings() {
+        TestPlugin plugin = new TestPlugin("timed");
+        PluginCommand stats = new PluginCommand("stats", plugin);
+        stats.setExecutor(new CommandExecutor() {
+            public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+                if (args[0].equals("fail")) {
+                    throw new IllegalStateException();
+                }
+                return true;
+            }
+        });
+        stats.setTabCompleter(new TabCompleter() {
+            public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+                return Arrays.asList("top");
+            }
+        });
+        TestCommand plain = new TestCommand("plain");
+        commandMap.register("test", stats);
+        commandMap.register("test", plain);
+
+        // Nothing is recorded while timings are disabled
+        commandMap.dispatch(sender(), "stats ok");
+        assertThat(commandMap.getTimings(stats), is(nullValue()));
+
+        SimplePluginManager pluginManager = (SimplePluginManager) TestServer.getInstance().getPluginManager();
+        pluginManager.useTimings(true);
+        try {
+            commandMap.dispatch(sender(), "stats ok");
+            try {
+                commandMap.dispatch(sender(), "stats fail");
+                fail("Exception not thrown");
+            } catch (CommandException ex) {
+            }
+            commandMap.dispatch(sender(), "plain");
+            commandMap.tabComplete(sender(), "stats ");
+        } finally {
+            pluginManager.useTimings(false);
+        }
+
+        CommandTimings.Timing execution = commandMap.getTimings(stats).getExecution();
+        assertThat(execution.getCount(), is(2));
+        assertThat(execution.getExceptionCount(), is(1));
+        assertThat(execution.getMaxTime(), is(greaterThan(0L)));
+        assertThat(execution.getTotalTime(), is(greaterThanOrEqualTo(execution.getMaxTime())));
+        assertThat(commandMap.getTimings(stats).getTabCompletion().getCount(), is(1));
+
+        assertThat(commandMap.getTimings(plugin).getExecution().getCount(), is(2));
+        assertThat(commandMap.getTimings(new TestPlugin("other")).getExecution().getCount(), is(0));
+        assertThat(commandMap.getTimings().keySet(), containsInAnyOrder((Command) stats, plain));
+
+        commandMap.resetTimings();
+        assertThat(execution.getCount(), is(0));
+        assertThat(execution.getMaxTime(), is(0L));
+    }
+
+    private static Server server(final List<Runnable> scheduled) {
+        final BukkitScheduler scheduler = (BukkitScheduler) Proxy.newProxyInstance(BukkitScheduler.class.getClassLoader(), new Class<?>[] { BukkitScheduler.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("runTaskAsynchronously")) {
+                    scheduled.add((Runnable) args[1]);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[] { Server.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("isPrimaryThread")) {
+                    return true;
+                } else if (method.getName().equals("getScheduler")) {
+                    return scheduler;
+                } else if (method.getName().equals("getPluginManager")) {
+                    return TestServer.getInstance().getPluginManager();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static CommandSender sender(final String... permissions) {
+        return sender(new HashSet<String>(), permissions);
+    }
+
+    private static CommandSender sender(final Set<String> checked, final String... permissions) {
+        final List<String> granted = Arrays.asList(permissions);
+        return (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(), new Class<?>[] { CommandSender.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("hasPermission")) {
+                    checked.add((String) args[0]);
+                    return granted.contains(args[0]) || ((String) args[0]).startsWith("bukkit.");
+                } else if (method.getName().equals("isOp")) {
+                    return false;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static class TestCommand extends Command {
+        TestCommand(String name, String... aliases) {
+            super(name, "", "/" + name, Arrays.asList(aliases));
+        }
+
+        @Override
+        public boolean execute(CommandSender sender, String commandLabel, String[] args) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.bukkit.configuration;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ConfigPathTest {
+    @Test
+    public void testCompile() {
+        ConfigPath path = ConfigPath.compile("a.b..c");
+
+        assertEquals("a.b..c", path.getPath());
+        assertEquals('.', path.getSeparator());
+        assertEquals(4, path.length());
+        assertEquals("a", path.getKey(0));
+        assertEquals("b", path.getKey(1));
+        assertEquals("", path.getKey(2));
+        assertEquals("c", path.getKey(3));
+    }
+
+    @Test
+    public void testCompileEmpty() {
+        assertEquals(0, ConfigPath.compile("").length());
+        assertEquals(1, ConfigPath.compile("key").length());
+        assertEquals(2, ConfigPath.compile("key.").length());
+    }
+
+    @Test
+    public void testSeparator() {
+        ConfigPath path = ConfigPath.compile("a/b.c", '/');
+
+        assertEquals(2, path.length());
+        assertEquals("b.c", path.getKey(1));
+        assertEquals("a/b.c", path.toString('/'));
+        assertEquals("a|b.c", path.toString('|'));
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(ConfigPath.compile("a.b"), ConfigPath.compile("a/b", '/'));
+        assertEquals(ConfigPath.compile("a.b").hashCode(), ConfigPath.compile("a/b", '/').hashCode());
+        assertFalse(ConfigPath.compile("a.b").equals(ConfigPath.compile("a.c")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPath() {
+        ConfigPath.compile(null);
+    }
+}
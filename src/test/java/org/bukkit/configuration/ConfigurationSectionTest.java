@@ -540,6 +540,58 @@ public abstract class ConfigurationSectionTest {
         assertFalse(section.isConfigurationSection("doesntExist"));
     }
 
+    @Test
+    public void testCompiledPaths() {
+        ConfigurationSection section = getConfigurationSection();
+        ConfigPath path = ConfigPath.compile("a.b.c");
+
+        section.set(path, "value");
+        assertEquals("value", section.getString("a.b.c"));
+        assertEquals("value", section.get(path));
+        assertEquals("value", section.getString(path));
+        assertTrue(section.contains(path));
+        assertTrue(section.isSet(path));
+        assertEquals(section.getConfigurationSection("a.b"), section.getConfigurationSection(ConfigPath.compile("a.b")));
+        assertEquals(section, section.get(ConfigPath.compile("")));
+
+        section.set("a.number", 5);
+        assertEquals(5, section.getInt(ConfigPath.compile("a.number")));
+        assertEquals(5L, section.getLong(ConfigPath.compile("a.number")));
+        assertEquals(5.0, section.getDouble(ConfigPath.compile("a.number")), 0);
+        assertEquals(7, section.getInt(ConfigPath.compile("a.missing"), 7));
+        assertFalse(section.getBoolean(ConfigPath.compile("a.number")));
+        assertNull(section.getString(ConfigPath.compile("a.number.missing")));
+
+        section.set("list", Arrays.asList("x", 1));
+        assertEquals(Arrays.asList("x", "1"), section.getStringList(ConfigPath.compile("list")));
+
+        section.createSection(ConfigPath.compile("d.e"));
+        assertTrue(section.isConfigurationSection("d.e"));
+
+        section.set(path, null);
+        assertFalse(section.contains(path));
+        assertFalse(section.contains("a.b.c"));
+    }
+
+    @Test
+    public void testCompiledPathsWithCache() {
+        ConfigurationSection section = getConfigurationSection();
+        section.getRoot().options().pathCacheSize(2);
+
+        section.set("a.b", 1);
+        section.set("a.c", 2);
+        section.set("d", 3);
+
+        assertEquals(1, section.getInt("a.b"));
+        assertEquals(2, section.getInt("a.c"));
+        assertEquals(3, section.getInt("d"));
+        assertEquals(1, section.getInt(ConfigPath.compile("a.b")));
+
+        section.getRoot().options().pathSeparator('/');
+        assertEquals(2, section.getInt("a/c"));
+        assertEquals(0, section.getInt("a.c"));
+    }
+
     public enum TestEnum {
         HELLO,
         WORLD,
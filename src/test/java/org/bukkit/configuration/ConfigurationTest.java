@@ -153,4 +153,22 @@ public abstract class ConfigurationTest {
 
         assertEquals(defaults, config.getDefaults());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompiledPathDefaults() {
+        Configuration config = getConfig();
+        config.addDefault("section.key", "default");
+        config.set("section.other", "value");
+
+        ConfigPath path = ConfigPath.compile("section.key");
+        assertEquals("default", config.getString(path));
+        assertTrue(config.contains(path));
+        assertFalse(config.isSet(path));
+        assertEquals("default", config.getConfigurationSection("section").getString(ConfigPath.compile("key")));
+
+        config.options().pathCacheSize(16);
+        assertEquals("default", config.getString("section.key"));
+        assertEquals("default", config.getConfigurationSection("section").getString("key"));
+        assertEquals("value", config.getString("section.other"));
+    }
+}
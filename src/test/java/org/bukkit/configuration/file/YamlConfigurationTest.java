@@ -1,5 +1,13 @@
 package org.bukkit.configuration.file;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.util.Vector;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -53,4 +61,112 @@ public class YamlConfigurationTest extends FileConfigurationTest {
 
         assertEquals(expected, result);
     }
+
+    @Test
+    public void testLoadAnchorsAndMergeKeys() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.loadFromString("base: &base\n" +
+            "  a: 1\n" +
+            "  b: 2\n" +
+            "other:\n" +
+            "  b: 3\n" +
+            "  <<: *base\n" +
+            "  c: 4\n" +
+            "list: &list [1, 2]\n" +
+            "copy: *list\n");
+
+        assertTrue(config.isConfigurationSection("base"));
+        ConfigurationSection other = config.getConfigurationSection("other");
+        assertEquals(1, other.getInt("a"));
+        assertEquals(3, other.getInt("b"));
+        assertEquals(4, other.getInt("c"));
+        assertEquals(Arrays.asList(1, 2), config.getList("copy"));
+    }
+
+    @Test
+    public void testLoadTopLevelMergeReplacesOldValues() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.loadFromString("a: 1\nb: 2\n");
+        config.loadFromString("<<: {a: 3, b: 4}\nb: 5\n");
+
+        assertEquals(3, config.getInt("a"));
+        assertEquals(5, config.getInt("b"));
+    }
+
+    @Test
+    public void testLoadNestedSerializedObject() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.loadFromString("vectors:\n" +
+            "  first:\n" +
+            "    ==: Vector\n" +
+            "    x: 1.0\n" +
+            "    y: 2.0\n" +
+            "    z: 3.0\n");
+
+        assertEquals(new Vector(1, 2, 3), config.getVector("vectors.first"));
+    }
+
+    @Test
+    public void testLoadReaderHeader() throws Exception {
+        String contents = "# First line\r\n# Second line\r#\n\n# After blank\n\nkey: value\n# Not a header\n";
+
+        YamlConfiguration config = getConfig();
+        config.load(new StringReader(contents));
+
+        assertEquals(config.parseHeader(contents.replaceAll("\r\n?", "\n")), config.options().header());
+        assertEquals("value", config.getString("key"));
+    }
+
+    @Test
+    public void testLoadReaderLaterHeader() throws Exception {
+        String contents = "#not a comment\nkey: value\n#\n# Header\n# Lines\n\nother: 1\n";
+
+        YamlConfiguration config = getConfig();
+        config.load(new StringReader(contents));
+
+        assertEquals(config.parseHeader(contents), config.options().header());
+        assertEquals(1, config.getInt("other"));
+    }
+
+    @Test
+    public void testLoadInvalidKeepsValues() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.set("section.a", 1);
+        config.set("keep", 2);
+
+        try {
+            config.loadFromString("section:\n  b: 3\nkeep: 4\nlist: [unclosed\n");
+            fail("Should not load invalid YAML");
+        } catch (InvalidConfigurationException ex) {
+        }
+
+        assertEquals(1, config.getInt("section.a"));
+        assertFalse(config.contains("section.b"));
+        assertEquals(2, config.getInt("keep"));
+        assertFalse(config.contains("list"));
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void testLoadTopLevelList() throws Exception {
+        getConfig().loadFromString("- 1\n- 2\n");
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void testLoadMultipleDocuments() throws Exception {
+        getConfig().loadFromString("a: 1\n---\nb: 2\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadReaderException() throws Exception {
+        getConfig().load(new Reader() {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("Read failed");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
 }
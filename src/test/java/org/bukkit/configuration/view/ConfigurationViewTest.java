@@ -0,0 +1,211 @@
+package org.bukkit.configuration.view;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.util.Vector;
+import org.junit.Test;
+
+public class ConfigurationViewTest {
+    public enum Mode {
+        SURVIVAL,
+        HARD_CORE
+    }
+
+    public interface Database {
+        @ConfigValue(value = "host", required = true)
+        String host();
+
+        @ConfigValue("port")
+        int port();
+    }
+
+    public interface Settings {
+        @ConfigValue("name")
+        String name();
+
+        @ConfigValue("limits.players")
+        int maxPlayers();
+
+        @ConfigValue("limits.ratio")
+        double ratio();
+
+        @ConfigValue("limits.timeout")
+        Long timeout();
+
+        @ConfigValue("enabled")
+        boolean enabled();
+
+        @ConfigValue("mode")
+        Mode mode();
+
+        @ConfigValue("worlds")
+        List<String> worlds();
+
+        @ConfigValue("ids")
+        List<Integer> ids();
+
+        @ConfigValue("spawn")
+        Vector spawn();
+
+        @ConfigValue("limits")
+        ConfigurationSection limits();
+
+        @ConfigValue("database")
+        Database database();
+    }
+
+    public interface Required {
+        @ConfigValue(value = "value", required = true)
+        int value();
+    }
+
+    public interface Unannotated {
+        int value();
+    }
+
+    public interface WithParameter {
+        @ConfigValue("value")
+        int value(int def);
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("name", "Server");
+        config.set("limits.players", 20);
+        config.set("limits.ratio", 2);
+        config.set("limits.timeout", "30");
+        config.set("enabled", true);
+        config.set("mode", "hard-core");
+        config.set("worlds", Arrays.asList("world", "nether"));
+        config.set("ids", Arrays.asList(1, "2", 3.0));
+        config.set("spawn", new Vector(1, 2, 3));
+        config.set("database.host", "localhost");
+        config.set("database.port", 3306);
+
+        ConfigurationView<Settings> view = ConfigurationView.of(Settings.class);
+        assertFalse(view.isLoaded());
+        Settings settings = view.load(config);
+        assertTrue(view.isLoaded());
+        assertSame(settings, view.get());
+
+        assertEquals("Server", settings.name());
+        assertEquals(20, settings.maxPlayers());
+        assertEquals(2.0, settings.ratio(), 0);
+        assertEquals(Long.valueOf(30), settings.timeout());
+        assertTrue(settings.enabled());
+        assertEquals(Mode.HARD_CORE, settings.mode());
+        assertEquals(Arrays.asList("world", "nether"), settings.worlds());
+        assertEquals(Arrays.asList(1, 2, 3), settings.ids());
+        assertEquals(new Vector(1, 2, 3), settings.spawn());
+        assertSame(config.getConfigurationSection("limits"), settings.limits());
+        assertEquals("localhost", settings.database().host());
+        assertEquals(3306, settings.database().port());
+    }
+
+    @Test
+    public void testMissingValues() throws Exception {
+        Settings settings = ConfigurationView.of(Settings.class).load(new MemoryConfiguration());
+
+        assertNull(settings.name());
+        assertEquals(0, settings.maxPlayers());
+        assertNull(settings.timeout());
+        assertFalse(settings.enabled());
+        assertNull(settings.mode());
+        assertEquals(Collections.emptyList(), settings.worlds());
+        assertNull(settings.database());
+    }
+
+    @Test
+    public void testDefaults() throws Exception {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.addDefault("limits.players", 10);
+
+        assertEquals(10, ConfigurationView.of(Settings.class).load(config).maxPlayers());
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("limits.players", 20);
+
+        ConfigurationView<Settings> view = ConfigurationView.of(Settings.class);
+        Settings settings = view.load(config);
+        assertEquals(20, settings.maxPlayers());
+
+        config.set("limits.players", 30);
+        assertEquals(20, settings.maxPlayers());
+
+        view.load(config);
+        assertEquals(30, settings.maxPlayers());
+    }
+
+    @Test
+    public void testInvalidValues() throws Exception {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("limits.players", 20);
+
+        ConfigurationView<Settings> view = ConfigurationView.of(Settings.class);
+        Settings settings = view.load(config);
+
+        config.set("limits.players", "many");
+        config.set("mode", "creative");
+        config.set("ids", Arrays.asList(1, "two"));
+        config.set("database.port", 3306);
+        try {
+            view.load(config);
+            fail("Should not load invalid values");
+        } catch (InvalidConfigurationException ex) {
+            String message = ex.getMessage();
+            assertTrue(message, message.contains("limits.players: expected a whole number, but found 'many'"));
+            assertTrue(message, message.contains("mode: expected one of SURVIVAL, HARD_CORE"));
+            assertTrue(message, message.contains("ids[1]: expected a whole number, but found 'two'"));
+            assertTrue(message, message.contains("database.host: is required, but missing"));
+        }
+
+        assertEquals(20, settings.maxPlayers());
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void testRequired() throws Exception {
+        ConfigurationView.of(Required.class).load(new MemoryConfiguration());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotLoaded() {
+        ConfigurationView.of(Required.class).get().value();
+    }
+
+    @Test
+    public void testObjectMethods() throws Exception {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("value", 5);
+
+        Required required = ConfigurationView.of(Required.class).load(config);
+        assertEquals("Required{value=5}", required.toString());
+        assertTrue(required.equals(required));
+        assertEquals(System.identityHashCode(required), required.hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnannotated() {
+        ConfigurationView.of(Unannotated.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParameters() {
+        ConfigurationView.of(WithParameter.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotInterface() {
+        ConfigurationView.of(String.class);
+    }
+}
@@ -3,7 +3,10 @@ package org.bukkit.metadata;
 import org.bukkit.plugin.TestPlugin;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -113,6 +116,186 @@ public class LazyMetadataValueTest {
         assertEquals(1, counter.value());
     }
 
+    @Test
+    public void testCacheStrategyExpireAfterWrite() throws InterruptedException {
+        final Counter counter = new Counter();
+        subject = new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.EXPIRE_AFTER_WRITE, 50, TimeUnit.MILLISECONDS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                return counter.value();
+            }
+        });
+
+        assertEquals(1, subject.value());
+        assertEquals(1, subject.value());
+
+        Thread.sleep(100);
+        assertEquals(2, subject.value());
+
+        subject.invalidate();
+        assertEquals(3, subject.value());
+    }
+
+    @Test
+    public void testCacheStrategyRefreshAhead() {
+        final Counter counter = new Counter();
+        final List<Runnable> scheduled = new ArrayList<Runnable>();
+        subject = new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_AHEAD, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                return counter.value();
+            }
+        }) {
+            @Override
+            protected void scheduleRefresh(Runnable task) {
+                scheduled.add(task);
+            }
+        };
+
+        assertEquals(1, subject.value());
+        assertTrue(scheduled.isEmpty());
+
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        assertEquals(1, subject.value());
+        assertEquals(1, scheduled.size());
+        assertEquals(1, counter.value());
+
+        scheduled.get(0).run();
+        assertEquals(2, subject.value());
+        assertEquals(1, scheduled.size());
+    }
+
+    @Test
+    public void testRefreshAheadInvalidatedWhileRefreshing() {
+        final List<Runnable> scheduled = new ArrayList<Runnable>();
+        final Counter counter = new Counter();
+        subject = new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_AHEAD, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                if (counter.value() == 2) {
+                    // Invalidated while the first refresh is running
+                    subject.invalidate();
+                }
+                return counter.value();
+            }
+        }) {
+            @Override
+            protected void scheduleRefresh(Runnable task) {
+                scheduled.add(task);
+            }
+        };
+
+        subject.value();
+        subject.invalidate();
+        subject.value();
+        scheduled.get(0).run();
+
+        assertEquals(2, subject.value());
+        assertEquals(2, scheduled.size());
+    }
+
+    @Test
+    public void testRefreshAheadLoaderThrows() {
+        final List<Runnable> scheduled = new ArrayList<Runnable>();
+        final Counter counter = new Counter();
+        subject = new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_AHEAD, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                if (counter.value() == 2) {
+                    throw new Exception("Loader failed");
+                }
+                return counter.value();
+            }
+        }) {
+            @Override
+            protected void scheduleRefresh(Runnable task) {
+                scheduled.add(task);
+            }
+        };
+
+        subject.value();
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        scheduled.get(0).run();
+
+        // Still stale, so the next read tries again
+        assertEquals(1, subject.value());
+        assertEquals(2, scheduled.size());
+        scheduled.get(1).run();
+        assertEquals(3, subject.value());
+    }
+
+    @Test
+    public void testRefreshAheadSchedulingThrows() {
+        final Counter attempts = new Counter();
+        subject = new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_AHEAD, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                return 1;
+            }
+        }) {
+            @Override
+            protected void scheduleRefresh(Runnable task) {
+                attempts.increment();
+                throw new IllegalStateException("Scheduler unavailable");
+            }
+        };
+
+        subject.value();
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        assertEquals(1, subject.value());
+        assertEquals(2, attempts.value());
+    }
+
+    @Test
+    public void testRefreshAheadLostTask() throws InterruptedException {
+        final List<Runnable> scheduled = new ArrayList<Runnable>();
+        subject = new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_AHEAD, 1, TimeUnit.MILLISECONDS, new Callable<Object>() {
+            public Object call() throws Exception {
+                return 1;
+            }
+        }) {
+            @Override
+            protected void scheduleRefresh(Runnable task) {
+                // Never run
+                scheduled.add(task);
+            }
+        };
+
+        subject.value();
+        Thread.sleep(5);
+        subject.value();
+        assertEquals(1, scheduled.size());
+        Thread.sleep(5);
+        subject.value();
+        assertEquals(2, scheduled.size());
+    }
+
+    @Test
+    public void testCounters() {
+        subject = makeSimpleCallable(10);
+        subject.value();
+        subject.value();
+        subject.value();
+        subject.invalidate();
+        subject.value();
+
+        assertEquals(2, subject.getHitCount());
+        assertEquals(2, subject.getMissCount());
+        assertEquals(2, subject.getEvaluationCount());
+        assertTrue(subject.getEvaluationTime() >= 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testExpiringStrategyRequiresDuration() {
+        new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_AHEAD, new Callable<Object>() {
+            public Object call() throws Exception {
+                return null;
+            }
+        });
+    }
+
     private LazyMetadataValue makeSimpleCallable(final Object value) {
         return new LazyMetadataValue(plugin, new Callable<Object>() {
             public Object call() throws Exception {
@@ -0,0 +1,100 @@
+package org.bukkit.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.TestPlugin;
+import org.junit.Test;
+
+public class MetadataKeyTest {
+    private static final MetadataKey<Integer> KILLS = new MetadataKey<Integer>("kills", Integer.class);
+    private static final MetadataKey<String> TITLE = new MetadataKey<String>("title", String.class);
+
+    private Plugin pluginX = new TestPlugin("x");
+    private Plugin pluginY = new TestPlugin("y");
+    private Holder holder = new Holder();
+
+    @Test
+    public void testSetAndGet() {
+        KILLS.set(holder, pluginX, 5);
+        KILLS.set(holder, pluginY, 7);
+
+        assertTrue(KILLS.has(holder));
+        assertEquals(Integer.valueOf(5), KILLS.get(holder, pluginX));
+        assertEquals(7, KILLS.getValue(holder, pluginY).asInt());
+        assertTrue(KILLS.getValue(holder, pluginX) instanceof IntMetadataValue);
+    }
+
+    @Test
+    public void testUntypedAccess() {
+        KILLS.set(holder, pluginX, 5);
+        assertEquals(5, holder.getMetadata("kills").get(0).value());
+
+        TITLE.set(holder, pluginX, "Champion");
+        assertTrue(holder.getMetadata("title").get(0) instanceof FixedMetadataValue);
+        assertEquals("Champion", TITLE.get(holder, pluginX));
+    }
+
+    @Test
+    public void testMissing() {
+        assertFalse(KILLS.has(holder));
+        assertNull(KILLS.get(holder, pluginX));
+        assertNull(KILLS.getValue(holder, pluginX));
+    }
+
+    @Test
+    public void testRemove() {
+        KILLS.set(holder, pluginX, 5);
+        KILLS.remove(holder, pluginX);
+        assertFalse(KILLS.has(holder));
+    }
+
+    @Test
+    public void testPrimitiveType() {
+        MetadataKey<Integer> key = new MetadataKey<Integer>("kills", int.class);
+        assertEquals(KILLS, key);
+        key.set(holder, pluginX, 3);
+        assertEquals(Integer.valueOf(3), KILLS.get(holder, pluginX));
+    }
+
+    @Test(expected=MetadataConversionException.class)
+    public void testWrongType() {
+        holder.setMetadata("kills", new FixedMetadataValue(pluginX, "many"));
+        KILLS.get(holder, pluginX);
+    }
+
+    private static class Holder implements Metadatable {
+        private final MetadataStoreBase<Holder> store = new MetadataStoreBase<Holder>() {
+            @Override
+            protected Object identify(Holder subject) {
+                return subject;
+            }
+
+            @Override
+            protected String disambiguate(Holder subject, String metadataKey) {
+                return System.identityHashCode(subject) + ":" + metadataKey;
+            }
+        };
+
+        public void setMetadata(String metadataKey, MetadataValue newMetadataValue) {
+            store.setMetadata(this, metadataKey, newMetadataValue);
+        }
+
+        public List<MetadataValue> getMetadata(String metadataKey) {
+            return store.getMetadata(this, metadataKey);
+        }
+
+        public boolean hasMetadata(String metadataKey) {
+            return store.hasMetadata(this, metadataKey);
+        }
+
+        public void removeMetadata(String metadataKey, Plugin owningPlugin) {
+            store.removeMetadata(this, metadataKey, owningPlugin);
+        }
+    }
+}
@@ -2,15 +2,32 @@ package org.bukkit.metadata;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 
+import org.bukkit.Chunk;
+import org.bukkit.TestServer;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.TestPlugin;
 import org.junit.Test;
 
+import com.google.common.base.Predicate;
+
 public class MetadataStoreTest {
     private Plugin pluginX = new TestPlugin("x");
     private Plugin pluginY = new TestPlugin("y");
@@ -122,6 +139,221 @@ public class MetadataStoreTest {
         assertFalse(subject.hasMetadata("subject", "otherKey"));
     }
 
+    @Test
+    public void testIdentifiedStore() {
+        IdentifiedMetadataStore identified = new IdentifiedMetadataStore();
+        identified.setMetadata(new StringBuilder("subject"), "key", new FixedMetadataValue(pluginX, 10));
+        identified.setMetadata(new StringBuilder("subject"), "otherKey", new FixedMetadataValue(pluginY, 20));
+
+        assertTrue(identified.hasMetadata(new StringBuilder("subject"), "key"));
+        assertFalse(identified.hasMetadata(new StringBuilder("other"), "key"));
+        assertEquals(20, identified.getMetadata(new StringBuilder("subject"), "otherKey").get(0).value());
+
+        identified.removeMetadata(new StringBuilder("subject"), "key", pluginX);
+        assertFalse(identified.hasMetadata(new StringBuilder("subject"), "key"));
+        assertTrue(identified.hasMetadata(new StringBuilder("subject"), "otherKey"));
+    }
+
+    @Test
+    public void testKeysDoNotCollideAcrossSubjects() {
+        subject.setMetadata("a:b", "c", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("a", "b:c", new FixedMetadataValue(pluginX, 20));
+
+        assertEquals(1, subject.getMetadata("a:b", "c").size());
+        assertEquals(1, subject.getMetadata("a", "b:c").size());
+    }
+
+    @Test
+    public void testMetadataSnapshot() {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        List<MetadataValue> values = subject.getMetadata("subject", "key");
+
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginY, 20));
+        subject.removeMetadata("subject", "key", pluginX);
+
+        assertEquals(1, values.size());
+        assertEquals(10, values.get(0).value());
+        assertEquals(20, subject.getMetadata("subject", "key").get(0).value());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testMetadataUnmodifiable() {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.getMetadata("subject", "key").clear();
+    }
+
+    @Test
+    public void testConcurrentSet() throws InterruptedException {
+        final int threadCount = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final Plugin plugin = new TestPlugin("plugin" + i);
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        subject.setMetadata("subject", "key", new FixedMetadataValue(plugin, j));
+                        subject.setMetadata("subject" + j, "key", new FixedMetadataValue(plugin, j));
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount, subject.getMetadata("subject", "key").size());
+        assertEquals(threadCount, subject.getMetadata("subject999", "key").size());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("subject", "otherKey", new FixedMetadataValue(pluginY, 20));
+        subject.setMetadata("other", "key", new FixedMetadataValue(pluginX, 30));
+
+        subject.removeAll("subject");
+        assertFalse(subject.hasMetadata("subject", "key"));
+        assertFalse(subject.hasMetadata("subject", "otherKey"));
+        assertTrue(subject.hasMetadata("other", "key"));
+        assertEquals(1, subject.size());
+    }
+
+    @Test
+    public void testIndexDoesNotKeepPlugin() {
+        Plugin plugin = new TestPlugin("collected");
+        subject.setMetadata("subject", "key", new FixedMetadataValue(plugin, 10));
+        assertEquals(1, subject.size(plugin));
+
+        WeakReference<Plugin> reference = new WeakReference<Plugin>(plugin);
+        plugin = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+
+        assertNull(reference.get());
+        assertEquals(0, subject.size(new TestPlugin("collected")));
+    }
+
+    @Test
+    public void testRemoveAllMatching() {
+        subject.setMetadata("chunk1:a", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("chunk1:b", "key", new FixedMetadataValue(pluginY, 20));
+        subject.setMetadata("chunk2:a", "key", new FixedMetadataValue(pluginX, 30));
+
+        int removed = subject.removeAll(new Predicate<Object>() {
+            public boolean apply(Object id) {
+                return ((String) id).startsWith("chunk1:");
+            }
+        });
+        assertEquals(2, removed);
+        assertFalse(subject.hasMetadata("chunk1:a", "key"));
+        assertTrue(subject.hasMetadata("chunk2:a", "key"));
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(0, subject.size());
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginY, 20));
+        subject.setMetadata("subject", "otherKey", new FixedMetadataValue(pluginX, 30));
+        subject.setMetadata("other", "key", new FixedMetadataValue(pluginX, 40));
+
+        assertEquals(2, subject.size());
+        assertEquals(3, subject.size(pluginX));
+        assertEquals(1, subject.size(pluginY));
+
+        subject.removeMetadata("subject", "key", pluginY);
+        assertEquals(0, subject.size(pluginY));
+    }
+
+    @Test
+    public void testRemoveAllForPlugin() {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginY, 20));
+        subject.setMetadata("other", "key", new FixedMetadataValue(pluginX, 30));
+
+        subject.removeAll(pluginX);
+        assertEquals(1, subject.getMetadata("subject", "key").size());
+        assertEquals(20, subject.getMetadata("subject", "key").get(0).value());
+        assertFalse(subject.hasMetadata("other", "key"));
+        assertEquals(0, subject.size(pluginX));
+        assertEquals(1, subject.size());
+
+        subject.setMetadata("other", "key", new FixedMetadataValue(pluginX, 40));
+        assertEquals(1, subject.size(pluginX));
+    }
+
+    @Test
+    public void testRemoveOnDisable() {
+        TestPlugin plugin = new TestPlugin("eviction");
+        plugin.setEnabled(true);
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("subject", "otherKey", new FixedMetadataValue(pluginY, 20));
+
+        subject.registerEviction(plugin);
+        try {
+            TestServer.getInstance().getPluginManager().callEvent(new PluginDisableEvent(pluginX));
+            assertTrue(subject.hasMetadata("subject", "key"));
+
+            subject.setRemoveOnDisable(true);
+            TestServer.getInstance().getPluginManager().callEvent(new PluginDisableEvent(pluginX));
+            assertFalse(subject.hasMetadata("subject", "key"));
+            assertTrue(subject.hasMetadata("subject", "otherKey"));
+        } finally {
+            HandlerList.unregisterAll(plugin);
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        TestPlugin plugin = new TestPlugin("eviction");
+        plugin.setEnabled(true);
+        final List<Object> evicted = new ArrayList<Object>();
+        StringMetadataStore store = new StringMetadataStore() {
+            @Override
+            protected void onChunkUnload(Chunk chunk) {
+                evicted.add("chunk");
+            }
+
+            @Override
+            protected void onEntityRemove(Entity entity) {
+                evicted.add("entity");
+            }
+        };
+
+        Chunk chunk = (Chunk) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Chunk.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return null;
+            }
+        });
+
+        store.registerEviction(plugin);
+        try {
+            TestServer.getInstance().getPluginManager().callEvent(new ChunkUnloadEvent(chunk));
+            TestServer.getInstance().getPluginManager().callEvent(new EntityDeathEvent(null, new ArrayList<ItemStack>()));
+
+            ChunkUnloadEvent cancelled = new ChunkUnloadEvent(chunk);
+            cancelled.setCancelled(true);
+            TestServer.getInstance().getPluginManager().callEvent(cancelled);
+        } finally {
+            HandlerList.unregisterAll(plugin);
+        }
+
+        assertEquals(2, evicted.size());
+        assertEquals("chunk", evicted.get(0));
+        assertEquals("entity", evicted.get(1));
+    }
+
     private class StringMetadataStore extends MetadataStoreBase<String> implements MetadataStore<String> {
         @Override
         protected String disambiguate(String subject, String metadataKey) {
@@ -129,6 +361,18 @@ public class MetadataStoreTest {
         }
     }
 
+    private class IdentifiedMetadataStore extends MetadataStoreBase<StringBuilder> implements MetadataStore<StringBuilder> {
+        @Override
+        protected Object identify(StringBuilder subject) {
+            return subject.toString();
+        }
+
+        @Override
+        protected String disambiguate(StringBuilder subject, String metadataKey) {
+            return subject + ":" + metadataKey;
+        }
+    }
+
     private class Counter {
         int c = 0;
 
@@ -0,0 +1,49 @@
+package org.bukkit.metadata;
+
+import static org.junit.Assert.assertEquals;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.TestPlugin;
+import org.junit.Test;
+
+public class PrimitiveMetadataValueTest {
+    private Plugin plugin = new TestPlugin("X");
+
+    @Test
+    public void testInt() {
+        assertSameConversions(new FixedMetadataValue(plugin, 5), new IntMetadataValue(plugin, 5));
+        assertSameConversions(new FixedMetadataValue(plugin, 0), new IntMetadataValue(plugin, 0));
+        assertSameConversions(new FixedMetadataValue(plugin, 70000), new IntMetadataValue(plugin, 70000));
+    }
+
+    @Test
+    public void testLong() {
+        assertSameConversions(new FixedMetadataValue(plugin, 5L), new LongMetadataValue(plugin, 5L));
+        assertSameConversions(new FixedMetadataValue(plugin, 1L << 40), new LongMetadataValue(plugin, 1L << 40));
+    }
+
+    @Test
+    public void testDouble() {
+        assertSameConversions(new FixedMetadataValue(plugin, 5.75), new DoubleMetadataValue(plugin, 5.75));
+        assertSameConversions(new FixedMetadataValue(plugin, 0.5), new DoubleMetadataValue(plugin, 0.5));
+        assertSameConversions(new FixedMetadataValue(plugin, -1e10), new DoubleMetadataValue(plugin, -1e10));
+    }
+
+    @Test
+    public void testBoolean() {
+        assertSameConversions(new FixedMetadataValue(plugin, true), new BooleanMetadataValue(plugin, true));
+        assertSameConversions(new FixedMetadataValue(plugin, false), new BooleanMetadataValue(plugin, false));
+    }
+
+    private void assertSameConversions(MetadataValue expected, MetadataValue actual) {
+        assertEquals(expected.value(), actual.value());
+        assertEquals(expected.asInt(), actual.asInt());
+        assertEquals(expected.asLong(), actual.asLong());
+        assertEquals(expected.asShort(), actual.asShort());
+        assertEquals(expected.asByte(), actual.asByte());
+        assertEquals(expected.asFloat(), actual.asFloat(), 0);
+        assertEquals(expected.asDouble(), actual.asDouble(), 0);
+        assertEquals(expected.asBoolean(), actual.asBoolean());
+        assertEquals(expected.asString(), actual.asString());
+    }
+}
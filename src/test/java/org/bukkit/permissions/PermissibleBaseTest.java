@@ -0,0 +1,351 @@
+package org.bukkit.permissions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bukkit.TestServer;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.TestPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermissibleBaseTest {
+    private static final int NODES = 12;
+
+    private final PluginManager pm = TestServer.getInstance().getPluginManager();
+    private final TestPlugin plugin = new TestPlugin("permissible");
+    private final List<Permission> registered = new ArrayList<Permission>();
+
+    @Before
+    public void setUp() {
+        // A small graph with shared children, inverted children and a cycle
+        for (int i = 0; i < NODES; i++) {
+            Map<String, Boolean> children = new LinkedHashMap<String, Boolean>();
+            if (i * 2 + 1 < NODES) {
+                children.put(node(i * 2 + 1), true);
+            }
+            if (i * 2 + 2 < NODES) {
+                children.put(node(i * 2 + 2), i % 3 != 0);
+            }
+            if (i == NODES - 1) {
+                children.put(node(0), true);
+            }
+            Permission perm = new Permission(node(i), i == 4 ? PermissionDefault.TRUE : PermissionDefault.FALSE, children);
+            pm.addPermission(perm);
+            registered.add(perm);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (Permission perm : registered) {
+            pm.removePermission(perm);
+        }
+    }
+
+    @Test
+    public void testChildPermissions() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        assertTrue(permissible.hasPermission(node(4)));
+        assertTrue(permissible.hasPermission(node(9)));
+        assertFalse(permissible.isPermissionSet(node(1)));
+
+        PermissionAttachment attachment = permissible.addAttachment(plugin, node(1), false);
+        assertFalse(permissible.hasPermission(node(1)));
+        assertTrue(permissible.isPermissionSet(node(3)));
+        assertFalse(permissible.hasPermission(node(3)));
+        assertFalse(permissible.hasPermission(node(4)));
+
+        attachment.unsetPermission(node(1));
+        assertFalse(permissible.isPermissionSet(node(1)));
+        assertFalse(permissible.isPermissionSet(node(3)));
+        assertTrue(permissible.hasPermission(node(4)));
+    }
+
+    @Test
+    public void testWildcards() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        assertFalse(permissible.hasPermission("wild.node.child"));
+
+        PermissionAttachment attachment = permissible.addAttachment(plugin, "wild.*", true);
+        assertTrue(permissible.hasPermission("wild.node.child"));
+        assertTrue(permissible.hasPermission("Wild.Node"));
+        assertTrue(permissible.isPermissionSet("wild.node.child"));
+        assertFalse(permissible.hasPermission("wild"));
+        assertFalse(permissible.isPermissionSet("wilder.node"));
+
+        attachment.setPermission("wild.node.*", false);
+        assertFalse(permissible.hasPermission("wild.node.child"));
+        assertTrue(permissible.hasPermission("wild.node"));
+        attachment.setPermission("wild.node.child", true);
+        assertTrue(permissible.hasPermission("wild.node.child"));
+
+        // Wildcards never match registered permissions
+        attachment.setPermission("*", false);
+        attachment.setPermission("test.*", true);
+        assertFalse(permissible.hasPermission(node(3)));
+        assertFalse(permissible.isPermissionSet(node(3)));
+        assertFalse(permissible.hasPermission(pm.getPermission(node(3))));
+        assertTrue(permissible.hasPermission(node(4)));
+        assertTrue(permissible.hasPermission(pm.getPermission(node(4))));
+        assertTrue(permissible.hasPermission("test.unregistered"));
+        assertFalse(permissible.hasPermission("other.unregistered"));
+
+        attachment.remove();
+        assertFalse(permissible.isPermissionSet("wild.node.child"));
+        assertTrue(permissible.hasPermission(node(4)));
+    }
+
+    @Test
+    public void testDefaultWildcards() {
+        Permission admin = new Permission("myplugin.admin", PermissionDefault.OP);
+        Permission all = new Permission("myplugin.*", PermissionDefault.TRUE);
+        pm.addPermission(admin);
+        pm.addPermission(all);
+        registered.add(admin);
+        registered.add(all);
+
+        PermissibleBase permissible = new PermissibleBase(null);
+        assertTrue(permissible.hasPermission("myplugin.*"));
+        assertFalse(permissible.hasPermission("myplugin.admin"));
+        assertFalse(permissible.isPermissionSet("myplugin.admin"));
+        assertFalse(permissible.hasPermission(admin));
+        assertFalse(permissible.isPermissionSet(admin));
+
+        // Set by an attachment, the wildcard still leaves registered nodes
+        PermissionAttachment attachment = permissible.addAttachment(plugin, "myplugin.*", true);
+        assertFalse(permissible.hasPermission("myplugin.admin"));
+        assertFalse(permissible.hasPermission(admin));
+        assertTrue(permissible.hasPermission("myplugin.other"));
+        attachment.remove();
+        assertFalse(permissible.hasPermission("myplugin.admin"));
+        assertFalse(permissible.isPermissionSet("myplugin.admin"));
+    }
+
+    @Test
+    public void testWildcardSkipsRegisteredNode() {
+        Permission admin = new Permission("plugin.admin", PermissionDefault.OP);
+        pm.addPermission(admin);
+        registered.add(admin);
+
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin, "plugin.*", true);
+        assertFalse(permissible.hasPermission("plugin.admin"));
+        assertFalse(permissible.hasPermission(admin));
+        assertFalse(permissible.isPermissionSet("plugin.admin"));
+        assertFalse(permissible.isPermissionSet(admin));
+        assertTrue(permissible.hasPermission("plugin.kick"));
+
+        // Setting the node itself still works
+        attachment.setPermission("plugin.admin", true);
+        assertTrue(permissible.hasPermission(admin));
+        attachment.remove();
+    }
+
+    @Test
+    public void testChildRegisteredLater() {
+        Map<String, Boolean> parentChildren = new LinkedHashMap<String, Boolean>();
+        parentChildren.put("later.child", true);
+        Permission parent = new Permission("later.parent", PermissionDefault.FALSE, parentChildren);
+        pm.addPermission(parent);
+        registered.add(parent);
+
+        PermissibleBase permissible = new PermissibleBase(null);
+        permissible.addAttachment(plugin, "later.parent", true);
+        assertTrue(permissible.hasPermission("later.child"));
+        assertFalse(permissible.isPermissionSet("later.grandchild"));
+
+        Map<String, Boolean> childChildren = new LinkedHashMap<String, Boolean>();
+        childChildren.put("later.grandchild", true);
+        Permission child = new Permission("later.child", PermissionDefault.FALSE, childChildren);
+        pm.addPermission(child);
+        registered.add(child);
+        assertTrue(permissible.hasPermission("later.grandchild"));
+
+        pm.removePermission(child);
+        registered.remove(child);
+        assertTrue(permissible.hasPermission("later.child"));
+        assertFalse(permissible.isPermissionSet("later.grandchild"));
+    }
+
+    @Test
+    public void testSetPermissions() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin);
+        Map<String, Boolean> permissions = new LinkedHashMap<String, Boolean>();
+        permissions.put("Test.Node1", false);
+        permissions.put(node(7), true);
+        permissions.put("unregistered.node", true);
+        attachment.setPermissions(permissions);
+
+        assertEquals(3, attachment.getPermissions().size());
+        assertFalse(permissible.hasPermission(node(1)));
+        assertTrue(permissible.hasPermission(node(7)));
+        assertTrue(permissible.hasPermission("unregistered.node"));
+        assertTrue(permissible.isPermissionSet(node(3)));
+    }
+
+    @Test
+    public void testSetPermissionsRecalculatesOnce() {
+        final int[] recalculations = new int[1];
+        PermissibleBase permissible = new PermissibleBase(null) {
+            @Override
+            public void recalculatePermissions() {
+                recalculations[0]++;
+                super.recalculatePermissions();
+            }
+        };
+        PermissionAttachment attachment = new PermissionAttachment(plugin, permissible);
+        Map<String, Boolean> permissions = new LinkedHashMap<String, Boolean>();
+        for (int i = 0; i < NODES; i++) {
+            permissions.put(node(i), true);
+        }
+
+        recalculations[0] = 0;
+        attachment.setPermissions(permissions);
+        assertEquals(1, recalculations[0]);
+    }
+
+    @Test
+    public void testSetPermissionsOneByOne() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin);
+        for (int i = 0; i < 500; i++) {
+            attachment.setPermission("single.node" + i, i % 2 == 0);
+            if (i % 100 == 0) {
+                assertTrue(permissible.hasPermission("single.node" + i));
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(permissible.isPermissionSet("single.node" + i));
+            assertEquals(i % 2 == 0, permissible.hasPermission("single.node" + i));
+        }
+
+        attachment.unsetPermission("single.node0");
+        assertFalse(permissible.isPermissionSet("single.node0"));
+        assertTrue(permissible.isPermissionSet("single.node1"));
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Throwable {
+        final PermissibleBase permissible = new PermissibleBase(null);
+        final PermissionAttachment attachment = permissible.addAttachment(plugin);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (running.get()) {
+                        permissible.hasPermission("Pair.A");
+                        permissible.hasPermission("pair.other");
+                        // Both nodes are always changed together
+                        Map<String, Boolean> values = new HashMap<String, Boolean>();
+                        for (PermissionAttachmentInfo info : permissible.getEffectivePermissions()) {
+                            values.put(info.getPermission(), info.getValue());
+                        }
+                        assertEquals(values.get("pair.a"), values.get("pair.b"));
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        };
+        reader.start();
+
+        try {
+            for (int i = 0; i < 2000 && failure.get() == null; i++) {
+                Map<String, Boolean> permissions = new HashMap<String, Boolean>();
+                permissions.put("pair.a", i % 2 == 0);
+                permissions.put("pair.b", i % 2 == 0);
+                permissions.put("pair.*", true);
+                attachment.setPermissions(permissions);
+                if (i % 100 == 0) {
+                    permissible.recalculatePermissions();
+                }
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    @Test
+    public void testSubscriptions() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin, node(5), true);
+        assertTrue(pm.getPermissionSubscriptions(node(11)).contains(permissible));
+
+        attachment.remove();
+        assertFalse(pm.getPermissionSubscriptions(node(11)).contains(permissible));
+        assertFalse(pm.getPermissionSubscriptions(node(5)).contains(permissible));
+    }
+
+    @Test
+    public void testIncrementalMatchesFullRecalculation() {
+        Random random = new Random(42);
+        // Only ever updated incrementally
+        PermissibleBase incremental = new PermissibleBase(null);
+        List<PermissionAttachment> incrementalAttachments = new ArrayList<PermissionAttachment>();
+        // Fully recalculated after every change
+        PermissibleBase full = new PermissibleBase(null);
+        List<PermissionAttachment> fullAttachments = new ArrayList<PermissionAttachment>();
+
+        for (int i = 0; i < 1000; i++) {
+            int action = random.nextInt(10);
+            if (incrementalAttachments.isEmpty() || action == 0) {
+                incrementalAttachments.add(incremental.addAttachment(plugin));
+                fullAttachments.add(full.addAttachment(plugin));
+            } else if (action == 1) {
+                int index = random.nextInt(incrementalAttachments.size());
+                incrementalAttachments.remove(index).remove();
+                fullAttachments.remove(index).remove();
+            } else {
+                int index = random.nextInt(incrementalAttachments.size());
+                String name = random.nextInt(4) == 0 ? "unregistered." + random.nextInt(3) : node(random.nextInt(NODES));
+                boolean value = random.nextBoolean();
+                if (action == 2) {
+                    incrementalAttachments.get(index).unsetPermission(name);
+                    fullAttachments.get(index).unsetPermission(name);
+                } else {
+                    incrementalAttachments.get(index).setPermission(name, value);
+                    fullAttachments.get(index).setPermission(name, value);
+                }
+            }
+
+            full.recalculatePermissions();
+            assertEquals("after step " + i, effective(full, fullAttachments), effective(incremental, incrementalAttachments));
+        }
+    }
+
+    private Set<String> effective(PermissibleBase permissible, List<PermissionAttachment> attachments) {
+        Set<String> result = new HashSet<String>();
+        for (PermissionAttachmentInfo info : permissible.getEffectivePermissions()) {
+            result.add(info.getPermission() + "=" + info.getValue() + "@" + attachments.indexOf(info.getAttachment()));
+        }
+        return result;
+    }
+
+    private static String node(int i) {
+        return "test.node" + i;
+    }
+}
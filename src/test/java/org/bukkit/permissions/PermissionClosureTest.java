@@ -0,0 +1,87 @@
+package org.bukkit.permissions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.TestServer;
+import org.bukkit.plugin.SimplePluginManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermissionClosureTest {
+    private final SimplePluginManager pm = (SimplePluginManager) TestServer.getInstance().getPluginManager();
+    private Permission parent;
+    private Permission child;
+
+    @Before
+    public void setUp() {
+        child = new Permission("closure.child", PermissionDefault.FALSE);
+        pm.addPermission(child);
+
+        Map<String, Boolean> children = new LinkedHashMap<String, Boolean>();
+        children.put("Closure.Child", false);
+        children.put("closure.unregistered", true);
+        parent = new Permission("closure.parent", PermissionDefault.FALSE, children);
+        pm.addPermission(parent);
+    }
+
+    @After
+    public void tearDown() {
+        pm.removePermission(parent);
+        pm.removePermission(child);
+        pm.removePermission("closure.grandchild");
+    }
+
+    @Test
+    public void testCompile() {
+        PermissionClosure closure = pm.getPermissionClosure("Closure.Parent");
+        assertEquals(3, closure.size());
+        assertEquals("closure.parent", closure.getName(0));
+        assertEquals("closure.child", closure.getName(1));
+        assertEquals("closure.unregistered", closure.getName(2));
+
+        assertTrue(closure.getValue(0, true));
+        assertFalse(closure.getValue(1, true));
+        assertTrue(closure.getValue(2, true));
+
+        assertFalse(closure.getValue(0, false));
+        assertTrue(closure.getValue(1, false));
+        assertFalse(closure.getValue(2, false));
+    }
+
+    @Test
+    public void testShared() {
+        assertSame(pm.getPermissionClosure("closure.parent"), pm.getPermissionClosure("CLOSURE.PARENT"));
+    }
+
+    @Test
+    public void testInvalidatedOnChange() {
+        PermissionClosure before = pm.getPermissionClosure("closure.parent");
+        pm.addPermission(new Permission("closure.grandchild", PermissionDefault.FALSE));
+        assertNotSame(before, pm.getPermissionClosure("closure.parent"));
+
+        before = pm.getPermissionClosure("closure.parent");
+        child.getChildren().put("closure.grandchild", true);
+        child.recalculatePermissibles();
+
+        PermissionClosure after = pm.getPermissionClosure("closure.parent");
+        assertEquals(4, after.size());
+        assertEquals("closure.grandchild", after.getName(2));
+        assertFalse(after.getValue(2, true));
+        assertEquals(3, before.size());
+    }
+
+    @Test
+    public void testUnregistered() {
+        PermissionClosure closure = pm.getPermissionClosure("closure.unregistered");
+        assertEquals(1, closure.size());
+        assertTrue(closure.getValue(0, true));
+    }
+}
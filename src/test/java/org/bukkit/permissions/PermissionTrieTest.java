@@ -0,0 +1,122 @@
+package org.bukkit.permissions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class PermissionTrieTest {
+
+    @Test
+    public void testIsWildcard() {
+        assertTrue(PermissionTrie.isWildcard("*"));
+        assertTrue(PermissionTrie.isWildcard("plugin.*"));
+        assertFalse(PermissionTrie.isWildcard("plugin*"));
+        assertFalse(PermissionTrie.isWildcard("plugin.command"));
+        assertFalse(PermissionTrie.isWildcard(""));
+    }
+
+    @Test
+    public void testFoldsLikeCaseInsensitiveMap() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        trie.put("Plugin.\u0130tem", "dotted");
+        trie.put("PLUGIN.ITEM", "plain");
+        assertEquals("dotted", trie.get("plugin.\u0130tem".toLowerCase(Locale.ENGLISH)));
+        assertEquals("dotted", trie.getExact("PLUGIN.\u0130TEM"));
+        assertEquals("plain", trie.get("plugin.item"));
+    }
+
+    @Test
+    public void testMostSpecificMatch() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        trie.put("*", "root");
+        trie.put("plugin.*", "plugin");
+        trie.put("Plugin.Command.*", "command");
+        trie.put("plugin.command.help", "help");
+
+        assertEquals("help", trie.get("plugin.command.help"));
+        assertEquals("help", trie.get("PLUGIN.COMMAND.HELP"));
+        assertEquals("command", trie.get("plugin.command.kick"));
+        assertEquals("command", trie.get("plugin.command.help.other"));
+        assertEquals("plugin", trie.get("plugin.command"));
+        assertEquals("plugin", trie.get("plugin.admin"));
+        assertEquals("root", trie.get("plugin"));
+        assertEquals("root", trie.get("other.node"));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void testWildcardNeedsMore() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        trie.put("plugin.*", "plugin");
+
+        assertNull(trie.get("plugin"));
+        assertNull(trie.get("plugin."));
+        assertNull(trie.get("pluginx.node"));
+        assertNull(trie.get(""));
+        assertEquals("plugin", trie.get("plugin.a"));
+    }
+
+    @Test
+    public void testGetExact() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        trie.put("plugin.*", "wildcard");
+        trie.put("plugin.", "dot");
+
+        assertEquals("wildcard", trie.getExact("plugin.*"));
+        assertEquals("dot", trie.getExact("plugin."));
+        assertNull(trie.getExact("plugin.a"));
+    }
+
+    @Test
+    public void testRemove() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        trie.put("plugin.*", "plugin");
+        trie.put("plugin.command", "command");
+
+        assertNull(trie.remove("plugin.other"));
+        assertEquals("plugin", trie.remove("Plugin.*"));
+        assertNull(trie.remove("plugin.*"));
+        assertEquals(1, trie.size());
+        assertNull(trie.get("plugin.other"));
+        assertEquals("command", trie.get("plugin.command"));
+
+        assertEquals("command", trie.remove("plugin.command"));
+        assertTrue(trie.isEmpty());
+        assertTrue(trie.getWithPrefix("").isEmpty());
+    }
+
+    @Test
+    public void testPut() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        assertNull(trie.put("node", "first"));
+        assertEquals("first", trie.put("NODE", "second"));
+        assertEquals(1, trie.size());
+        assertEquals("second", trie.get("node"));
+
+        trie.clear();
+        assertTrue(trie.isEmpty());
+        assertNull(trie.get("node"));
+    }
+
+    @Test
+    public void testGetWithPrefix() {
+        PermissionTrie<String> trie = new PermissionTrie<String>();
+        trie.put("a.*", "a.*");
+        trie.put("a.b", "a.b");
+        trie.put("a.b.c", "a.b.c");
+        trie.put("ab", "ab");
+        trie.put("c", "c");
+
+        assertEquals(new HashSet<String>(Arrays.asList("a.*", "a.b", "a.b.c")), new HashSet<String>(trie.getWithPrefix("A.")));
+        assertEquals(new HashSet<String>(Arrays.asList("a.*", "a.b", "a.b.c", "ab")), new HashSet<String>(trie.getWithPrefix("a")));
+        assertEquals(5, trie.getWithPrefix("").size());
+        assertTrue(trie.getWithPrefix("d").isEmpty());
+    }
+}
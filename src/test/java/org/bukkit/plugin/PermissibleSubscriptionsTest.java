@@ -0,0 +1,72 @@
+package org.bukkit.plugin;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.permissions.Permissible;
+import org.bukkit.permissions.PermissibleBase;
+import org.junit.Test;
+
+public class PermissibleSubscriptionsTest {
+    private final PermissibleSubscriptions<String> subscriptions = new PermissibleSubscriptions<String>();
+
+    @Test
+    public void testSubscribe() {
+        final Permissible first = new PermissibleBase(null);
+        final Permissible second = new PermissibleBase(null);
+        subscriptions.subscribe("node", first);
+        subscriptions.subscribe("node", second);
+        subscriptions.subscribe("node", second);
+        subscriptions.subscribe("other", second);
+
+        assertThat(subscriptions.getSubscriptions("node"), containsInAnyOrder(first, second));
+        assertThat(subscriptions.getSubscriptions("other"), contains(second));
+        assertThat(subscriptions.getSubscriptions("none"), is(empty()));
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        final Permissible first = new PermissibleBase(null);
+        final Permissible second = new PermissibleBase(null);
+        subscriptions.subscribe("node", first);
+        subscriptions.subscribe("node", second);
+
+        subscriptions.unsubscribe("node", first);
+        subscriptions.unsubscribe("node", new PermissibleBase(null));
+        subscriptions.unsubscribe("none", second);
+        assertThat(subscriptions.getSubscriptions("node"), contains(second));
+
+        subscriptions.unsubscribe("node", second);
+        assertThat(subscriptions.getSubscriptions("node"), is(empty()));
+    }
+
+    @Test
+    public void testCollected() throws InterruptedException {
+        final Permissible kept = new PermissibleBase(null);
+        subscriptions.subscribe("node", kept);
+        List<Permissible> dropped = new ArrayList<Permissible>();
+        for (int i = 0; i < 100; i++) {
+            dropped.add(new PermissibleBase(null));
+            subscriptions.subscribe("node", dropped.get(i));
+            subscriptions.subscribe("node" + i, dropped.get(i));
+        }
+        assertThat(subscriptions.getSubscriptions("node").size(), is(101));
+
+        dropped = null;
+        for (int i = 0; i < 50 && subscriptions.getSubscriptions("node").size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(subscriptions.getSubscriptions("node"), contains(kept));
+        assertThat(subscriptions.getSubscriptions("node0"), is(empty()));
+
+        // The ids of the collected permissibles are reused
+        final Permissible added = new PermissibleBase(null);
+        subscriptions.subscribe("node", added);
+        assertThat(subscriptions.getSubscriptions("node"), containsInAnyOrder(kept, added));
+        assertThat(subscriptions.getSubscriptions("node0"), is(empty()));
+    }
+}
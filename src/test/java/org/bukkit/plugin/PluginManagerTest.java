@@ -3,13 +3,26 @@ package org.bukkit.plugin;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.bukkit.Server;
 import org.bukkit.TestServer;
 import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
 import org.bukkit.event.TestEvent;
+import org.bukkit.permissions.PermissibleBase;
 import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionDefault;
 
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class PluginManagerTest {
     private class MutableObject {
@@ -20,6 +33,41 @@ public class PluginManagerTest {
 
     private final MutableObject store = new MutableObject();
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Loads a plugin for each <code>.perms</code> file, which registers
+     * permissions while it loads.
+     */
+    public static class PermissionLoader implements PluginLoader {
+        public PermissionLoader(Server server) {}
+
+        public Plugin loadPlugin(File file) {
+            String name = getPluginDescription(file).getName();
+            for (int i = 0; i < 10; i++) {
+                pm.addPermission(new Permission(name + ".node" + i, PermissionDefault.TRUE));
+            }
+            return new TestPlugin(name);
+        }
+
+        public PluginDescriptionFile getPluginDescription(File file) {
+            return new PluginDescriptionFile(file.getName().replace(".perms", ""), "1.0", "test.Main");
+        }
+
+        public Pattern[] getPluginFileFilters() {
+            return new Pattern[] { Pattern.compile("\\.perms$") };
+        }
+
+        public Map<Class<? extends Event>, Set<RegisteredListener>> createRegisteredListeners(Listener listener, Plugin plugin) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void enablePlugin(Plugin plugin) {}
+
+        public void disablePlugin(Plugin plugin) {}
+    }
+
     @Test
     public void testAsyncSameThread() {
         final Event event = new TestEvent(true);
@@ -152,6 +200,91 @@ public class PluginManagerTest {
         this.testRemovePermissionByPermission("CaMeL");
     }
 
+    @Test
+    public void testAddPermissionsRecalculatesOnce() {
+        final int[] recalculations = new int[1];
+        final PermissibleBase permissible = new PermissibleBase(null) {
+            @Override
+            public void recalculatePermissions() {
+                recalculations[0]++;
+                super.recalculatePermissions();
+            }
+        };
+        final List<Permission> perms = new ArrayList<Permission>();
+        for (int i = 0; i < 100; i++) {
+            perms.add(new Permission("bulk.node" + i, i % 2 == 0 ? PermissionDefault.TRUE : PermissionDefault.NOT_OP));
+        }
+
+        recalculations[0] = 0;
+        pm.addPermissions(perms);
+        assertThat(recalculations[0], is(1));
+        assertThat(permissible.hasPermission("bulk.node42"), is(true));
+
+        recalculations[0] = 0;
+        pm.addPermission(new Permission("bulk.single", PermissionDefault.TRUE));
+        assertThat(recalculations[0], is(1));
+    }
+
+    @Test
+    public void testLoadPluginsRecalculatesOnce() throws Exception {
+        final int[] recalculations = new int[1];
+        final PermissibleBase permissible = new PermissibleBase(null) {
+            @Override
+            public void recalculatePermissions() {
+                recalculations[0]++;
+                super.recalculatePermissions();
+            }
+        };
+        for (int i = 0; i < 5; i++) {
+            folder.newFile("loaded" + i + ".perms");
+        }
+        pm.registerInterface(PermissionLoader.class);
+
+        recalculations[0] = 0;
+        assertThat(pm.loadPlugins(folder.getRoot()).length, is(5));
+        assertThat(recalculations[0], is(1));
+        assertThat(permissible.hasPermission("loaded3.node7"), is(true));
+    }
+
+    @Test
+    public void testAddPermissionsRejectsDuplicates() {
+        pm.addPermission(new Permission("bulk.existing"));
+        final List<Permission> perms = new ArrayList<Permission>();
+        perms.add(new Permission("bulk.new"));
+        perms.add(new Permission("Bulk.Existing"));
+
+        try {
+            pm.addPermissions(perms);
+            fail("Duplicate permission was added");
+        } catch (IllegalArgumentException ex) {
+        }
+        assertThat(pm.getPermission("bulk.new"), is(nullValue()));
+
+        perms.set(1, new Permission("BULK.NEW"));
+        try {
+            pm.addPermissions(perms);
+            fail("Duplicate permission was added");
+        } catch (IllegalArgumentException ex) {
+        }
+        assertThat(pm.getPermission("bulk.new"), is(nullValue()));
+    }
+
+    @Test
+    public void testPermissionsWithPrefix() {
+        final Permission wildcard = new Permission("Prefix.*");
+        final Permission child = new Permission("prefix.child");
+        pm.addPermission(wildcard);
+        pm.addPermission(child);
+        pm.addPermission(new Permission("prefixed"));
+
+        final SimplePluginManager spm = (SimplePluginManager) pm;
+        assertThat(spm.getPermissionsWithPrefix("PREFIX."), containsInAnyOrder(wildcard, child));
+        assertThat(spm.getPermissionsWithPrefix("prefix").size(), is(3));
+
+        pm.removePermission(child);
+        assertThat(spm.getPermissionsWithPrefix("prefix."), contains(wildcard));
+    }
+
     private void testRemovePermissionByName(final String name) {
         final Permission perm = new Permission(name);
         pm.addPermission(perm);
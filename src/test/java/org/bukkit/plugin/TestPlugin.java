@@ -5,6 +5,7 @@ import java.io.InputStream;
 import java.util.List;
 
 import org.bukkit.Server;
+import org.bukkit.TestServer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -66,7 +67,7 @@ public class TestPlugin extends PluginBase {
     }
 
     public Server getServer() {
-        throw new UnsupportedOperationException("Not supported.");
+        return TestServer.getInstance();
     }
 
     public boolean isEnabled() {
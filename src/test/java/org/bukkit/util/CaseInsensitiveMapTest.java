@@ -0,0 +1,141 @@
+package org.bukkit.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CaseInsensitiveMapTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void nullKeyTest() {
+        new CaseInsensitiveMap<Integer>().put(null, 1);
+    }
+
+    @Test
+    public void nullLookupTest() {
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        map.put("key", 1);
+        assertThat(map.get(null), is(nullValue()));
+        assertThat(map.containsKey(null), is(false));
+        assertThat(map.remove(null), is(nullValue()));
+    }
+
+    @Test
+    public void mixedCaseTest() {
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        map.put("Bukkit.Command.Help", 1);
+        assertThat(map.get("bukkit.command.help"), is(1));
+        assertThat(map.get("BUKKIT.COMMAND.HELP"), is(1));
+        assertThat(map.getLowerCase("bukkit.command.help"), is(1));
+        assertThat(map.containsKey("bukkit.Command.help"), is(true));
+        assertThat(map.keySet().iterator().next(), is("bukkit.command.help"));
+
+        assertThat(map.put("BUKKIT.command.HELP", 2), is(1));
+        assertThat(map.size(), is(1));
+        assertThat(map.get("Bukkit.Command.Help"), is(2));
+
+        assertThat(map.remove("bukkit.COMMAND.help"), is(2));
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.containsKey("bukkit.command.help"), is(false));
+    }
+
+    @Test
+    public void nonAsciiTest() {
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        map.put("ÄRGER", 1);
+        assertThat(map.get("ärger"), is(1));
+        assertThat(map.get("ÄrGeR"), is(1));
+        assertThat(map.get("arger"), is(nullValue()));
+    }
+
+    @Test
+    public void turkishLocaleTest() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+            map.put("PLUGIN.ITEM", 1);
+            map.put("PLUGIN.İTEM", 2);
+            assertThat(map.get("plugin.item"), is(1));
+            assertThat(map.getLowerCase("plugin.item"), is(1));
+            assertThat(map.get("Plugin.Item"), is(1));
+            assertThat(map.get("plugin.İtem"), is(2));
+            assertThat(map.keySet(), hasItem("plugin.item"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void similarKeysTest() {
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        map.put("a.b", 1);
+        map.put("a.bc", 2);
+        map.put("a@b", 3);
+        assertThat(map.get("A.B"), is(1));
+        assertThat(map.get("A.BC"), is(2));
+        assertThat(map.get("A@B"), is(3));
+        assertThat(map.get("A`B"), is(nullValue()));
+    }
+
+    @Test
+    public void iteratorRemoveTest() {
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put("Key" + i, i);
+        }
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertThat(map.size(), is(50));
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.containsKey("KEY" + i), is(i % 2 != 0));
+        }
+    }
+
+    @Test
+    public void entryAfterClearTest() {
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put("Key" + i, i);
+        }
+        Map.Entry<String, Integer> last = null;
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            last = entry;
+        }
+        map.clear();
+        assertThat(last.getValue(), is(nullValue()));
+        assertThat(last.setValue(5), is(nullValue()));
+        assertThat(map.get(last.getKey()), is(5));
+        assertThat(last.getValue(), is(5));
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        // Exercises resizing and probing past removed keys
+        Random random = new Random(42);
+        CaseInsensitiveMap<Integer> map = new CaseInsensitiveMap<Integer>();
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        for (int i = 0; i < 10000; i++) {
+            String key = random.nextBoolean() ? "node" + random.nextInt(200) : "NODE" + random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key), is(expected.remove(key.toLowerCase())));
+            } else {
+                assertThat(map.put(key, i), is(expected.put(key.toLowerCase(), i)));
+            }
+            assertThat(map.size(), is(expected.size()));
+        }
+        assertThat(map, is(expected));
+        assertThat(new HashMap<String, Integer>(map), is(expected));
+    }
+}
@@ -0,0 +1,123 @@
+package org.bukkit.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CopyOnWriteMapTest {
+
+    @Test
+    public void putAndRemoveTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        assertThat(map.put("a", 1), is(nullValue()));
+        assertThat(map.put("a", 2), is(1));
+        map.putAll(Collections.singletonMap("b", 3));
+        assertThat(map.size(), is(2));
+        assertThat(map.get("a"), is(2));
+        assertThat(map.remove("a"), is(2));
+        assertThat(map.remove("a"), is(nullValue()));
+        assertThat(map.containsKey("a"), is(false));
+        assertThat(map.containsValue(3), is(true));
+    }
+
+    @Test
+    public void snapshotTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        map.put("a", 1);
+        Map<String, Integer> snapshot = map.snapshot();
+        assertThat(map.snapshot(), is(sameInstance(snapshot)));
+
+        map.put("b", 2);
+        assertThat(snapshot.size(), is(1));
+        assertThat(map.snapshot(), is(not(sameInstance(snapshot))));
+        assertThat(map.snapshot().size(), is(2));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void unmodifiableSnapshotTest() {
+        new CopyOnWriteMap<String, Integer>().snapshot().put("a", 1);
+    }
+
+    @Test
+    public void iterateWhileChangingTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        for (int i = 0; i < 10; i++) {
+            map.put("key" + i, i);
+        }
+
+        int count = 0;
+        for (String key : map.keySet()) {
+            map.put(key + "copy", 0);
+            count++;
+        }
+        assertThat(count, is(10));
+        assertThat(map.size(), is(20));
+    }
+
+    @Test
+    public void iteratorRemoveTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        map.put("a", 1);
+        map.put("b", 2);
+
+        Iterator<Integer> it = map.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() == 1) {
+                it.remove();
+            }
+        }
+        assertThat(map, is(Collections.singletonMap("b", 2)));
+    }
+
+    @Test
+    public void iteratorRemoveKeepsNewerValueTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        map.put("a", 1);
+
+        Iterator<String> it = map.keySet().iterator();
+        it.next();
+        map.put("a", 2);
+        it.remove();
+        assertThat(map, is(Collections.singletonMap("a", 2)));
+    }
+
+    @Test
+    public void entrySetValueTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        map.put("a", 1);
+        Map<String, Integer> snapshot = map.snapshot();
+
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            assertThat(entry.setValue(entry.getValue() + 1), is(1));
+            assertThat(entry.getValue(), is(2));
+        }
+        assertThat(map.get("a"), is(2));
+        assertThat(snapshot.get("a"), is(1));
+    }
+
+    @Test
+    public void removeAllTest() {
+        CopyOnWriteMap<String, Integer> map = new CopyOnWriteMap<String, Integer>();
+        for (int i = 0; i < 10; i++) {
+            map.put("key" + i, i);
+        }
+
+        assertThat(map.removeAll(Arrays.asList("key0", "key1", "missing")), is(true));
+        assertThat(map.removeAll(Arrays.asList("key0", "missing")), is(false));
+        assertThat(map.keySet().removeAll(Arrays.asList("key2")), is(true));
+        assertThat(map.values().removeAll(Arrays.asList(3, 4)), is(true));
+        assertThat(map.entrySet().removeAll(Collections.singletonMap("key5", 5).entrySet()), is(true));
+        assertThat(map.size(), is(4));
+
+        assertThat(map.keySet().retainAll(Arrays.asList("key6", "key7")), is(true));
+        assertThat(map.keySet(), containsInAnyOrder("key6", "key7"));
+        assertThat(map.values().retainAll(Arrays.asList(7)), is(true));
+        assertThat(map, is(Collections.singletonMap("key7", 7)));
+    }
+}
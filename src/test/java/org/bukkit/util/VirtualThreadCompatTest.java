@@ -0,0 +1,55 @@
+package org.bukkit.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.Test;
+
+public class VirtualThreadCompatTest {
+    private static final Runnable NOOP = new Runnable() {
+        public void run() {}
+    };
+
+    @Test(expected=IllegalArgumentException.class)
+    public void nullPrefixTest() {
+        VirtualThreadCompat.newThreadFactory(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void nullFallbackTest() {
+        VirtualThreadCompat.newThreadFactory("Test", null);
+    }
+
+    @Test
+    public void factoryMatchesSupport() {
+        ThreadFactory factory = VirtualThreadCompat.newThreadFactory("Test-");
+        if (VirtualThreadCompat.isSupported()) {
+            assertThat(factory, is(notNullValue()));
+            Thread thread = factory.newThread(NOOP);
+            assertThat(VirtualThreadCompat.isVirtual(thread), is(true));
+            assertThat(thread.getName(), is("Test-0"));
+        } else {
+            assertThat(factory, is(nullValue()));
+        }
+    }
+
+    @Test
+    public void fallbackUsedWithoutSupport() {
+        ThreadFactory fallback = Executors.defaultThreadFactory();
+        ThreadFactory factory = VirtualThreadCompat.newThreadFactory("Test-", fallback);
+        if (VirtualThreadCompat.isSupported()) {
+            assertThat(factory, is(not(sameInstance(fallback))));
+        } else {
+            assertThat(factory, is(sameInstance(fallback)));
+        }
+    }
+
+    @Test
+    public void platformThreadIsNotVirtual() {
+        assertThat(VirtualThreadCompat.isVirtual(Thread.currentThread()), is(false));
+        assertThat(VirtualThreadCompat.isVirtual(null), is(false));
+    }
+}